@@ -0,0 +1,53 @@
+package com.spirent.itest_backend.benchmark;
+
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entities shaped like the rows the repositories return, with every column set
+ */
+final class BenchmarkData {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.of(2024, 5, 1, 8, 30, 0, 0, ZoneOffset.UTC);
+    private static final String[] COLORS = {"Red", "Blue", "Brown", "Black", "Yellow", "Green"};
+
+    private BenchmarkData() {
+    }
+
+    static List<BirdEntity> birds(int count) {
+        List<BirdEntity> birds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BirdEntity bird = new BirdEntity();
+            bird.setId(1000L + i);
+            bird.setName("Bird " + i);
+            bird.setColor(COLORS[i % COLORS.length]);
+            bird.setWeight(40.0 + i % 50);
+            bird.setHeight(15.0 + i % 20);
+            bird.setCreatedAt(CREATED_AT);
+            bird.setUpdatedAt(CREATED_AT.plusDays(1));
+            birds.add(bird);
+        }
+        return birds;
+    }
+
+    static List<SightingEntity> sightings(BirdEntity bird, int count) {
+        List<SightingEntity> sightings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SightingEntity sighting = new SightingEntity();
+            sighting.setId(bird.getId() * 10_000 + i);
+            sighting.setBird(bird);
+            sighting.setLocation("Central Park, New York - spot " + i);
+            sighting.setDateTime(CREATED_AT.minusMinutes(i));
+            sighting.setLatitude(40.7812 + i * 0.0001);
+            sighting.setLongitude(-73.9665 - i * 0.0001);
+            sighting.setCreatedAt(CREATED_AT.minusMinutes(i));
+            sightings.add(sighting);
+        }
+        return sightings;
+    }
+}
@@ -0,0 +1,77 @@
+package com.spirent.itest_backend.benchmark;
+
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.birdwatch.model.PaginatedSightings;
+import com.spirent.birdwatch.model.Sighting;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.utils.BirdMapper;
+import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import com.spirent.itest_backend.utils.PaginationMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the mappers that run on every item of a list response, for a single item and for a default sized page
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final BirdMapper birdMapper = new BirdMapper();
+    private final BirdSightingsMapper birdSightingsMapper = new BirdSightingsMapper();
+    private final PaginationMapper paginationMapper = new PaginationMapper();
+
+    private BirdEntity birdEntity;
+    private SightingEntity sightingEntity;
+    private Page<BirdEntity> birdPage;
+    private Page<SightingEntity> sightingPage;
+
+    @Setup
+    public void setUp() {
+        birdPage = new PageImpl<>(BenchmarkData.birds(PAGE_SIZE), PageRequest.of(0, PAGE_SIZE), 10_000);
+        birdEntity = birdPage.getContent().get(0);
+        sightingPage = new PageImpl<>(BenchmarkData.sightings(birdEntity, PAGE_SIZE), PageRequest.of(0, PAGE_SIZE), 10_000);
+        sightingEntity = sightingPage.getContent().get(0);
+    }
+
+    @Benchmark
+    public Bird entityToBird() {
+        return birdMapper.entityToBird(birdEntity);
+    }
+
+    @Benchmark
+    public Sighting entityToSighting() {
+        return birdSightingsMapper.entityToSighting(sightingEntity);
+    }
+
+    @Benchmark
+    public PaginatedBirds mapToPaginatedBirds() {
+        return paginationMapper.mapToPaginatedBirds(birdPage, birdMapper::entityToBird);
+    }
+
+    @Benchmark
+    public PaginatedSightings mapToPaginatedSightings() {
+        return paginationMapper.mapToPaginatedSightings(sightingPage, birdSightingsMapper::entityToSighting);
+    }
+}
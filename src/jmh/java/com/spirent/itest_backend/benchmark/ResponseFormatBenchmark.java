@@ -0,0 +1,93 @@
+package com.spirent.itest_backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.spirent.birdwatch.model.PaginatedSightings;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import com.spirent.itest_backend.utils.PaginationMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A page of sightings in the JSON and CBOR representations, written by the response converters and read back by a
+ * client. The payload sizes, raw and gzipped, are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    // Configured like the ObjectMappers Spring Boot gives the JSON and CBOR message converters (see CborConfig)
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+    private PaginatedSightings page;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws IOException {
+        BirdEntity bird = BenchmarkData.birds(1).get(0);
+        List<SightingEntity> sightings = BenchmarkData.sightings(bird, pageSize);
+        page = new PaginationMapper().mapToPaginatedSightings(
+                new PageImpl<>(sightings, PageRequest.of(0, pageSize), 100_000), new BirdSightingsMapper()::entityToSighting);
+        json = jsonMapper.writeValueAsBytes(page);
+        cbor = cborMapper.writeValueAsBytes(page);
+        System.out.printf("%nPage of %d sightings: JSON %d bytes (%d gzipped), CBOR %d bytes (%d gzipped)%n",
+                pageSize, json.length, gzippedSize(json), cbor.length, gzippedSize(cbor));
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PaginatedSightings deserializeJson() throws IOException {
+        return jsonMapper.readValue(json, PaginatedSightings.class);
+    }
+
+    @Benchmark
+    public PaginatedSightings deserializeCbor() throws IOException {
+        return cborMapper.readValue(cbor, PaginatedSightings.class);
+    }
+
+    private static int gzippedSize(byte[] payload) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        return compressed.size();
+    }
+}
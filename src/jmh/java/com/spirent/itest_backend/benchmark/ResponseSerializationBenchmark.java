@@ -0,0 +1,91 @@
+package com.spirent.itest_backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.utils.BirdMapper;
+import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import com.spirent.itest_backend.utils.PaginationMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A default sized page of birds with their sightings expanded, from entities to the JSON bytes of the response.
+ * mapAndSerialize follows BirdService and the message converter, serialize measures Jackson alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10", "1000"})
+    public int sightingsPerBird;
+
+    private final BirdMapper birdMapper = new BirdMapper();
+    private final BirdSightingsMapper birdSightingsMapper = new BirdSightingsMapper();
+    private final PaginationMapper paginationMapper = new PaginationMapper();
+
+    // Configured like the ObjectMapper Spring Boot gives the JSON message converter
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Page<BirdEntity> birdPage;
+    private Map<Long, List<SightingEntity>> sightingsByBirdId;
+    private PaginatedBirds paginatedBirds;
+
+    @Setup
+    public void setUp() {
+        List<BirdEntity> birds = BenchmarkData.birds(PAGE_SIZE);
+        birdPage = new PageImpl<>(birds, PageRequest.of(0, PAGE_SIZE), 10_000);
+        sightingsByBirdId = birds.stream()
+                .collect(Collectors.toMap(BirdEntity::getId, bird -> BenchmarkData.sightings(bird, sightingsPerBird)));
+        paginatedBirds = map();
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(map());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paginatedBirds);
+    }
+
+    private PaginatedBirds map() {
+        PaginatedBirds page = paginationMapper.mapToPaginatedBirds(birdPage, birdMapper::entityToBird);
+        Map<Long, Bird> birdsById = page.getContent().stream()
+                .collect(Collectors.toMap(Bird::getId, Function.identity()));
+        birdsById.values().forEach(bird -> bird.setSightings(new ArrayList<>()));
+        sightingsByBirdId.forEach((birdId, sightings) -> sightings.forEach(sightingEntity ->
+                birdsById.get(birdId).addSightingsItem(birdSightingsMapper.entityToSighting(sightingEntity))));
+        return page;
+    }
+}
@@ -0,0 +1,44 @@
+package com.spirent.itest_backend.loadtest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Ids the scenarios pick from. Seeded rows are only read, bird updates and deletes go to birds created during the
+ * run so that the seeded dataset stays the same from one run to the next.
+ */
+class Dataset {
+
+    final List<Long> birdIds;
+    final long minSightingId;
+    final long maxSightingId;
+    final int months;
+    final Instant anchor;
+    final ConcurrentLinkedDeque<Long> createdBirdIds = new ConcurrentLinkedDeque<>();
+
+    Dataset(List<Long> birdIds, long minSightingId, long maxSightingId, int months, Instant anchor) {
+        this.birdIds = birdIds;
+        this.minSightingId = minSightingId;
+        this.maxSightingId = maxSightingId;
+        this.months = months;
+        this.anchor = anchor;
+    }
+
+    long randomBirdId(Random random) {
+        return birdIds.get(random.nextInt(birdIds.size()));
+    }
+
+    /**
+     * Bird names may only contain letters, so numbers are spelled in base 26
+     */
+    static String letters(long number) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return letters.reverse().toString();
+    }
+}
@@ -0,0 +1,152 @@
+package com.spirent.itest_backend.loadtest;
+
+import com.spirent.itest_backend.repository.SightingCopyRepository;
+import com.spirent.itest_backend.repository.SightingCopyRepository.SightingRow;
+import com.spirent.itest_backend.repository.SightingPartitionRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Fills an empty database with a synthetic dataset through COPY. The same seed and anchor always produce the same
+ * rows, sightings are dated back from the anchor in UTC.
+ * The distribution is skewed like real observations:
+ * - A few birds have most of the sightings, the share of bird k falls off as a power law.
+ * - Recent months have more sightings than old ones.
+ * - Sightings cluster around a fixed set of hotspots, and one in ten has no coordinates.
+ */
+class DatasetGenerator {
+
+    private static final Logger logger = LogManager.getLogger(DatasetGenerator.class);
+    private static final String[] COLORS = {"Red", "Blue", "Brown", "Black", "White", "Yellow", "Green", "Grey"};
+    private static final int HOTSPOTS = 64;
+    // Rows per COPY statement, each one is its own transaction and fires the rollup triggers once
+    private static final int ROWS_PER_COPY = 1_000_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final SightingCopyRepository sightingCopyRepository;
+    private final SightingPartitionRepository sightingPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    DatasetGenerator(DataSource dataSource, SightingCopyRepository sightingCopyRepository,
+                     SightingPartitionRepository sightingPartitionRepository,
+                     PlatformTransactionManager transactionManager) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.sightingCopyRepository = sightingCopyRepository;
+        this.sightingPartitionRepository = sightingPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Seeds the dataset unless birds.birds already has rows, then returns what the database holds
+     */
+    Dataset seedIfEmpty(LoadTestSettings settings) throws SQLException {
+        Long existingBirds = jdbcTemplate.queryForObject("SELECT count(*) FROM birds.birds", Long.class);
+        if (existingBirds != null && existingBirds > 0) {
+            logger.info("Database already has {} birds, reusing it as is", existingBirds);
+        } else {
+            seed(settings);
+        }
+
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds.birds ORDER BY id", Long.class);
+        Long minSightingId = jdbcTemplate.queryForObject("SELECT min(id) FROM birds.sightings", Long.class);
+        Long maxSightingId = jdbcTemplate.queryForObject("SELECT max(id) FROM birds.sightings", Long.class);
+        return new Dataset(birdIds, minSightingId != null ? minSightingId : 0, maxSightingId != null ? maxSightingId : 0,
+                settings.months, settings.anchor);
+    }
+
+    private void seed(LoadTestSettings settings) throws SQLException {
+        long startNanos = System.nanoTime();
+        Random random = new Random(settings.seed);
+
+        copyBirds(settings.birds, random);
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds.birds ORDER BY id", Long.class);
+        logger.info("Copied {} birds", birdIds.size());
+
+        // Past months get their own partitions, otherwise every row would land in the default partition
+        LocalDateTime anchor = LocalDateTime.ofInstant(settings.anchor, ZoneOffset.UTC);
+        YearMonth currentMonth = YearMonth.from(anchor);
+        for (int month = settings.months; month >= 0; month--) {
+            LocalDate monthStart = currentMonth.minusMonths(month).atDay(1);
+            transactionTemplate.executeWithoutResult(status -> sightingPartitionRepository.createPartition(monthStart));
+        }
+
+        double[][] hotspots = new double[HOTSPOTS][];
+        for (int i = 0; i < HOTSPOTS; i++) {
+            hotspots[i] = new double[]{random.nextDouble() * 120 - 55, random.nextDouble() * 340 - 170};
+        }
+        long spanMinutes = settings.months * 30L * 24 * 60;
+
+        long copied = 0;
+        while (copied < settings.sightings) {
+            long rows = Math.min(ROWS_PER_COPY, settings.sightings - copied);
+            copied += sightingCopyRepository.copy(new Iterator<>() {
+                private long produced;
+
+                @Override
+                public boolean hasNext() {
+                    return produced < rows;
+                }
+
+                @Override
+                public SightingRow next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    produced++;
+                    long birdId = birdIds.get((int) (birdIds.size() * Math.pow(random.nextDouble(), 4)));
+                    LocalDateTime dateTime = anchor.minusMinutes((long) (spanMinutes * Math.pow(random.nextDouble(), 2)));
+                    int hotspot = (int) (HOTSPOTS * Math.pow(random.nextDouble(), 2));
+                    if (random.nextInt(10) == 0) {
+                        return new SightingRow(birdId, "Hotspot " + hotspot, dateTime, null, null);
+                    }
+                    double latitude = Math.max(-90, Math.min(90, hotspots[hotspot][0] + random.nextGaussian() * 0.2));
+                    double longitude = Math.max(-180, Math.min(180, hotspots[hotspot][1] + random.nextGaussian() * 0.2));
+                    return new SightingRow(birdId, "Hotspot " + hotspot, dateTime, latitude, longitude);
+                }
+            });
+            logger.info("Copied {} of {} sightings", copied, settings.sightings);
+        }
+
+        jdbcTemplate.execute("ANALYZE birds.birds");
+        jdbcTemplate.execute("ANALYZE birds.sightings");
+        logger.info("Seeded the dataset in {} s", (System.nanoTime() - startNanos) / 1_000_000_000);
+    }
+
+    private void copyBirds(int count, Random random) throws SQLException {
+        StringBuilder csv = new StringBuilder(count * 40);
+        for (int i = 0; i < count; i++) {
+            csv.append("Seeded ").append(Dataset.letters(i)).append(',')
+                    .append(COLORS[random.nextInt(COLORS.length)]).append(',')
+                    .append(5 + random.nextInt(2000) / 10.0).append(',')
+                    .append(8 + random.nextInt(900) / 10.0).append('\n');
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY birds.birds (name, color, weight, height) FROM STDIN WITH (FORMAT csv)");
+            byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            copyIn.endCopy();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.spirent.itest_backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spirent.itest_backend.loadtest.Scenario.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load at a fixed rate: request i is due at start + i / rps whether or not earlier ones have completed.
+ * Latency is measured from the due time rather than the send time, so a stalled server shows up in the percentiles
+ * instead of silently lowering the request rate.
+ */
+class LoadDriver {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final Random random;
+
+    LoadDriver(HttpClient httpClient, ObjectMapper objectMapper, List<Operation> operations, long seed) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        this.random = new Random(seed);
+    }
+
+    static final class OperationStats {
+        // Microseconds, up to ten minutes at three significant digits
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+        final AtomicLong clientErrors = new AtomicLong();
+        final AtomicLong serverErrors = new AtomicLong();
+    }
+
+    /**
+     * Sends rps requests per second for the given duration and waits for the last responses
+     */
+    Map<String, OperationStats> run(int rps, Duration duration, int maxInFlight) throws InterruptedException {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        operations.forEach(operation -> stats.put(operation.name, new OperationStats()));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long dueNanos = startNanos + i * periodNanos;
+            if (dueNanos >= endNanos) {
+                break;
+            }
+            LockSupport.parkNanos(dueNanos - System.nanoTime());
+
+            Operation operation = pick();
+            HttpRequest request = operation.request.apply(random);
+            while (request == null) {
+                operation = pick();
+                request = operation.request.apply(random);
+            }
+
+            inFlight.acquire();
+            Operation sent = operation;
+            OperationStats operationStats = stats.get(sent.name);
+            HttpResponse.BodyHandler<byte[]> bodyHandler = HttpResponse.BodyHandlers.ofByteArray();
+            httpClient.sendAsync(request, bodyHandler).whenComplete((response, error) -> {
+                inFlight.release();
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueNanos);
+                operationStats.latency.recordValue(Math.min(micros, operationStats.latency.getHighestTrackableValue()));
+                if (error != null || response.statusCode() >= 500) {
+                    operationStats.serverErrors.incrementAndGet();
+                } else if (response.statusCode() >= 400) {
+                    operationStats.clientErrors.incrementAndGet();
+                } else if (sent.onCreated != null) {
+                    try {
+                        sent.onCreated.accept(objectMapper.readTree(response.body()));
+                    } catch (IOException e) {
+                        operationStats.serverErrors.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        return stats;
+    }
+
+    private Operation pick() {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+}
@@ -0,0 +1,158 @@
+package com.spirent.itest_backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spirent.itest_backend.ItestBackendApplication;
+import com.spirent.itest_backend.loadtest.LoadDriver.OperationStats;
+import com.spirent.itest_backend.repository.SightingCopyRepository;
+import com.spirent.itest_backend.repository.SightingPartitionRepository;
+import org.HdrHistogram.Histogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Seeds a large synthetic dataset, boots the application against it and drives the mixed scenario at a target
+ * request rate. The JSON report has throughput and latency percentiles per operation, to be kept as the baseline
+ * of a release and compared with loadtest.compare-to.
+ */
+public class LoadTest {
+
+    private static final Logger logger = LogManager.getLogger(LoadTest.class);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+
+        PostgreSQLContainer<?> postgres = null;
+        String url = settings.datasourceUrl;
+        String username = settings.datasourceUsername;
+        String password = settings.datasourcePassword;
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:13")
+                    .withDatabaseName("birdwatch")
+                    .withSharedMemorySize(1024L * 1024 * 1024)
+                    .withCommand("postgres", "-c", "max_wal_size=8GB", "-c", "shared_buffers=512MB");
+            postgres.start();
+            url = postgres.getJdbcUrl();
+            username = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+
+        // Command line arguments, unlike SpringApplicationBuilder.properties, take precedence over application.properties
+        String[] applicationArgs = Stream.concat(Stream.of(
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--server.port=0"), Arrays.stream(args))
+                .toArray(String[]::new);
+        try (ConfigurableApplicationContext application = new SpringApplicationBuilder(ItestBackendApplication.class)
+                .run(applicationArgs)) {
+            Dataset dataset = new DatasetGenerator(application.getBean(DataSource.class),
+                    application.getBean(SightingCopyRepository.class),
+                    application.getBean(SightingPartitionRepository.class),
+                    application.getBean(PlatformTransactionManager.class)).seedIfEmpty(settings);
+
+            ObjectMapper objectMapper = application.getBean(ObjectMapper.class);
+            String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port") + "/api/v1";
+            Scenario scenario = new Scenario(baseUrl, dataset, objectMapper);
+            HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            LoadDriver driver = new LoadDriver(httpClient, objectMapper, scenario.operations(), settings.seed);
+
+            logger.info("Warming up for {} s at {} requests/s", settings.warmup.getSeconds(), settings.rps);
+            driver.run(settings.rps, settings.warmup, settings.maxInFlight);
+            logger.info("Measuring for {} s at {} requests/s", settings.duration.getSeconds(), settings.rps);
+            Map<String, OperationStats> stats = driver.run(settings.rps, settings.duration, settings.maxInFlight);
+
+            Map<String, Object> report = report(settings, dataset, stats);
+            File reportFile = settings.report.toFile();
+            Files.createDirectories(settings.report.toAbsolutePath().getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+            logger.info("Wrote {}", reportFile.getAbsolutePath());
+            print(report, settings.compareTo == null ? null : objectMapper.readTree(new File(settings.compareTo)));
+        } finally {
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    private static Map<String, Object> report(LoadTestSettings settings, Dataset dataset,
+                                              Map<String, OperationStats> stats) {
+        double seconds = settings.duration.toMillis() / 1000.0;
+        Histogram all = new Histogram(3);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long clientErrors = 0;
+        long serverErrors = 0;
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            all.add(operationStats.latency);
+            clientErrors += operationStats.clientErrors.get();
+            serverErrors += operationStats.serverErrors.get();
+            operations.put(entry.getKey(), summary(operationStats.latency, seconds,
+                    operationStats.clientErrors.get(), operationStats.serverErrors.get()));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", OffsetDateTime.now().toString());
+        report.put("settings", settings.describe());
+        report.put("dataset", Map.of("birds", dataset.birdIds.size(),
+                "sightingIds", dataset.maxSightingId - dataset.minSightingId + 1));
+        report.put("total", summary(all, seconds, clientErrors, serverErrors));
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static Map<String, Object> summary(Histogram latency, double seconds, long clientErrors, long serverErrors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latency.getTotalCount());
+        summary.put("throughputRps", Math.round(latency.getTotalCount() / seconds * 10) / 10.0);
+        summary.put("clientErrors", clientErrors);
+        summary.put("serverErrors", serverErrors);
+        summary.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(latency.getMaxValue()));
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report, JsonNode baseline) {
+        StringBuilder table = new StringBuilder(String.format("%n%-22s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "rps", "p50 ms", "p99 ms", "p999 ms", "errors", "p99 vs"));
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("operations"));
+        rows.put("total", report.get("total"));
+        for (Map.Entry<String, Object> row : rows.entrySet()) {
+            Map<String, Object> summary = (Map<String, Object>) row.getValue();
+            double p99 = (double) summary.get("p99Ms");
+            JsonNode previous = baseline == null ? null : "total".equals(row.getKey())
+                    ? baseline.path("total") : baseline.path("operations").path(row.getKey());
+            String change = previous == null || !previous.has("p99Ms") || previous.get("p99Ms").asDouble() == 0 ? ""
+                    : String.format("%+.0f%%", (p99 / previous.get("p99Ms").asDouble() - 1) * 100);
+            table.append(String.format("%-22s %10.1f %10.2f %10.2f %10.2f %10d %8s%n", row.getKey(),
+                    summary.get("throughputRps"), summary.get("p50Ms"), p99, summary.get("p999Ms"),
+                    (long) summary.get("clientErrors") + (long) summary.get("serverErrors"), change));
+        }
+        logger.info(table);
+    }
+}
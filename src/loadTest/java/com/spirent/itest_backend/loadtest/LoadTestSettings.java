@@ -0,0 +1,53 @@
+package com.spirent.itest_backend.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from loadtest.* system properties (./gradlew loadTest -Ploadtest.rps=500)
+ */
+final class LoadTestSettings {
+
+    final int birds = Integer.getInteger("loadtest.birds", 10_000);
+    final long sightings = Long.getLong("loadtest.sightings", 50_000_000L);
+    // Sightings are spread over this many months before today, more of them in recent months
+    final int months = Integer.getInteger("loadtest.months", 24);
+    final long seed = Long.getLong("loadtest.seed", 42L);
+    // Sightings are dated back from this instant, the one of a previous report (loadtest.anchor=2026-10-18T09:30:00Z)
+    // reproduces the rows it was seeded with. The scenario's time windows are shifted back by the same amount
+    final Instant anchor = Instant.parse(System.getProperty("loadtest.anchor",
+            Instant.now().truncatedTo(ChronoUnit.SECONDS).toString()));
+
+    final int rps = Integer.getInteger("loadtest.rps", 200);
+    final Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 30L));
+    final Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 120L));
+    // Requests beyond this many in flight wait to be sent, their latency still counts from the scheduled time
+    final int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 512);
+
+    // An existing database to use instead of a Testcontainers one, it is seeded only if it has no birds yet
+    final String datasourceUrl = System.getProperty("loadtest.datasource.url");
+    final String datasourceUsername = System.getProperty("loadtest.datasource.username", "admin");
+    final String datasourcePassword = System.getProperty("loadtest.datasource.password", "password");
+
+    final Path report = Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/baseline.json"));
+    // A previous report to print the p99 change against
+    final String compareTo = System.getProperty("loadtest.compare-to");
+
+    Map<String, Object> describe() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("birds", birds);
+        settings.put("sightings", sightings);
+        settings.put("months", months);
+        settings.put("seed", seed);
+        settings.put("anchor", anchor.toString());
+        settings.put("rps", rps);
+        settings.put("warmupSeconds", warmup.getSeconds());
+        settings.put("durationSeconds", duration.getSeconds());
+        settings.put("maxInFlight", maxInFlight);
+        return settings;
+    }
+}
@@ -0,0 +1,194 @@
+package com.spirent.itest_backend.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spirent.birdwatch.model.BirdRequest;
+import com.spirent.birdwatch.model.SightingRequest;
+import com.spirent.birdwatch.model.UpdateBirdRequest;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The weighted mix of requests, one operation per implemented operationId of birds.yaml. getSightingById,
+ * updateSighting and deleteSighting are left out until they have a handler. Roughly three quarters are reads.
+ */
+class Scenario {
+
+    private static final String[] COLORS = {"Red", "Blue", "Brown", "Black", "White", "Yellow", "Green", "Grey"};
+
+    /**
+     * One API operation. request returns null when the operation has nothing to act on yet, like a delete before
+     * anything was created, and onCreated receives the JSON body of successful responses.
+     */
+    static final class Operation {
+        final String name;
+        final int weight;
+        final Function<Random, HttpRequest> request;
+        final Consumer<JsonNode> onCreated;
+
+        Operation(String name, int weight, Function<Random, HttpRequest> request, Consumer<JsonNode> onCreated) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+            this.onCreated = onCreated;
+        }
+    }
+
+    private final String baseUrl;
+    private final Dataset dataset;
+    private final ObjectMapper objectMapper;
+    private final String runPrefix = "Load " + Dataset.letters(System.currentTimeMillis() / 1000 % 308_915_776L) + " ";
+    private final AtomicLong createdNames = new AtomicLong();
+    // Time windows follow the dataset, so a run reusing the anchor of an older one queries the same rows
+    private final Duration sinceAnchor;
+
+    Scenario(String baseUrl, Dataset dataset, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.objectMapper = objectMapper;
+        this.sinceAnchor = Duration.between(dataset.anchor, Instant.now());
+    }
+
+    List<Operation> operations() {
+        List<Operation> operations = new ArrayList<>();
+
+        // Reads
+        operations.add(new Operation("getBirdById", 16,
+                random -> get("/birds/" + dataset.randomBirdId(random)), null));
+        operations.add(new Operation("findBirds", 8, random -> random.nextInt(4) == 0
+                ? get("/birds?expand=sightings&sightingsLimit=5&size=20")
+                : get("/birds?color=" + COLORS[random.nextInt(COLORS.length)] + "&size=20&sort=name"), null));
+        operations.add(new Operation("findBirdSightings", 10,
+                random -> get("/birds/" + dataset.randomBirdId(random) + "/sightings?size=50"), null));
+        operations.add(new Operation("findSightings", 14, this::findSightings, null));
+        operations.add(new Operation("getSightingStats", 5, random -> get("/sightings/stats?bucket=day&birdId="
+                + dataset.randomBirdId(random) + "&from=" + now().minusDays(30) + "&to=" + now()), null));
+        operations.add(new Operation("exportSightings", 1, random -> get("/sightings/export?format=ndjson&birdId="
+                + dataset.randomBirdId(random) + "&startDateTime=" + now().minusDays(7)), null));
+        operations.add(new Operation("search", 5, random -> get("/search?q=" + (random.nextBoolean()
+                ? COLORS[random.nextInt(COLORS.length)] : "Hotspot+" + random.nextInt(64)) + "&size=20"), null));
+
+        // Writes
+        operations.add(new Operation("addSighting", 12,
+                random -> post("/sightings", sightingRequest(dataset.randomBirdId(random), random)), null));
+        operations.add(new Operation("ingestSightings", 1, this::ingestSightings, null));
+        operations.add(new Operation("addBird", 3, random -> post("/birds", birdRequest(random)),
+                body -> dataset.createdBirdIds.add(body.get("id").asLong())));
+        operations.add(new Operation("updateBird", 2, random -> {
+            Long birdId = dataset.createdBirdIds.peekLast();
+            if (birdId == null) {
+                return null;
+            }
+            UpdateBirdRequest update = new UpdateBirdRequest();
+            update.setWeight(5 + random.nextInt(2000) / 10.0);
+            return put("/birds/" + birdId, update);
+        }, null));
+        operations.add(new Operation("deleteBird", 1, random -> {
+            Long birdId = dataset.createdBirdIds.pollFirst();
+            return birdId == null ? null : delete("/birds/" + birdId);
+        }, null));
+        operations.add(new Operation("importBirds", 1, random -> {
+            List<BirdRequest> birds = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                birds.add(birdRequest(random));
+            }
+            return post("/birds:batch", birds);
+        }, null));
+        operations.add(new Operation("rebuildSightingStats", 1,
+                random -> post("/sightings/stats:rebuild?from=" + now().minusHours(1) + "&to=" + now(), null), null));
+
+        return operations;
+    }
+
+    private HttpRequest findSightings(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return get("/sightings?size=20&birdId=" + dataset.randomBirdId(random));
+            case 1:
+                OffsetDateTime start = now().minusDays(random.nextInt(dataset.months * 30 + 1));
+                return get("/sightings?size=20&total=estimate&startDateTime=" + start + "&endDateTime=" + start.plusDays(1));
+            default:
+                return get("/sightings?size=20&radiusKm=50&near=" + (random.nextDouble() * 120 - 55) + ","
+                        + (random.nextDouble() * 340 - 170));
+        }
+    }
+
+    private HttpRequest ingestSightings(Random random) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            ndjson.append(json(sightingRequest(dataset.randomBirdId(random), random))).append('\n');
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/sightings:ingest"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build();
+    }
+
+    private BirdRequest birdRequest(Random random) {
+        BirdRequest bird = new BirdRequest();
+        bird.setName(runPrefix + Dataset.letters(createdNames.getAndIncrement()));
+        bird.setColor(COLORS[random.nextInt(COLORS.length)]);
+        bird.setWeight(5 + random.nextInt(2000) / 10.0);
+        bird.setHeight(8 + random.nextInt(900) / 10.0);
+        return bird;
+    }
+
+    private SightingRequest sightingRequest(long birdId, Random random) {
+        SightingRequest sighting = new SightingRequest();
+        sighting.setBirdId(birdId);
+        sighting.setLocation("Hotspot " + random.nextInt(64));
+        sighting.setDateTime(now().minusMinutes(random.nextInt(60)));
+        sighting.setLatitude(random.nextDouble() * 120 - 55);
+        sighting.setLongitude(random.nextDouble() * 340 - 170);
+        return sighting;
+    }
+
+    // The dataset's time in whole seconds in UTC, so the timestamp needs no escaping in a query string
+    private OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC).minus(sinceAnchor).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest delete(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).DELETE().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json(body)))
+                .build();
+    }
+
+    private HttpRequest put(String path, Object body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json(body)))
+                .build();
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.spirent.itest_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// The R2DBC pool of the reactive profile is derived from spring.datasource in R2dbcConfig
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class ItestBackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,40 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.birdwatch.api.BirdsbatchApi;
+import com.spirent.birdwatch.model.BirdBatchResult;
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.service.BirdImportService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+public class BirdsBatchController implements BirdsbatchApi {
+
+    private static final Logger logger = LogManager.getLogger(BirdsBatchController.class);
+    private final BirdImportService birdImportService;
+
+    public BirdsBatchController(BirdImportService birdImportService) {
+        this.birdImportService = birdImportService;
+    }
+
+    @Override
+    public ResponseEntity<BirdBatchResult> importBirds(Resource body) {
+        // The import runs in one transaction over all its items, the body is read as a whole first
+        byte[] bytes;
+        try (InputStream inputStream = body.getInputStream()) {
+            bytes = inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new InvalidRequestException("Could not read batch: " + e.getMessage());
+        }
+        logger.info("Importing birds batch of {} bytes", bytes.length);
+        BirdBatchResult result = birdImportService.importBirds(bytes);
+        logger.info("Successfully imported {} birds, {} items failed", result.getCreated(), result.getFailed());
+        return ResponseEntity.ok(result);
+    }
+}
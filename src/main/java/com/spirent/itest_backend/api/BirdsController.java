@@ -4,13 +4,18 @@ import com.spirent.birdwatch.api.BirdsApi;
 import com.spirent.birdwatch.model.Bird;
 import com.spirent.birdwatch.model.BirdRequest;
 import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.birdwatch.model.PaginatedSightings;
 import com.spirent.birdwatch.model.UpdateBirdRequest;
 import com.spirent.itest_backend.service.BirdService;
+import com.spirent.itest_backend.service.SightingService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -18,9 +23,11 @@ public class BirdsController implements BirdsApi {
 
     private static final Logger logger = LogManager.getLogger(BirdsController.class);
     private final BirdService birdService;
+    private final SightingService sightingService;
 
-    public BirdsController(BirdService birdService) {
+    public BirdsController(BirdService birdService, SightingService sightingService) {
         this.birdService = birdService;
+        this.sightingService = sightingService;
     }
 
     @Override
@@ -48,19 +55,42 @@ public class BirdsController implements BirdsApi {
     }
 
     @Override
-    public ResponseEntity<Bird> getBirdById(Long birdId) {
-        logger.info("Getting bird with ID: {}", birdId);
-        Bird bird = birdService.getBirdById(birdId);
-        logger.info("Successfully got bird with ID: {}", bird.getId());
-        return ResponseEntity.ok(bird);
+    public ResponseEntity<Bird> getBirdById(Long birdId, String expand, Integer sightingsLimit) {
+        logger.info("Getting bird with ID: {}, expand: {}, sightingsLimit: {}", birdId, expand, sightingsLimit);
+        Optional<Bird> bird = birdService.getBirdById(birdId, expand, sightingsLimit, ConditionalRequests::notModified);
+        if (bird.isEmpty()) {
+            logger.info("Bird with ID: {} not modified", birdId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        logger.info("Successfully got bird with ID: {}", bird.get().getId());
+        return ResponseEntity.ok(bird.get());
     }
 
     @Override
-    public ResponseEntity<PaginatedBirds> findBirds(String name, String color, Double weightMin, Double weightMax, Double heightMin, Double heightMax, Integer page, Integer size, String sort, String direction) {
-        logger.info("Searching for birds with name: {}, color: {}, weightMin: {}, weightMax: {}, heightMin: {}, heightMax: {}, page: {}, size: {}, sort: {}, direction: {}", 
-                   name, color, weightMin, weightMax, heightMin, heightMax, page, size, sort, direction);
+    public ResponseEntity<PaginatedBirds> findBirds(String name, String color, Double weightMin, Double weightMax, Double heightMin, Double heightMax, Integer page, Integer size, String sort, String direction, String after, String total, String expand, Integer sightingsLimit) {
+        logger.info("Searching for birds with name: {}, color: {}, weightMin: {}, weightMax: {}, heightMin: {}, heightMax: {}, page: {}, size: {}, sort: {}, direction: {}, after: {}, total: {}, expand: {}, sightingsLimit: {}", 
+                   name, color, weightMin, weightMax, heightMin, heightMax, page, size, sort, direction, after, total, expand, sightingsLimit);
         
-        PaginatedBirds paginatedBirds = birdService.findBirdsWithFilters(name, color, weightMin, weightMax, heightMin, heightMax, page, size, sort, direction);
-        return ResponseEntity.ok(paginatedBirds);
+        Optional<PaginatedBirds> paginatedBirds = birdService.findBirdsWithFilters(name, color, weightMin, weightMax, heightMin, heightMax, page, size, sort, direction, after, total, expand, sightingsLimit,
+                ConditionalRequests::notModified);
+        if (paginatedBirds.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(paginatedBirds.get());
+    }
+
+    @Override
+    public ResponseEntity<PaginatedSightings> findBirdSightings(Long birdId, OffsetDateTime startDateTime, OffsetDateTime endDateTime,
+                                                                Integer size, String direction, String after) {
+        logger.info("Listing sightings of bird ID: {} with startDateTime: {}, endDateTime: {}, size: {}, direction: {}, after: {}",
+                   birdId, startDateTime, endDateTime, size, direction, after);
+        
+        Optional<PaginatedSightings> paginatedSightings = sightingService.findSightingsOfBird(birdId, startDateTime, endDateTime, size, direction, after,
+                ConditionalRequests::notModified);
+        if (paginatedSightings.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        logger.info("Found {} sightings of bird ID: {}", paginatedSightings.get().getContent().size(), birdId);
+        return ResponseEntity.ok(paginatedSightings.get());
     }
 }
@@ -0,0 +1,47 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.itest_backend.utils.EntityVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+
+/**
+ * Conditional GETs of the annotated controllers. The services hand {@link #notModified} the version of a response
+ * before mapping it, and skip the mapping when it returns true.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Sets ETag and Last-Modified, if the version has one, on the current response and checks If-None-Match, or
+     * If-Modified-Since without it.
+     * The ETag is the one of the representation the response is negotiated to, see {@link ResponseFormats}
+     *
+     * @return true if the response has been turned into a 304, the caller must not write a body
+     */
+    static boolean notModified(EntityVersion version) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            // Annotated controllers under the reactive profile, which has its own conditional handling
+            return false;
+        }
+        ServletRequestAttributes servletAttributes = (ServletRequestAttributes) attributes;
+        HttpServletRequest request = servletAttributes.getRequest();
+        MediaType format = ResponseFormats.negotiate(
+                MediaType.parseMediaTypes(Collections.list(request.getHeaders(HttpHeaders.ACCEPT))));
+        EntityVersion representation = ResponseFormats.version(version, format);
+        servletAttributes.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        long lastModified = representation.getLastModified() != null ? representation.getLastModified().toEpochMilli() : -1;
+        return new ServletWebRequest(request, servletAttributes.getResponse())
+                .checkNotModified(representation.getETag(), lastModified);
+    }
+}
@@ -0,0 +1,322 @@
+package com.spirent.itest_backend.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.spirent.birdwatch.api.BirdsApi;
+import com.spirent.birdwatch.api.SightingsApi;
+import com.spirent.itest_backend.config.CborConfig;
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.metrics.SqlMetricsWebFilter;
+import com.spirent.itest_backend.service.ReactiveBirdService;
+import com.spirent.itest_backend.service.ReactiveSightingService;
+import com.spirent.itest_backend.utils.EntityVersion;
+import com.spirent.itest_backend.utils.PageStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Functional routes of the reactive profile for findBirds, getBirdById and findSightings, the reads served from
+ * R2DBC. Query parameters are checked against the constraints of the generated API methods, as the annotated
+ * controllers are. A page is written as its content arrives, with the totals and cursor trailing the content array,
+ * in JSON or, when the client prefers it, in CBOR. Its headers are sent before its version is known, so only
+ * getBirdById answers conditional requests here.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveReadHandler {
+
+    private static final Logger logger = LogManager.getLogger(ReactiveReadHandler.class);
+    private static final Method FIND_BIRDS = generatedMethod(BirdsApi.class, "_findBirds");
+    private static final Method GET_BIRD_BY_ID = generatedMethod(BirdsApi.class, "_getBirdById");
+    private static final Method FIND_SIGHTINGS = generatedMethod(SightingsApi.class, "_findSightings");
+    // Only carry the generated constraints, the parameters are validated against their default methods
+    private static final BirdsApi BIRDS_API = new BirdsApi() { };
+    private static final SightingsApi SIGHTINGS_API = new SightingsApi() { };
+    // Initial bytes of a CBOR indefinite-length map and array, and the break code ending them (RFC 8949 3.2)
+    private static final int CBOR_START_MAP = 0xBF;
+    private static final int CBOR_START_ARRAY = 0x9F;
+    private static final int CBOR_BREAK = 0xFF;
+
+    private final ReactiveBirdService birdService;
+    private final ReactiveSightingService sightingService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborObjectMapper;
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    public ReactiveReadHandler(ReactiveBirdService birdService, ReactiveSightingService sightingService,
+                               Validator validator, ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        this.birdService = birdService;
+        this.sightingService = sightingService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.cborObjectMapper = CborConfig.cborObjectMapper(builder);
+    }
+
+    public Mono<ServerResponse> findBirds(ServerRequest request) {
+        request.attributes().put(SqlMetricsWebFilter.OPERATION_ATTRIBUTE, "findBirds");
+        return Mono.fromCallable(() -> {
+            Object[] parameters = {
+                    request.queryParam("name").orElse(null),
+                    request.queryParam("color").orElse(null),
+                    doubleParam(request, "weightMin"),
+                    doubleParam(request, "weightMax"),
+                    doubleParam(request, "heightMin"),
+                    doubleParam(request, "heightMax"),
+                    intParam(request, "page"),
+                    intParam(request, "size"),
+                    request.queryParam("sort").orElse(null),
+                    request.queryParam("direction").orElse(null),
+                    request.queryParam("after").orElse(null),
+                    request.queryParam("total").orElse(null),
+                    request.queryParam("expand").orElse(null),
+                    intParam(request, "sightingsLimit")
+            };
+            validate(BIRDS_API, FIND_BIRDS, parameters);
+            return birdService.findBirdsWithFilters((String) parameters[0], (String) parameters[1],
+                    (Double) parameters[2], (Double) parameters[3], (Double) parameters[4], (Double) parameters[5],
+                    (Integer) parameters[6], (Integer) parameters[7], (String) parameters[8], (String) parameters[9],
+                    (String) parameters[10], (String) parameters[11], (String) parameters[12], (Integer) parameters[13]);
+        }).flatMap(page -> page(request, page));
+    }
+
+    public Mono<ServerResponse> getBirdById(ServerRequest request) {
+        request.attributes().put(SqlMetricsWebFilter.OPERATION_ATTRIBUTE, "getBirdById");
+        MediaType format = format(request);
+        return Mono.fromCallable(() -> {
+            Object[] parameters = {
+                    longValue("birdId", request.pathVariable("birdId")),
+                    request.queryParam("expand").orElse(null),
+                    intParam(request, "sightingsLimit")
+            };
+            validate(BIRDS_API, GET_BIRD_BY_ID, parameters);
+            return parameters;
+        }).flatMap(parameters -> {
+            logger.info("Getting bird reactively with ID: {}, expand: {}, sightingsLimit: {}", parameters[0], parameters[1], parameters[2]);
+            return birdService.getBirdById((Long) parameters[0], (String) parameters[1], (Integer) parameters[2],
+                    version -> notModified(request, ResponseFormats.version(version, format)));
+        }).flatMap(bird -> ServerResponse.ok().contentType(format).varyBy(HttpHeaders.ACCEPT).bodyValue(bird))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build()));
+    }
+
+    public Mono<ServerResponse> findSightings(ServerRequest request) {
+        request.attributes().put(SqlMetricsWebFilter.OPERATION_ATTRIBUTE, "findSightings");
+        return Mono.fromCallable(() -> {
+            Object[] parameters = {
+                    longParam(request, "birdId"),
+                    request.queryParam("birdName").orElse(null),
+                    request.queryParam("location").orElse(null),
+                    dateTimeParam(request, "startDateTime"),
+                    dateTimeParam(request, "endDateTime"),
+                    request.queryParam("bbox").orElse(null),
+                    request.queryParam("near").orElse(null),
+                    doubleParam(request, "radiusKm"),
+                    intParam(request, "page"),
+                    intParam(request, "size"),
+                    request.queryParam("sort").orElse(null),
+                    request.queryParam("direction").orElse(null),
+                    request.queryParam("after").orElse(null),
+                    request.queryParam("total").orElse(null)
+            };
+            validate(SIGHTINGS_API, FIND_SIGHTINGS, parameters);
+            return sightingService.findSightingsWithFilters((Long) parameters[0], (String) parameters[1],
+                    (String) parameters[2], (OffsetDateTime) parameters[3], (OffsetDateTime) parameters[4],
+                    (String) parameters[5], (String) parameters[6], (Double) parameters[7], (Integer) parameters[8],
+                    (Integer) parameters[9], (String) parameters[10], (String) parameters[11], (String) parameters[12],
+                    (String) parameters[13]);
+        }).flatMap(page -> page(request, page));
+    }
+
+    /*
+     * The status is only sent once the first element, or the end of an empty page, has been read: a query failing
+     * before that gets the error response of its exception instead of a 200 with a broken body. The rows already
+     * read are held back until the body is subscribed, single() waits for the response without cancelling them.
+     */
+    private Mono<ServerResponse> page(ServerRequest request, PageStream<?, ?> page) {
+        MediaType format = format(request);
+        return page.getContent().switchOnFirst((first, content) -> {
+            if (first.isOnError()) {
+                return Mono.error(first.getThrowable());
+            }
+            Flux<DataBuffer> body = MediaType.APPLICATION_CBOR.equals(format)
+                    ? cborPage(content, page.getMetadata()) : jsonPage(content, page.getMetadata());
+            return ServerResponse.ok().contentType(format).varyBy(HttpHeaders.ACCEPT).body(BodyInserters.fromDataBuffers(body));
+        }, false).single();
+    }
+
+    /*
+     * {"content":[ element, element, ... ], metadata fields}. The metadata needs the whole page (totals, cursor), so
+     * its fields follow the array, JSON objects being unordered. Each element is written once it has been read.
+     * A failure after the status has been sent closes the array and ends the page with an error member instead.
+     */
+    private Flux<DataBuffer> jsonPage(Flux<?> content, Mono<?> metadata) {
+        Flux<DataBuffer> elements = content.index()
+                .map(element -> buffer((element.getT1() == 0 ? "" : ",") + json(element.getT2())));
+        return Flux.concat(
+                Mono.fromCallable(() -> buffer("{\"content\":[")),
+                Flux.concat(elements, metadata.map(this::trailer))
+                        .onErrorResume(e -> Mono.fromCallable(() -> buffer("],\"error\":" + json(cutShort(e)) + "}"))));
+    }
+
+    /*
+     * The same layout in CBOR, whose lengths are written ahead of the items: the map and the content array are
+     * indefinite-length ones, closed by break codes in the trailer. Elements need no separator.
+     */
+    private Flux<DataBuffer> cborPage(Flux<?> content, Mono<?> metadata) {
+        return Flux.concat(
+                Mono.fromCallable(() -> {
+                    ByteArrayOutputStream start = new ByteArrayOutputStream();
+                    start.write(CBOR_START_MAP);
+                    start.writeBytes(cbor("content"));
+                    start.write(CBOR_START_ARRAY);
+                    return bufferFactory.wrap(start.toByteArray());
+                }),
+                Flux.concat(content.map(element -> bufferFactory.wrap(cbor(element))), metadata.map(this::cborTrailer))
+                        .onErrorResume(e -> Mono.fromCallable(() -> {
+                            ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+                            trailer.write(CBOR_BREAK);
+                            trailer.writeBytes(cbor("error"));
+                            trailer.writeBytes(cbor(cutShort(e)));
+                            trailer.write(CBOR_BREAK);
+                            return bufferFactory.wrap(trailer.toByteArray());
+                        })));
+    }
+
+    // The cause stays in the log, the client only learns that the page is incomplete
+    private static String cutShort(Throwable e) {
+        logger.error("Page failed after its response was committed", e);
+        return "The page could not be read completely";
+    }
+
+    private DataBuffer trailer(Object metadata) {
+        ObjectNode fields = objectMapper.valueToTree(metadata);
+        fields.remove("content");
+        return buffer(fields.isEmpty() ? "]}" : "]," + json(fields).substring(1));
+    }
+
+    private DataBuffer cborTrailer(Object metadata) {
+        ObjectNode fields = objectMapper.valueToTree(metadata);
+        fields.remove("content");
+        ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+        trailer.write(CBOR_BREAK);
+        fields.fields().forEachRemaining(field -> {
+            trailer.writeBytes(cbor(field.getKey()));
+            trailer.writeBytes(cbor(field.getValue()));
+        });
+        trailer.write(CBOR_BREAK);
+        return bufferFactory.wrap(trailer.toByteArray());
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private byte[] cbor(Object value) {
+        try {
+            return cborObjectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private DataBuffer buffer(String json) {
+        return bufferFactory.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MediaType format(ServerRequest request) {
+        try {
+            return ResponseFormats.negotiate(request.headers().accept());
+        } catch (InvalidMediaTypeException e) {
+            throw new InvalidRequestException("Invalid Accept header: " + e.getMessage());
+        }
+    }
+
+    // Sets ETag and Last-Modified on the response, true if the client's copy is current and a 304 must be sent
+    private static boolean notModified(ServerRequest request, EntityVersion version) {
+        return request.exchange().checkNotModified(version.getETag(),
+                version.getLastModified() != null ? version.getLastModified() : Instant.MIN);
+    }
+
+    private void validate(Object api, Method method, Object[] parameters) {
+        Set<ConstraintViolation<Object>> violations = validator.forExecutables().validateParameters(api, method, parameters);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private static Integer intParam(ServerRequest request, String name) {
+        return param(request, name, Integer::valueOf);
+    }
+
+    private static Double doubleParam(ServerRequest request, String name) {
+        return param(request, name, Double::valueOf);
+    }
+
+    private static Long longParam(ServerRequest request, String name) {
+        return param(request, name, Long::valueOf);
+    }
+
+    private static OffsetDateTime dateTimeParam(ServerRequest request, String name) {
+        return param(request, name, OffsetDateTime::parse);
+    }
+
+    private static Long longValue(String name, String value) {
+        return convert(name, value, Long::valueOf);
+    }
+
+    private static <T> T param(ServerRequest request, String name, Function<String, T> parser) {
+        return request.queryParam(name).map(value -> convert(name, value, parser)).orElse(null);
+    }
+
+    private static <T> T convert(String name, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid value for " + name + ": " + value);
+        }
+    }
+
+    private static Method generatedMethod(Class<?> api, String name) {
+        for (Method method : ReflectionUtils.getDeclaredMethods(api)) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalStateException(api.getSimpleName() + " has no method " + name);
+    }
+}
@@ -0,0 +1,46 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.itest_backend.utils.EntityVersion;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The representations of the responses, JSON unless the client prefers CBOR. Spring picks the converter on its own,
+ * this tells the conditional requests which representation a response is written in before it is: each one has its
+ * own ETag and the responses vary by Accept.
+ */
+final class ResponseFormats {
+
+    private ResponseFormats() {
+    }
+
+    /**
+     * The format Spring negotiates for these Accept types among the JSON and CBOR ones of an operation, JSON when
+     * both are acceptable alike since it is declared first
+     */
+    static MediaType negotiate(List<MediaType> accept) {
+        List<MediaType> preferred = new ArrayList<>(accept);
+        MediaType.sortBySpecificityAndQuality(preferred);
+        for (MediaType type : preferred) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * The version of a response written in this format, the JSON one keeps the ETag of its entities
+     */
+    static EntityVersion version(EntityVersion version, MediaType format) {
+        return MediaType.APPLICATION_CBOR.equals(format) ? version.forRepresentation("cbor") : version;
+    }
+}
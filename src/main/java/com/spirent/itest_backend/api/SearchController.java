@@ -0,0 +1,30 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.birdwatch.api.SearchApi;
+import com.spirent.birdwatch.model.PaginatedSearchResults;
+import com.spirent.itest_backend.service.SearchService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SearchController implements SearchApi {
+
+    private static final Logger logger = LogManager.getLogger(SearchController.class);
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @Override
+    public ResponseEntity<PaginatedSearchResults> search(String q, Integer page, Integer size) {
+        logger.info("Searching for: {}, page: {}, size: {}", q, page, size);
+        
+        PaginatedSearchResults paginatedSearchResults = searchService.search(q, page, size);
+        
+        logger.info("Found {} search results", paginatedSearchResults.getContent().size());
+        return ResponseEntity.ok(paginatedSearchResults);
+    }
+}
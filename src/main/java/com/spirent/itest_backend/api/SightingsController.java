@@ -3,30 +3,55 @@ package com.spirent.itest_backend.api;
 import com.spirent.birdwatch.api.SightingsApi;
 import com.spirent.birdwatch.model.Sighting;
 import com.spirent.birdwatch.model.SightingRequest;
+import com.spirent.birdwatch.model.SightingStats;
+import com.spirent.birdwatch.model.SightingStatsRebuildResult;
 import com.spirent.birdwatch.model.PaginatedSightings;
+import com.spirent.itest_backend.service.SightingExportService;
 import com.spirent.itest_backend.service.SightingService;
+import com.spirent.itest_backend.service.SightingStatsService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.OffsetDateTime;
+import java.util.Optional;
 
 @RestController
 public class SightingsController implements SightingsApi {
 
     private static final Logger logger = LogManager.getLogger(SightingsController.class);
     private final SightingService sightingService;
+    private final SightingExportService sightingExportService;
+    private final SightingStatsService sightingStatsService;
 
-    public SightingsController(SightingService sightingService) {
+    public SightingsController(SightingService sightingService, SightingExportService sightingExportService,
+                               SightingStatsService sightingStatsService) {
         this.sightingService = sightingService;
+        this.sightingExportService = sightingExportService;
+        this.sightingStatsService = sightingStatsService;
     }
 
     @Override
-    public ResponseEntity<Sighting> addSighting(SightingRequest sightingRequest) {
-        logger.info("Creating new sighting for bird ID: {} at location: {}", 
-                   sightingRequest.getBirdId(), sightingRequest.getLocation());
+    public ResponseEntity<Sighting> addSighting(SightingRequest sightingRequest, String mode) {
+        logger.info("Creating new sighting for bird ID: {} at location: {}, mode: {}", 
+                   sightingRequest.getBirdId(), sightingRequest.getLocation(), mode);
         
+        if ("buffered".equals(mode)) {
+            Sighting acceptedSighting = sightingService.bufferSighting(sightingRequest);
+            logger.info("Accepted sighting into the write-behind buffer");
+            return ResponseEntity.status(202).body(acceptedSighting);
+        }
+        if ("durable".equals(mode)) {
+            Sighting createdSighting = sightingService.createSightingWithGroupCommit(sightingRequest);
+            logger.info("Successfully created sighting with ID: {}", createdSighting.getId());
+            return ResponseEntity.status(201).body(createdSighting);
+        }
+
         Sighting createdSighting = sightingService.createSighting(sightingRequest);
         logger.info("Successfully created sighting with ID: {}", createdSighting.getId());
         
@@ -34,16 +59,62 @@ public class SightingsController implements SightingsApi {
     }
 
     @Override
-    public ResponseEntity<PaginatedSightings> findSightings(String birdName, String location,
+    public ResponseEntity<PaginatedSightings> findSightings(Long birdId, String birdName, String location,
                                                             OffsetDateTime startDateTime,
-                                                            OffsetDateTime endDateTime, Integer page, Integer size, String sort, String direction) {
-        logger.info("Searching for sightings with birdName: {}, location: {}, startDateTime: {}, endDateTime: {}, page: {}, size: {}, sort: {}, direction: {}", 
-                   birdName, location, startDateTime, endDateTime, page, size, sort, direction);
+                                                            OffsetDateTime endDateTime, String bbox, String near, Double radiusKm,
+                                                            Integer page, Integer size, String sort, String direction,
+                                                            String after, String total) {
+        logger.info("Searching for sightings with birdId: {}, birdName: {}, location: {}, startDateTime: {}, endDateTime: {}, bbox: {}, near: {}, radiusKm: {}, page: {}, size: {}, sort: {}, direction: {}, after: {}, total: {}", 
+                   birdId, birdName, location, startDateTime, endDateTime, bbox, near, radiusKm, page, size, sort, direction, after, total);
+        
+        Optional<PaginatedSightings> paginatedSightings = sightingService.findSightingsWithFilters(
+                birdId, birdName, location, startDateTime, endDateTime, bbox, near, radiusKm,
+                page, size, sort, direction, after, total, ConditionalRequests::notModified);
+        if (paginatedSightings.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        
+        logger.info("Found {} sightings", paginatedSightings.get().getContent().size());
+        return ResponseEntity.ok(paginatedSightings.get());
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportSightings(Long birdId, String birdName, String location,
+                                                                 OffsetDateTime startDateTime, OffsetDateTime endDateTime,
+                                                                 String bbox, String near, Double radiusKm,
+                                                                 String format, Boolean gzip) {
+        logger.info("Exporting sightings with birdId: {}, birdName: {}, location: {}, startDateTime: {}, endDateTime: {}, bbox: {}, near: {}, radiusKm: {}, format: {}, gzip: {}",
+                   birdId, birdName, location, startDateTime, endDateTime, bbox, near, radiusKm, format, gzip);
+        
+        boolean ndjson = "ndjson".equals(format);
+        boolean compress = Boolean.TRUE.equals(gzip);
+        StreamingResponseBody body = sightingExportService.exportSightings(
+                birdId, birdName, location, startDateTime, endDateTime, bbox, near, radiusKm, format, compress);
         
-        PaginatedSightings paginatedSightings = sightingService.findSightingsWithFilters(
-                birdName, location, startDateTime, endDateTime, page, size, sort, direction);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sightings." + (ndjson ? "ndjson" : "csv") + "\"");
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @Override
+    public ResponseEntity<SightingStats> getSightingStats(String bucket, Long birdId, OffsetDateTime from, OffsetDateTime to, Integer limit) {
+        logger.info("Getting sighting stats with bucket: {}, birdId: {}, from: {}, to: {}, limit: {}", bucket, birdId, from, to, limit);
+        
+        SightingStats sightingStats = sightingStatsService.getSightingStats(bucket, birdId, from, to, limit);
+        logger.info("Found {} sighting stats buckets", sightingStats.getContent().size());
+        return ResponseEntity.ok(sightingStats);
+    }
+
+    @Override
+    public ResponseEntity<SightingStatsRebuildResult> rebuildSightingStats(OffsetDateTime from, OffsetDateTime to) {
+        logger.info("Rebuilding sighting stats from: {} to: {}", from, to);
         
-        logger.info("Found {} sightings", paginatedSightings.getContent().size());
-        return ResponseEntity.ok(paginatedSightings);
+        SightingStatsRebuildResult result = sightingStatsService.rebuildSightingStats(from, to);
+        logger.info("Successfully rebuilt {} rollup rows", result.getRollupRows());
+        return ResponseEntity.ok(result);
     }
 }
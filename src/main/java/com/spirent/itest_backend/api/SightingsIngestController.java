@@ -0,0 +1,39 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.birdwatch.api.SightingsingestApi;
+import com.spirent.birdwatch.model.SightingIngestResult;
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.service.SightingIngestService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+public class SightingsIngestController implements SightingsingestApi {
+
+    private static final Logger logger = LogManager.getLogger(SightingsIngestController.class);
+    private final SightingIngestService sightingIngestService;
+
+    public SightingsIngestController(SightingIngestService sightingIngestService) {
+        this.sightingIngestService = sightingIngestService;
+    }
+
+    @Override
+    public ResponseEntity<SightingIngestResult> ingestSightings(Resource body) {
+        logger.info("Ingesting sightings upload");
+        
+        // The body is a lazily read stream (see StreamingResourceHttpMessageConverter)
+        try (InputStream inputStream = body.getInputStream()) {
+            SightingIngestResult result = sightingIngestService.ingest(inputStream);
+            logger.info("Successfully ingested {} sightings", result.getInserted());
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            throw new InvalidRequestException("Could not read upload: " + e.getMessage());
+        }
+    }
+}
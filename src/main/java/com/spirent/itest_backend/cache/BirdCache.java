@@ -0,0 +1,97 @@
+package com.spirent.itest_backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.itest_backend.repository.BirdRepository;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.utils.BirdMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of bird snapshots (scalar fields only, no sightings) keyed by id.
+ * Every write path for birds must call {@link #put} or {@link #evict}. Unknown ids are not cached, so a bird
+ * created by another instance becomes visible on the next lookup, and expireAfterWrite bounds how long an update
+ * made elsewhere can stay hidden.
+ * Hit, miss and eviction counters are published as cache.* meters with the tag cache=birds.
+ */
+@Component
+public class BirdCache {
+
+    private final BirdRepository birdRepository;
+    private final BirdMapper birdMapper;
+    private final Cache<Long, Bird> cache;
+
+    public BirdCache(BirdRepository birdRepository, BirdMapper birdMapper, MeterRegistry meterRegistry,
+                     @Value("${birdwatch.cache.birds.maximum-size:10000}") long maximumSize,
+                     @Value("${birdwatch.cache.birds.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.birdRepository = birdRepository;
+        this.birdMapper = birdMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "birds");
+    }
+
+    /**
+     * Returns a copy of the cached bird, loading it on a miss. Callers may modify the returned object.
+     */
+    public Optional<Bird> get(Long birdId) {
+        return Optional.ofNullable(cache.get(birdId, this::load)).map(BirdCache::copy);
+    }
+
+    /**
+     * Returns a copy of the cached bird without loading it on a miss, for the reactive reads that load it themselves
+     * and hand it back through {@link #putIfAbsent}
+     */
+    public Optional<Bird> getIfPresent(Long birdId) {
+        return Optional.ofNullable(cache.getIfPresent(birdId)).map(BirdCache::copy);
+    }
+
+    public boolean exists(Long birdId) {
+        return cache.get(birdId, this::load) != null;
+    }
+
+    public void put(BirdEntity birdEntity) {
+        cache.put(birdEntity.getId(), birdMapper.entityToBird(birdEntity));
+    }
+
+    // A loaded bird must not replace one written by an update that finished while it was being read
+    public void putIfAbsent(BirdEntity birdEntity) {
+        cache.asMap().putIfAbsent(birdEntity.getId(), birdMapper.entityToBird(birdEntity));
+    }
+
+    public void evict(Long birdId) {
+        cache.invalidate(birdId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Bird load(Long birdId) {
+        return birdRepository.findById(birdId)
+                .map(birdEntity -> birdMapper.entityToBird(birdEntity))
+                .orElse(null);
+    }
+
+    private static Bird copy(Bird cached) {
+        Bird bird = new Bird();
+        bird.setId(cached.getId());
+        bird.setName(cached.getName());
+        bird.setColor(cached.getColor());
+        bird.setHeight(cached.getHeight());
+        bird.setWeight(cached.getWeight());
+        bird.setCreatedAt(cached.getCreatedAt());
+        bird.setUpdatedAt(cached.getUpdatedAt());
+        return bird;
+    }
+}
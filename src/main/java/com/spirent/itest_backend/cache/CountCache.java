@@ -0,0 +1,51 @@
+package com.spirent.itest_backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of count(*) results keyed by the filter values of a list, backing total=estimate on list endpoints.
+ * The key is the list of the values themselves, led by the resource name, so that no two filter sets can share one.
+ * Entries are never invalidated by writes, they are only as fresh as the configured TTL.
+ */
+@Component
+public class CountCache {
+
+    private final Cache<List<?>, Long> cache;
+
+    public CountCache(MeterRegistry meterRegistry,
+                      @Value("${birdwatch.cache.counts.maximum-size:1000}") long maximumSize,
+                      @Value("${birdwatch.cache.counts.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "counts");
+    }
+
+    public long get(List<?> filters, LongSupplier counter) {
+        return cache.get(filters, key -> counter.getAsLong());
+    }
+
+    /**
+     * Non-blocking variant for the reactive reads, concurrent misses on the same filters may each run the count
+     */
+    public Mono<Long> get(List<?> filters, Mono<Long> counter) {
+        Long cached = cache.getIfPresent(filters);
+        return cached != null ? Mono.just(cached) : counter.doOnNext(count -> cache.put(filters, count));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
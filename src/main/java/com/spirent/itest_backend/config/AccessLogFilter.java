@@ -0,0 +1,96 @@
+package com.spirent.itest_backend.config;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Writes one access log line per request with its status and duration, as key="value" pairs. Streamed responses are
+ * logged when the async request completes, so the duration covers the whole body.
+ * Lines are written at the {@link #ACCESS} level, between WARN and INFO, so that a full async logging buffer makes
+ * the request wait for them instead of discarding them with the INFO events (log4j2.component.properties).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    static final Level ACCESS = Level.forName("ACCESS", 350);
+
+    private static final Logger logger = LogManager.getLogger(AccessLogFilter.class);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!logger.isEnabled(ACCESS)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && isAsyncStarted(request)) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response.getStatus(), startNanos);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                // An exception escaping the chain becomes a 500 after this filter returns
+                log(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), startNanos);
+            }
+        }
+    }
+
+    private static void log(HttpServletRequest request, int status, long startNanos) {
+        log(request.getMethod(), request.getRequestURI(), request.getQueryString(), status, startNanos,
+                request.getRemoteAddr());
+    }
+
+    static boolean isEnabled() {
+        return logger.isEnabled(ACCESS);
+    }
+
+    static void log(String method, String uri, String query, int status, long startNanos, String client) {
+        long durationMicros = (System.nanoTime() - startNanos) / 1_000;
+        StringMapMessage message = new StringMapMessage(6)
+                .with("method", method)
+                .with("uri", uri)
+                .with("status", status)
+                .with("duration_ms", String.format("%d.%03d", durationMicros / 1_000, durationMicros % 1_000))
+                .with("client", client);
+        if (query != null) {
+            message.with("query", query);
+        }
+        logger.log(ACCESS, message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.spirent.itest_backend.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux counterpart of {@link AccessLogFilter}, writing the same line through its logger once the response
+ * completes, streamed bodies included.
+ */
+public class AccessLogWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!AccessLogFilter.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(done -> log(exchange, status(exchange), startNanos))
+                // An error escaping the chain becomes a 500 once the error handlers have run
+                .doOnError(error -> log(exchange, HttpStatus.INTERNAL_SERVER_ERROR.value(), startNanos));
+    }
+
+    private static int status(ServerWebExchange exchange) {
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status != null ? status : HttpStatus.OK.value();
+    }
+
+    private static void log(ServerWebExchange exchange, int status, long startNanos) {
+        ServerHttpRequest request = exchange.getRequest();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        AccessLogFilter.log(request.getMethodValue(), request.getPath().value(), request.getURI().getRawQuery(),
+                status, startNanos, remoteAddress != null ? remoteAddress.getHostString() : "-");
+    }
+}
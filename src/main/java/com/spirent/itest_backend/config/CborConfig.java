@@ -0,0 +1,30 @@
+package com.spirent.itest_backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CBOR (application/cbor) representations of the API, chosen by Accept and Content-Type.
+ * Spring adds a CBOR converter on its own once jackson-dataformat-cbor is present, but with a plain mapper: this one
+ * is built like the JSON converter's (spring.jackson.*), so that both formats carry the same values, dates
+ * included. It replaces the default one in the converter list, after the JSON converter, which stays the default.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper(builder));
+    }
+
+    /**
+     * @param builder A fresh builder, the Spring Boot one is a prototype bean
+     */
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.spirent.itest_backend.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    private static final Logger logger = LogManager.getLogger(FlywayConfig.class);
+
+    /**
+     * Migrates on startup. In fast-start mode a schema already at the latest version is left alone, which skips the
+     * validation of every applied migration and the migration lock; anything pending or failed still goes through
+     * a regular migrate.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${birdwatch.flyway.fast-start:false}") boolean fastStart) {
+        return flyway -> {
+            if (fastStart) {
+                MigrationInfoService info = flyway.info();
+                MigrationInfo current = info.current();
+                if (current != null && !current.getState().isFailed() && info.pending().length == 0) {
+                    logger.info("Schema is at version {}, skipping migration and validation", current.getVersion());
+                    return;
+                }
+            }
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package com.spirent.itest_backend.config;
+
+import com.spirent.itest_backend.repository.support.SliceableJpaRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@Configuration
+@EnableJpaRepositories(basePackages = "com.spirent.itest_backend.repository",
+        repositoryBaseClass = SliceableJpaRepository.class)
+public class JpaConfig {
+}
@@ -0,0 +1,53 @@
+package com.spirent.itest_backend.config;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Samples DEBUG and TRACE output of the configured loggers, typically org.hibernate.SQL, so that it can stay
+ * enabled under load. Levels themselves are still set with logging.level.*
+ */
+@Configuration
+public class LoggingConfig {
+
+    private static final Logger logger = LogManager.getLogger(LoggingConfig.class);
+    private final List<String> sampledLoggers;
+    private final int debugSampleRate;
+
+    public LoggingConfig(@Value("${birdwatch.logging.sampled-loggers:org.hibernate.SQL}") List<String> sampledLoggers,
+                         @Value("${birdwatch.logging.debug-sample-rate:1}") int debugSampleRate) {
+        this.sampledLoggers = sampledLoggers;
+        this.debugSampleRate = debugSampleRate;
+    }
+
+    @PostConstruct
+    void installSamplingFilters() {
+        if (debugSampleRate <= 1) {
+            return;
+        }
+
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        org.apache.logging.log4j.core.config.Configuration configuration = context.getConfiguration();
+        for (String name : sampledLoggers) {
+            LoggerConfig loggerConfig = configuration.getLoggerConfig(name);
+            if (!loggerConfig.getName().equals(name)) {
+                // Give the logger its own config, so the filter does not apply to the whole parent
+                LoggerConfig parent = loggerConfig;
+                loggerConfig = new LoggerConfig(name, null, true);
+                loggerConfig.setParent(parent);
+                configuration.addLogger(name, loggerConfig);
+            }
+            loggerConfig.addFilter(new SamplingFilter(debugSampleRate, Level.DEBUG));
+        }
+        context.updateLoggers();
+        logger.info("Sampling 1 in {} DEBUG events of {}", debugSampleRate, sampledLoggers);
+    }
+}
@@ -0,0 +1,72 @@
+package com.spirent.itest_backend.config;
+
+import com.spirent.itest_backend.metrics.SqlCounter;
+import com.spirent.itest_backend.metrics.SqlMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+
+/**
+ * Per-operation request metrics, scraped from /actuator/prometheus. http.server.requests gets an operation tag, and
+ * with birdwatch.metrics.sql-counting.enabled=true every request records its SQL statement and row counts. Counting
+ * puts a proxy in front of every JDBC call, so it is meant for finding N+1s rather than for production. Percentiles
+ * are set with management.metrics.distribution.* in application.properties.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean sqlCounting;
+
+    public MetricsConfig(MeterRegistry meterRegistry,
+                         @Value("${birdwatch.metrics.sql-counting.enabled:false}") boolean sqlCounting) {
+        this.meterRegistry = meterRegistry;
+        this.sqlCounting = sqlCounting;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "birdwatch.metrics.sql-counting.enabled", havingValue = "true")
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ? SqlCounter.wrap((DataSource) bean) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcTagsContributor operationTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                         Throwable exception) {
+                return Tags.of("operation", SqlMetricsInterceptor.operation(handler));
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.empty();
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (sqlCounting) {
+            registry.addInterceptor(new SqlMetricsInterceptor(meterRegistry));
+        }
+    }
+}
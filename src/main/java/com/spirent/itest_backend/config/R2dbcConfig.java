@@ -0,0 +1,69 @@
+package com.spirent.itest_backend.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+
+/**
+ * R2DBC connection pool of the reactive profile, to the same database and with the same credentials as
+ * spring.datasource. It is only reachable through the DatabaseClient bean: a ConnectionFactory bean would make
+ * Spring Boot back off from the JDBC DataSource, which JPA, Flyway and the blocking controllers still use.
+ */
+@Configuration
+@Profile("reactive")
+public class R2dbcConfig {
+
+    private static final Logger logger = LogManager.getLogger(R2dbcConfig.class);
+
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfig(@Value("${spring.datasource.url}") String jdbcUrl,
+                       @Value("${spring.datasource.username}") String username,
+                       @Value("${spring.datasource.password}") String password,
+                       @Value("${birdwatch.reactive.r2dbc.pool-size:20}") int poolSize,
+                       @Value("${birdwatch.reactive.r2dbc.acquire-timeout-ms:10000}") long acquireTimeoutMs) {
+        String r2dbcUrl = r2dbcUrl(jdbcUrl);
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("r2dbc")
+                .initialSize(1)
+                .maxSize(poolSize)
+                .maxAcquireTime(Duration.ofMillis(acquireTimeoutMs))
+                .build());
+        logger.info("Reactive reads use {} with at most {} connections", r2dbcUrl, poolSize);
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    // jdbc:postgresql://host:port/database?options -> r2dbc:postgresql://host:port/database, the JDBC driver options
+    // do not apply to R2DBC
+    static String r2dbcUrl(String jdbcUrl) {
+        if (!jdbcUrl.startsWith("jdbc:postgresql:")) {
+            throw new IllegalStateException("The reactive profile needs a PostgreSQL datasource, not " + jdbcUrl);
+        }
+        int query = jdbcUrl.indexOf('?');
+        return "r2dbc:" + jdbcUrl.substring("jdbc:".length(), query >= 0 ? query : jdbcUrl.length());
+    }
+}
@@ -0,0 +1,82 @@
+package com.spirent.itest_backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spirent.itest_backend.api.ReactiveReadHandler;
+import com.spirent.itest_backend.metrics.SqlMetricsWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.metrics.web.reactive.server.WebFluxTagsContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.util.concurrent.Executor;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Web setup of the reactive profile (spring.main.web-application-type=reactive, still on the embedded Tomcat).
+ * findBirds, getBirdById and findSightings are routed to {@link ReactiveReadHandler}, ahead of the annotated
+ * controllers, which keep serving every other operation. The servlet filters and interceptors have WebFlux
+ * counterparts here.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    private final Executor applicationTaskExecutor;
+    private final ObjectMapper cborObjectMapper;
+
+    public ReactiveWebConfig(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                             Executor applicationTaskExecutor, Jackson2ObjectMapperBuilder builder) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.cborObjectMapper = CborConfig.cborObjectMapper(builder);
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        // The export operation returns a StreamingResponseBody, written from the task executor
+        configurer.customCodecs().register(new StreamingResponseBodyWriter(applicationTaskExecutor));
+        // WebFlux has no CBOR codecs by default, these are the counterparts of CborConfig's converter. The media type
+        // must be given, without it a Jackson codec takes the JSON ones
+        configurer.customCodecs().register(new CborValueEncoder(cborObjectMapper));
+        configurer.customCodecs().register(new Jackson2CborDecoder(cborObjectMapper, MediaType.APPLICATION_CBOR));
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveReadHandler handler) {
+        return route(GET("/birds"), handler::findBirds)
+                .andRoute(GET("/birds/{birdId}"), handler::getBirdById)
+                .andRoute(GET("/sightings"), handler::findSightings);
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public AccessLogWebFilter accessLogWebFilter() {
+        return new AccessLogWebFilter();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "birdwatch.metrics.sql-counting.enabled", havingValue = "true")
+    public SqlMetricsWebFilter sqlMetricsWebFilter(MeterRegistry meterRegistry) {
+        return new SqlMetricsWebFilter(meterRegistry);
+    }
+
+    @Bean
+    public WebFluxTagsContributor reactiveOperationTagsContributor() {
+        return (exchange, exception) -> Tags.of("operation", SqlMetricsWebFilter.operation(exchange));
+    }
+}
@@ -0,0 +1,32 @@
+package com.spirent.itest_backend.config;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in every {@code rate} events at {@code level} or below through and denies the others. More severe events
+ * are not counted and always pass.
+ */
+public class SamplingFilter extends AbstractFilter {
+
+    private final int rate;
+    private final Level level;
+    private final AtomicLong events = new AtomicLong();
+
+    public SamplingFilter(int rate, Level level) {
+        super(Result.NEUTRAL, Result.DENY);
+        this.rate = rate;
+        this.level = level;
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        if (!event.getLevel().isLessSpecificThan(level)) {
+            return Result.NEUTRAL;
+        }
+        return events.getAndIncrement() % rate == 0 ? onMatch : onMismatch;
+    }
+}
@@ -0,0 +1,46 @@
+package com.spirent.itest_backend.config;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Reads NDJSON and CBOR sequence request bodies declared as binary Resources as a lazily consumed stream.
+ * The default ResourceHttpMessageConverter copies the whole body into a byte array first,
+ * which would make the memory use of an upload proportional to its size.
+ */
+public class StreamingResourceHttpMessageConverter extends AbstractHttpMessageConverter<Resource> {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // RFC 8742, concatenated CBOR items, the binary counterpart of NDJSON
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType("application/cbor-seq");
+
+    public StreamingResourceHttpMessageConverter() {
+        super(APPLICATION_NDJSON, APPLICATION_CBOR_SEQ);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Resource.class == clazz || InputStreamResource.class == clazz;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Resource readInternal(Class<? extends Resource> clazz, HttpInputMessage inputMessage) throws IOException {
+        return new InputStreamResource(inputMessage.getBody());
+    }
+
+    @Override
+    protected void writeInternal(Resource resource, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("Only reading is supported");
+    }
+}
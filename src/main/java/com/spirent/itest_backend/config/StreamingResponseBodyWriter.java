@@ -0,0 +1,155 @@
+package com.spirent.itest_backend.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes the StreamingResponseBody of the generated export operation under WebFlux, which has no
+ * equivalent of MVC's async handling for it. The body runs on the given executor and its output is emitted in
+ * chunks, each only once the client asked for it, so a slow client stalls the writer instead of filling memory.
+ */
+public class StreamingResponseBodyWriter implements HttpMessageWriter<StreamingResponseBody> {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final Executor executor;
+
+    public StreamingResponseBodyWriter(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.ALL);
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return StreamingResponseBody.class.isAssignableFrom(elementType.toClass());
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends StreamingResponseBody> inputStream, ResolvableType elementType,
+                            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        if (message.getHeaders().getContentType() == null && mediaType != null && mediaType.isConcrete()) {
+            message.getHeaders().setContentType(mediaType);
+        }
+        return Mono.from(inputStream).flatMap(body -> message.writeWith(chunks(body, message.bufferFactory())));
+    }
+
+    private Flux<DataBuffer> chunks(StreamingResponseBody body, DataBufferFactory bufferFactory) {
+        return Flux.create(sink -> {
+            DemandOutputStream out = new DemandOutputStream(sink, bufferFactory);
+            sink.onRequest(out::request);
+            sink.onDispose(out::cancel);
+            executor.execute(() -> {
+                try {
+                    body.writeTo(out);
+                    out.flush();
+                    sink.complete();
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Collects the written bytes into chunks and blocks the writing thread until the subscriber has demand for the
+     * next one
+     */
+    private static final class DemandOutputStream extends OutputStream {
+
+        private final FluxSink<DataBuffer> sink;
+        private final DataBufferFactory bufferFactory;
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private int position;
+        private long demand;
+        private boolean cancelled;
+
+        DemandOutputStream(FluxSink<DataBuffer> sink, DataBufferFactory bufferFactory) {
+            this.sink = sink;
+            this.bufferFactory = bufferFactory;
+        }
+
+        synchronized void request(long n) {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            notifyAll();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == chunk.length) {
+                emit();
+            }
+            chunk[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (position == chunk.length) {
+                    emit();
+                }
+                int count = Math.min(length, chunk.length - position);
+                System.arraycopy(bytes, offset, chunk, position, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (position > 0) {
+                emit();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void emit() throws IOException {
+            synchronized (this) {
+                while (demand == 0 && !cancelled) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for the client", e);
+                    }
+                }
+                if (cancelled) {
+                    // The client went away, make the body stop like a failed write would
+                    throw new IOException("Response was cancelled");
+                }
+                demand--;
+            }
+            sink.next(bufferFactory.wrap(Arrays.copyOf(chunk, position)));
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.spirent.itest_backend.config;
+
+import com.spirent.itest_backend.metrics.PinnedThreadMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Runs requests on virtual threads when birdwatch.threads.virtual=true. A request blocked on JDBC then parks its
+ * virtual thread instead of holding one of the server.tomcat.threads.max workers, so concurrency is bounded by the
+ * connection pool rather than the worker pool. Needs Java 21, startup fails on older runtimes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "birdwatch.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LogManager.getLogger(VirtualThreadConfig.class);
+
+    public VirtualThreadConfig(DataSource dataSource) throws SQLException {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("birdwatch.threads.virtual=true needs Java 21 or later, this is Java "
+                    + Runtime.version());
+        }
+        HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+        logger.info("Requests run on virtual threads, at most {} of them hold a database connection at a time",
+                hikariDataSource.getMaximumPoolSize());
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(new VirtualThreadExecutor("http-virtual-"));
+    }
+
+    // Also runs StreamingResponseBody exports and other async request processing
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(new VirtualThreadExecutor("task-virtual-"));
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+                                                   @Value("${birdwatch.threads.pinned-threshold-ms:20}") long thresholdMs) {
+        return new PinnedThreadMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+    }
+}
@@ -0,0 +1,17 @@
+package com.spirent.itest_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Must come before ResourceHttpMessageConverter, which buffers the whole body
+        converters.add(0, new StreamingResourceHttpMessageConverter());
+    }
+}
@@ -0,0 +1,148 @@
+package com.spirent.itest_backend.metrics;
+
+import reactor.core.publisher.Flux;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Counts the SQL statements executed and the rows read on the current thread between {@link #start} and
+ * {@link #stop}. Counting happens in JDK proxies around the connections, statements and result sets handed out by a
+ * {@link #wrap wrapped} DataSource, so JPA and JdbcTemplate traffic is seen. COPY ingestion unwraps the driver's
+ * connection and is not counted. Work handed to other threads, like the body of a streamed export, is not attributed
+ * to the request.
+ * R2DBC statements have no thread to be counted on, {@link #counted} attributes them to the {@link Counts} found in
+ * the subscriber context instead.
+ */
+public final class SqlCounter {
+
+    private static final ThreadLocal<Counts> current = new ThreadLocal<>();
+
+    private SqlCounter() {
+    }
+
+    public static void start() {
+        current.set(new Counts());
+    }
+
+    /**
+     * Returns the counts since {@link #start} on this thread, or null if counting was not started
+     */
+    public static Counts stop() {
+        Counts counts = current.get();
+        current.remove();
+        return counts;
+    }
+
+    /**
+     * Counts on this thread into the given counts while the action runs, for a request whose handling starts on this
+     * thread and may finish on another one
+     */
+    public static void countDuring(Counts counts, Runnable action) {
+        Counts previous = current.get();
+        current.set(counts);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Counts one statement, and every row it emits, into the {@link Counts} stored under Counts.class in the
+     * subscriber context. Statements run outside of a counted request are not counted.
+     */
+    public static <T> Flux<T> counted(Flux<T> rows) {
+        return Flux.deferContextual(context -> {
+            Counts counts = context.getOrDefault(Counts.class, null);
+            if (counts == null) {
+                return rows;
+            }
+            counts.add(1, 0);
+            return rows.doOnNext(row -> counts.add(0, 1));
+        });
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource);
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(SqlCounter.class.getClassLoader(), new Class<?>[]{type},
+                new CountingHandler(target)));
+    }
+
+    public static final class Counts {
+        private long statements;
+        private long rows;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        // The statements of one reactive request may run concurrently
+        private synchronized void add(long statements, long rows) {
+            this.statements += statements;
+            this.rows += rows;
+        }
+    }
+
+    private static final class CountingHandler implements InvocationHandler {
+
+        private final Object target;
+
+        CountingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            Counts counts = current.get();
+            if (counts != null && target instanceof Statement && method.getName().startsWith("execute")) {
+                counts.statements++;
+            }
+            if (counts != null && target instanceof ResultSet && method.getName().equals("next")
+                    && Boolean.TRUE.equals(result)) {
+                counts.rows++;
+            }
+
+            // Keep counting on whatever JDBC objects the call hands out, unwrap() still reaches the driver's own
+            Class<?> returnType = method.getReturnType();
+            if (result != null && !method.getName().equals("unwrap")
+                    && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType)
+                    || returnType == ResultSet.class)) {
+                return Proxy.newProxyInstance(SqlCounter.class.getClassLoader(), new Class<?>[]{returnType},
+                        new CountingHandler(result));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.spirent.itest_backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records the SQL statements and rows of each request as birdwatch.request.sql.statements and
+ * birdwatch.request.sql.rows, tagged with the API operation that served it. An N+1 shows up as a statement count
+ * that grows with the page size.
+ */
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Name of the OpenAPI operation behind a handler. The generated interfaces map each operationId to a method of the
+     * same name prefixed with an underscore, which delegates to the one the controller implements.
+     */
+    public static String operation(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return "none";
+        }
+        String name = ((HandlerMethod) handler).getMethod().getName();
+        return name.startsWith("_") ? name.substring(1) : name;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The dispatch that completes an async request was already recorded when handling started
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            SqlCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        record(handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        record(handler);
+    }
+
+    private void record(Object handler) {
+        SqlCounter.Counts counts = SqlCounter.stop();
+        if (counts != null) {
+            record(meterRegistry, operation(handler), counts);
+        }
+    }
+
+    static void record(MeterRegistry meterRegistry, String operation, SqlCounter.Counts counts) {
+        DistributionSummary.builder("birdwatch.request.sql.statements")
+                .description("SQL statements executed per request")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(counts.getStatements());
+        DistributionSummary.builder("birdwatch.request.sql.rows")
+                .description("Rows read from result sets per request")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(counts.getRows());
+    }
+}
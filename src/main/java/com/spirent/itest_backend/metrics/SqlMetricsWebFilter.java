@@ -0,0 +1,43 @@
+package com.spirent.itest_backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * WebFlux counterpart of {@link SqlMetricsInterceptor}. JDBC statements are counted while the request is handled on
+ * the thread it arrived on, which covers the blocking controllers, and R2DBC statements through the subscriber
+ * context wherever they complete.
+ */
+public class SqlMetricsWebFilter implements WebFilter {
+
+    /**
+     * Exchange attribute holding the operationId of a functional route, annotated controllers are named after their
+     * handler method instead
+     */
+    public static final String OPERATION_ATTRIBUTE = SqlMetricsWebFilter.class.getName() + ".operation";
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlMetricsWebFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static String operation(ServerWebExchange exchange) {
+        String operation = exchange.getAttribute(OPERATION_ATTRIBUTE);
+        return operation != null ? operation
+                : SqlMetricsInterceptor.operation(exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        SqlCounter.Counts counts = new SqlCounter.Counts();
+        Mono<Void> handling = chain.filter(exchange).contextWrite(Context.of(SqlCounter.Counts.class, counts));
+        return Mono.<Void>from(subscriber -> SqlCounter.countDuring(counts, () -> handling.subscribe(subscriber)))
+                .doFinally(signal -> SqlMetricsInterceptor.record(meterRegistry, operation(exchange), counts));
+    }
+}
@@ -0,0 +1,66 @@
+package com.spirent.itest_backend.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base for migrations that index a partitioned table without blocking writes.
+ * PostgreSQL cannot CREATE INDEX CONCURRENTLY on a partitioned table, so the index is created ON ONLY the parent,
+ * where it stays invalid, then built concurrently on every partition and attached; the parent index turns valid
+ * once all partitions are attached, and partitions created later get their own copy automatically.
+ * Each step is idempotent, a migration interrupted halfway can simply be run again.
+ */
+public abstract class PartitionedIndexMigration extends BaseJavaMigration {
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    /**
+     * Creates the index on the parent and on every existing partition
+     *
+     * @param schema Schema of the table, the indexes are created in it
+     * @param table Partitioned table
+     * @param indexName Name of the index on the parent
+     * @param partitionIndexSuffix Suffix of the index names on the partitions, the same name PostgreSQL gives the
+     *                             copies it creates on new partitions
+     * @param definition Everything after the table name, e.g. "USING gin (search_vector)"
+     */
+    protected void createIndexConcurrently(Connection connection, String schema, String table, String indexName,
+                                           String partitionIndexSuffix, String definition) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(String.format("CREATE INDEX IF NOT EXISTS %s ON ONLY %s.%s %s",
+                    indexName, schema, table, definition));
+            for (String partition : partitionsOf(connection, schema, table)) {
+                String partitionIndex = partition + "_" + partitionIndexSuffix;
+                statement.execute(String.format("CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s.%s %s",
+                        partitionIndex, schema, partition, definition));
+                statement.execute(String.format("ALTER INDEX %s.%s ATTACH PARTITION %s.%s",
+                        schema, indexName, schema, partitionIndex));
+            }
+        }
+    }
+
+    private static List<String> partitionsOf(Connection connection, String schema, String table) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = CAST(? AS regclass) ORDER BY c.relname")) {
+            statement.setString(1, schema + "." + table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    partitions.add(resultSet.getString(1));
+                }
+            }
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,36 @@
+package com.spirent.itest_backend.migration;
+
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+
+/**
+ * Indexes of the partitioned birds.sightings table, built concurrently partition by partition.
+ * Registered as a bean, Spring Boot hands every JavaMigration bean to Flyway.
+ */
+@Component
+public class V4__Create_sighting_indexes extends PartitionedIndexMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        // (bird_id, date_time, id) serves the bird_id foreign key lookups and per-bird time ranges, the trailing id
+        // matches the keyset tie-breaker so per-bird pages are read in index order without a sort
+        createIndexConcurrently(connection, "birds", "sightings", "idx_sightings_bird_id_date_time",
+                "bird_id_date_time_id_idx", "(bird_id, date_time, id)");
+        createIndexConcurrently(connection, "birds", "sightings", "idx_sightings_date_time",
+                "date_time_idx", "(date_time)");
+
+        // Geohash cells nest by prefix, so with the byte-order "C" collation every cell is one contiguous range
+        createIndexConcurrently(connection, "birds", "sightings", "idx_sightings_geohash",
+                "geohash_idx", "(geohash)");
+
+        // Trigram index for lower(location) LIKE '%term%', full-text index for the generated search_vector
+        createIndexConcurrently(connection, "birds", "sightings", "idx_sightings_location_trgm",
+                "lower_idx", "USING gin (lower(location) gin_trgm_ops)");
+        createIndexConcurrently(connection, "birds", "sightings", "idx_sightings_search_vector",
+                "search_vector_idx", "USING gin (search_vector)");
+    }
+}
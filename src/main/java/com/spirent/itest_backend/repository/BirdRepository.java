@@ -1,17 +1,28 @@
 package com.spirent.itest_backend.repository;
 
 import com.spirent.itest_backend.repository.entity.BirdEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.spirent.itest_backend.repository.support.SliceSpecificationExecutor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface BirdRepository extends JpaRepository<BirdEntity, Long> {
+public interface BirdRepository extends JpaRepository<BirdEntity, Long>, JpaSpecificationExecutor<BirdEntity>,
+        SliceSpecificationExecutor<BirdEntity> {
 
-    Page<BirdEntity> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    @Query("SELECT b.id FROM BirdEntity b")
+    List<Long> findAllIds();
 
-    Page<BirdEntity> findByColorContainingIgnoreCase(String color, Pageable pageable);
+    // Served by the uk_birds_name unique index
+    @Query("SELECT b.name FROM BirdEntity b WHERE b.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
 
-    Page<BirdEntity> findByNameContainingIgnoreCaseAndColorContainingIgnoreCase(String name, String color, Pageable pageable);
+    // Planner row estimate maintained by ANALYZE and autovacuum, 0 (or -1 on PostgreSQL 14+) before the first analyze
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('birds.birds' AS regclass)", nativeQuery = true)
+    long estimateRowCount();
 }
@@ -0,0 +1,159 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.metrics.SqlCounter;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.support.SqlCriteria;
+import com.spirent.itest_backend.repository.support.Timestamps;
+import io.r2dbc.spi.Row;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+import static com.spirent.itest_backend.repository.specification.BirdSpecifications.containsPattern;
+
+/**
+ * Non-blocking reads of birds.birds through R2DBC for the reactive profile. The filters render the same SQL as
+ * BirdSpecifications, so they are served by the same indexes.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveBirdRepository {
+
+    private static final String COLUMNS = "b.id, b.name, b.color, b.weight, b.height, b.created_at, b.updated_at";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveBirdRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Builds the WHERE clause for the bird search filters, absent filters are skipped
+     */
+    public static SqlCriteria withFilters(String name, String color, Double weightMin, Double weightMax,
+                                          Double heightMin, Double heightMax) {
+        SqlCriteria criteria = new SqlCriteria();
+        if (name != null) {
+            criteria.and("lower(b.name) LIKE " + criteria.bind(containsPattern(name)) + " ESCAPE '\\'");
+        }
+        if (color != null) {
+            criteria.and("lower(b.color) LIKE " + criteria.bind(containsPattern(color)) + " ESCAPE '\\'");
+        }
+        range(criteria, "b.weight", weightMin, weightMax);
+        range(criteria, "b.height", heightMin, heightMax);
+        return criteria;
+    }
+
+    /**
+     * Adds the keyset predicate that starts after the cursor position
+     *
+     * @throws InvalidRequestException if the sort field is unknown or the cursor value does not parse
+     */
+    public static SqlCriteria after(SqlCriteria criteria, String sortField, boolean ascending, String lastValue, Long lastId) {
+        return criteria.andAfter(sortColumn(sortField), "b.id", ascending, keysetValue(sortField, lastValue), lastId);
+    }
+
+    /**
+     * Streams the matching birds ordered by the sort field, then id
+     *
+     * @param limit Rows to read, the caller asks for one more than the page size to find out whether a next page exists
+     */
+    public Flux<BirdEntity> find(SqlCriteria criteria, String sortField, boolean ascending, long offset, int limit) {
+        String direction = ascending ? "ASC" : "DESC";
+        String sql = "SELECT " + COLUMNS + " FROM birds.birds b" + criteria.where()
+                + " ORDER BY " + sortColumn(sortField) + " " + direction + ", b.id " + direction
+                + " LIMIT :limit OFFSET :offset";
+        return SqlCounter.counted(criteria.bindTo(databaseClient.sql(sql))
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> toEntity(row))
+                .all());
+    }
+
+    public Mono<Long> count(SqlCriteria criteria) {
+        return SqlCounter.counted(criteria.bindTo(databaseClient.sql("SELECT count(*) AS total FROM birds.birds b" + criteria.where()))
+                .map((row, metadata) -> row.get("total", Long.class))
+                .all())
+                .single();
+    }
+
+    // Planner row estimate maintained by ANALYZE and autovacuum, 0 (or -1 on PostgreSQL 14+) before the first analyze
+    public Mono<Long> estimateRowCount() {
+        return SqlCounter.counted(databaseClient.sql("SELECT CAST(reltuples AS BIGINT) AS estimate FROM pg_class "
+                        + "WHERE oid = CAST('birds.birds' AS regclass)")
+                .map((row, metadata) -> row.get("estimate", Long.class))
+                .all())
+                .single();
+    }
+
+    public Mono<BirdEntity> findById(Long id) {
+        return SqlCounter.counted(databaseClient.sql("SELECT " + COLUMNS + " FROM birds.birds b WHERE b.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toEntity(row))
+                .all())
+                .singleOrEmpty();
+    }
+
+    // Compare the raw column against the bounds so the predicate stays sargable for a B-tree index
+    private static void range(SqlCriteria criteria, String column, Double min, Double max) {
+        if (min != null && max != null) {
+            criteria.and(column + " BETWEEN " + criteria.bind(min) + " AND " + criteria.bind(max));
+        } else if (min != null) {
+            criteria.and(column + " >= " + criteria.bind(min));
+        } else if (max != null) {
+            criteria.and(column + " <= " + criteria.bind(max));
+        }
+    }
+
+    private static String sortColumn(String sortField) {
+        switch (sortField) {
+            case "name":
+                return "b.name";
+            case "color":
+                return "b.color";
+            case "weight":
+                return "b.weight";
+            case "height":
+                return "b.height";
+            case "createdAt":
+                return "b.created_at";
+            default:
+                throw new InvalidRequestException("Unsupported sort field: " + sortField);
+        }
+    }
+
+    private static Object keysetValue(String sortField, String lastValue) {
+        try {
+            switch (sortField) {
+                case "weight":
+                case "height":
+                    return Double.valueOf(lastValue);
+                case "createdAt":
+                    return Timestamps.toColumn(OffsetDateTime.parse(lastValue));
+                default:
+                    return lastValue;
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidRequestException("Malformed cursor value: " + lastValue);
+        }
+    }
+
+    private static BirdEntity toEntity(Row row) {
+        BirdEntity birdEntity = new BirdEntity();
+        birdEntity.setId(row.get("id", Long.class));
+        birdEntity.setName(row.get("name", String.class));
+        birdEntity.setColor(row.get("color", String.class));
+        birdEntity.setWeight(row.get("weight", Double.class));
+        birdEntity.setHeight(row.get("height", Double.class));
+        birdEntity.setCreatedAt(Timestamps.fromColumn(row.get("created_at", LocalDateTime.class)));
+        birdEntity.setUpdatedAt(Timestamps.fromColumn(row.get("updated_at", LocalDateTime.class)));
+        return birdEntity;
+    }
+}
@@ -0,0 +1,219 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.metrics.SqlCounter;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.specification.SightingSpecifications;
+import com.spirent.itest_backend.repository.support.SqlCriteria;
+import com.spirent.itest_backend.repository.support.Timestamps;
+import com.spirent.itest_backend.utils.Geohash;
+import io.r2dbc.spi.Row;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.spirent.itest_backend.repository.specification.BirdSpecifications.containsPattern;
+import static com.spirent.itest_backend.repository.specification.SightingSpecifications.EARTH_RADIUS_KM;
+
+/**
+ * Non-blocking reads of birds.sightings through R2DBC for the reactive profile. The filters render the same SQL as
+ * SightingSpecifications, including the geohash cell ranges, so they are served by the same indexes.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveSightingRepository {
+
+    private static final String COLUMNS = "s.id, s.bird_id, s.location, s.date_time, s.created_at, s.updated_at, "
+            + "s.latitude, s.longitude";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveSightingRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Builds the WHERE clause for the sighting search filters, absent filters are skipped. The bird name filter
+     * refers to the birds table as b, see {@link #find}.
+     */
+    public static SqlCriteria withFilters(Long birdId, String birdName, String location,
+                                          OffsetDateTime startDateTime, OffsetDateTime endDateTime) {
+        SqlCriteria criteria = new SqlCriteria();
+        if (birdId != null) {
+            criteria.and("s.bird_id = " + criteria.bind(birdId));
+        }
+        if (startDateTime != null && endDateTime != null) {
+            criteria.and("s.date_time BETWEEN " + criteria.bind(Timestamps.toColumn(startDateTime))
+                    + " AND " + criteria.bind(Timestamps.toColumn(endDateTime)));
+        } else if (startDateTime != null) {
+            criteria.and("s.date_time >= " + criteria.bind(Timestamps.toColumn(startDateTime)));
+        } else if (endDateTime != null) {
+            criteria.and("s.date_time <= " + criteria.bind(Timestamps.toColumn(endDateTime)));
+        }
+        if (birdName != null) {
+            criteria.and("lower(b.name) LIKE " + criteria.bind(containsPattern(birdName)) + " ESCAPE '\\'");
+        }
+        if (location != null) {
+            criteria.and("lower(s.location) LIKE " + criteria.bind(containsPattern(location)) + " ESCAPE '\\'");
+        }
+        return criteria;
+    }
+
+    /**
+     * Restricts sightings to the box, bounds inclusive, see {@link SightingSpecifications#withinBoundingBox}
+     */
+    public static SqlCriteria withinBoundingBox(SqlCriteria criteria, double minLat, double minLon,
+                                                double maxLat, double maxLon) {
+        return criteria
+                .and(inCells(criteria, Geohash.cover(minLat, minLon, maxLat, maxLon)))
+                .and("s.latitude BETWEEN " + criteria.bind(minLat) + " AND " + criteria.bind(maxLat))
+                .and("s.longitude BETWEEN " + criteria.bind(minLon) + " AND " + criteria.bind(maxLon));
+    }
+
+    /**
+     * Restricts sightings to those within radiusKm great-circle distance of the point, see
+     * {@link SightingSpecifications#withinRadius}
+     */
+    public static SqlCriteria withinRadius(SqlCriteria criteria, double latitude, double longitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double minLat = Math.max(-90, latitude - Math.toDegrees(angle));
+        double maxLat = Math.min(90, latitude + Math.toDegrees(angle));
+        // sin(lat1) * sin(lat2) + cos(lat1) * cos(lat2) * cos(lon2 - lon1) >= cos(radiusKm / R)
+        String cosDistance = "sin(radians(s.latitude)) * " + criteria.bind(Math.sin(Math.toRadians(latitude)))
+                + " + cos(radians(s.latitude)) * " + criteria.bind(Math.cos(Math.toRadians(latitude)))
+                + " * cos(radians(s.longitude) - " + criteria.bind(Math.toRadians(longitude)) + ")";
+        return criteria
+                .and(inCells(criteria, SightingSpecifications.cellsWithinRadius(latitude, longitude, radiusKm)))
+                .and("s.latitude BETWEEN " + criteria.bind(minLat) + " AND " + criteria.bind(maxLat))
+                .and(cosDistance + " >= " + criteria.bind(Math.cos(angle)));
+    }
+
+    /**
+     * Adds the keyset predicate that starts after the cursor position
+     *
+     * @throws InvalidRequestException if the sort field is unknown or the cursor value does not parse
+     */
+    public static SqlCriteria after(SqlCriteria criteria, String sortField, boolean ascending, String lastValue, Long lastId) {
+        return criteria.andAfter(sortColumn(sortField), "s.id", ascending, keysetValue(sortField, lastValue), lastId);
+    }
+
+    /**
+     * Streams the matching sightings ordered by the sort field, then id. The bird name is only read, through a join
+     * with birds.birds, when it is filtered or sorted on.
+     *
+     * @param joinBird Whether the criteria or the sort refer to the bird name
+     * @param limit Rows to read, the caller asks for one more than the page size to find out whether a next page exists
+     */
+    public Flux<SightingEntity> find(SqlCriteria criteria, boolean joinBird, String sortField, boolean ascending,
+                                     long offset, int limit) {
+        String direction = ascending ? "ASC" : "DESC";
+        String sql = "SELECT " + COLUMNS + (joinBird ? ", b.name AS bird_name" : "") + from(joinBird) + criteria.where()
+                + " ORDER BY " + sortColumn(sortField) + " " + direction + ", s.id " + direction
+                + " LIMIT :limit OFFSET :offset";
+        return SqlCounter.counted(criteria.bindTo(databaseClient.sql(sql))
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> toEntity(row, joinBird))
+                .all());
+    }
+
+    public Mono<Long> count(SqlCriteria criteria, boolean joinBird) {
+        return SqlCounter.counted(criteria.bindTo(databaseClient.sql("SELECT count(*) AS total" + from(joinBird) + criteria.where()))
+                .map((row, metadata) -> row.get("total", Long.class))
+                .all())
+                .single();
+    }
+
+    // Planner row estimates summed over the partitions, see SightingRepository.estimateRowCount
+    public Mono<Long> estimateRowCount() {
+        return SqlCounter.counted(databaseClient.sql("SELECT CAST(COALESCE(sum(c.reltuples) FILTER (WHERE c.reltuples > 0), 0) AS BIGINT) AS estimate "
+                        + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = CAST('birds.sightings' AS regclass)")
+                .map((row, metadata) -> row.get("estimate", Long.class))
+                .all())
+                .single();
+    }
+
+    // One query for a whole page of birds, the same lateral subquery as SightingRepository.findRecentByBirdIds
+    public Flux<SightingEntity> findRecentByBirdIds(Collection<Long> birdIds, int limit) {
+        return SqlCounter.counted(databaseClient.sql("SELECT " + COLUMNS + " "
+                        + "FROM birds.birds b CROSS JOIN LATERAL ("
+                        + "    SELECT * FROM birds.sightings x WHERE x.bird_id = b.id ORDER BY x.date_time DESC, x.id DESC LIMIT :limit) s "
+                        + "WHERE b.id IN (:birdIds) "
+                        + "ORDER BY s.bird_id, s.date_time DESC, s.id DESC")
+                .bind("birdIds", birdIds)
+                .bind("limit", limit)
+                .map((row, metadata) -> toEntity(row, false))
+                .all());
+    }
+
+    private static String from(boolean joinBird) {
+        return " FROM birds.sightings s" + (joinBird ? " JOIN birds.birds b ON b.id = s.bird_id" : "");
+    }
+
+    // One geohash range per cell, the column uses the "C" collation so the ranges follow byte order
+    private static String inCells(SqlCriteria criteria, Set<String> cells) {
+        return cells.stream()
+                .map(cell -> "(s.geohash >= " + criteria.bind(cell)
+                        + " AND s.geohash < " + criteria.bind(Geohash.prefixUpperBound(cell)) + ")")
+                .collect(Collectors.joining(" OR "));
+    }
+
+    private static String sortColumn(String sortField) {
+        switch (sortField) {
+            case "dateTime":
+                return "s.date_time";
+            case "location":
+                return "s.location";
+            case "birdName":
+                return "b.name";
+            case "createdAt":
+                return "s.created_at";
+            default:
+                throw new InvalidRequestException("Unsupported sort field: " + sortField);
+        }
+    }
+
+    private static Object keysetValue(String sortField, String lastValue) {
+        try {
+            switch (sortField) {
+                case "dateTime":
+                case "createdAt":
+                    return Timestamps.toColumn(OffsetDateTime.parse(lastValue));
+                default:
+                    return lastValue;
+            }
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Malformed cursor value: " + lastValue);
+        }
+    }
+
+    private static SightingEntity toEntity(Row row, boolean withBirdName) {
+        BirdEntity birdEntity = new BirdEntity();
+        birdEntity.setId(row.get("bird_id", Long.class));
+        if (withBirdName) {
+            birdEntity.setName(row.get("bird_name", String.class));
+        }
+
+        SightingEntity sightingEntity = new SightingEntity();
+        sightingEntity.setId(row.get("id", Long.class));
+        sightingEntity.setBird(birdEntity);
+        sightingEntity.setLocation(row.get("location", String.class));
+        sightingEntity.setDateTime(Timestamps.fromColumn(row.get("date_time", LocalDateTime.class)));
+        sightingEntity.setCreatedAt(Timestamps.fromColumn(row.get("created_at", LocalDateTime.class)));
+        sightingEntity.setUpdatedAt(Timestamps.fromColumn(row.get("updated_at", LocalDateTime.class)));
+        sightingEntity.setLatitude(row.get("latitude", Double.class));
+        sightingEntity.setLongitude(row.get("longitude", Double.class));
+        return sightingEntity;
+    }
+}
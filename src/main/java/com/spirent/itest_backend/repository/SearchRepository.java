@@ -0,0 +1,30 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.projection.SearchHitView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SearchRepository extends org.springframework.data.repository.Repository<BirdEntity, Long> {
+
+    // Ranked full-text search over the stored search_vector columns, both branches are served by their GIN index
+    @Query(value = "SELECT 'bird' AS type, b.id AS id, b.id AS \"birdId\", b.name AS name, b.color AS color, " +
+            "       CAST(NULL AS VARCHAR) AS location, CAST(NULL AS TIMESTAMP) AS \"dateTime\", " +
+            "       CAST(ts_rank(b.search_vector, q.query) AS DOUBLE PRECISION) AS rank " +
+            "FROM birds.birds b, websearch_to_tsquery('english', :q) AS q(query) " +
+            "WHERE b.search_vector @@ q.query " +
+            "UNION ALL " +
+            "SELECT 'sighting', s.id, s.bird_id, b.name, b.color, s.location, s.date_time, " +
+            "       CAST(ts_rank(s.search_vector, q.query) AS DOUBLE PRECISION) " +
+            "FROM birds.sightings s JOIN birds.birds b ON b.id = s.bird_id, websearch_to_tsquery('english', :q) AS q(query) " +
+            "WHERE s.search_vector @@ q.query " +
+            "ORDER BY rank DESC, type, id",
+            countQuery = "SELECT (SELECT count(*) FROM birds.birds WHERE search_vector @@ websearch_to_tsquery('english', :q)) " +
+                    "     + (SELECT count(*) FROM birds.sightings WHERE search_vector @@ websearch_to_tsquery('english', :q))",
+            nativeQuery = true)
+    Page<SearchHitView> search(@Param("q") String q, Pageable pageable);
+}
@@ -0,0 +1,105 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.utils.Geohash;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+/**
+ * Bulk writes into birds.sightings with PostgreSQL COPY.
+ * Rows are streamed to the server through a fixed size buffer, so memory use does not grow with the row count.
+ */
+@Repository
+public class SightingCopyRepository {
+
+    private static final String COPY_SQL = "COPY birds.sightings (bird_id, location, date_time, latitude, longitude, geohash) FROM STDIN WITH (FORMAT csv)";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    public SightingCopyRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * One row of the COPY stream. dateTime is the local time in the JVM zone, as Hibernate writes TIMESTAMP columns.
+     * latitude and longitude are either both set or both null, the geohash is derived from them as SightingEntity does.
+     */
+    public static final class SightingRow {
+        private final long birdId;
+        private final String location;
+        private final LocalDateTime dateTime;
+        private final Double latitude;
+        private final Double longitude;
+
+        public SightingRow(long birdId, String location, LocalDateTime dateTime, Double latitude, Double longitude) {
+            this.birdId = birdId;
+            this.location = location;
+            this.dateTime = dateTime;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    /**
+     * Copies every row produced by the iterator in a single COPY statement; if anything fails nothing is written
+     *
+     * @param rows Lazily produced rows, consumed exactly once
+     * @return Number of rows written
+     */
+    public long copy(Iterator<SightingRow> rows) throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 512);
+                while (rows.hasNext()) {
+                    appendCsv(buffer, rows.next());
+                    if (buffer.length() >= BUFFER_SIZE) {
+                        write(copyIn, buffer);
+                    }
+                }
+                write(copyIn, buffer);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static void appendCsv(StringBuilder buffer, SightingRow row) {
+        buffer.append(row.birdId).append(',')
+                .append('"').append(row.location.replace("\"", "\"\"")).append('"').append(',')
+                .append(row.dateTime).append(',');
+        // Unquoted empty fields are NULL in the csv format
+        if (row.latitude != null && row.longitude != null) {
+            buffer.append(row.latitude).append(',')
+                    .append(row.longitude).append(',')
+                    .append(Geohash.encode(row.latitude, row.longitude, Geohash.MAX_PRECISION));
+        } else {
+            buffer.append(',').append(',');
+        }
+        buffer.append('\n');
+    }
+}
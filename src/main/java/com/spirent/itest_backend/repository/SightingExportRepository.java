@@ -0,0 +1,65 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.projection.SightingExportRow;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads sightings for export through a forward-only cursor.
+ */
+@Repository
+public class SightingExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Streams the rows matching the specification ordered by dateTime and id. Must run inside a transaction,
+     * the PostgreSQL driver only honours the fetch size (and so only uses a cursor) with autocommit off.
+     *
+     * @param specification Filters, the same ones used by the paginated listing
+     * @param fetchSize Rows fetched per round trip
+     * @param consumer Receives each row once, in order
+     * @return Number of rows streamed
+     */
+    public long forEach(Specification<SightingEntity> specification, int fetchSize, Consumer<SightingExportRow> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SightingExportRow> query = cb.createQuery(SightingExportRow.class);
+        Root<SightingEntity> root = query.from(SightingEntity.class);
+        query.select(cb.construct(SightingExportRow.class,
+                root.get("id"), root.get("bird").get("id"), root.get("location"),
+                root.get("latitude"), root.get("longitude"), root.get("dateTime"), root.get("createdAt")));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(cb.asc(root.get("dateTime")), cb.asc(root.get("id")));
+
+        long count = 0;
+        try (Stream<SightingExportRow> rows = entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()) {
+            Iterator<SightingExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+}
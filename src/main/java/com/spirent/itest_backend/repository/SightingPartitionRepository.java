@@ -0,0 +1,30 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Manages the monthly partitions of birds.sightings through the functions of the Flyway migrations.
+ * The functions run DDL, so every call needs a read-write transaction.
+ */
+@Repository
+public interface SightingPartitionRepository extends org.springframework.data.repository.Repository<SightingEntity, Long> {
+
+    @Query(value = "SELECT birds.create_sighting_partition(:monthStart)", nativeQuery = true)
+    boolean createPartition(@Param("monthStart") LocalDate monthStart);
+
+    @Query(value = "SELECT birds.expire_sighting_partition(:monthStart, :dropTable)", nativeQuery = true)
+    boolean expirePartition(@Param("monthStart") LocalDate monthStart, @Param("dropTable") boolean dropTable);
+
+    // Monthly partitions only, named sightings_YYYY_MM; the default partition is never expired
+    @Query(value = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = CAST('birds.sightings' AS regclass) AND c.relname ~ '^sightings_[0-9]{4}_[0-9]{2}$' " +
+            "ORDER BY c.relname",
+            nativeQuery = true)
+    List<String> findMonthlyPartitionNames();
+}
@@ -1,34 +1,34 @@
 package com.spirent.itest_backend.repository;
 
 import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.support.SliceSpecificationExecutor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.OffsetDateTime;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface SightingRepository extends JpaRepository<SightingEntity, Long> {
+public interface SightingRepository extends JpaRepository<SightingEntity, Long>, JpaSpecificationExecutor<SightingEntity>,
+        SliceSpecificationExecutor<SightingEntity> {
 
-    // Find by bird name with pagination
-    Page<SightingEntity> findByBirdNameContainingIgnoreCase(String birdName, Pageable pageable);
-    
-    // Find by location with pagination
-    Page<SightingEntity> findByLocationContainingIgnoreCase(String location, Pageable pageable);
-    
-    // Find by date range with pagination
-    Page<SightingEntity> findByDateTimeBetween(OffsetDateTime start, OffsetDateTime end, Pageable pageable);
-    
-    // Find by bird name and location with pagination
-    Page<SightingEntity> findByBirdNameContainingIgnoreCaseAndLocationContainingIgnoreCase(String birdName, String location, Pageable pageable);
-    
-    // Find by bird name and date range with pagination
-    Page<SightingEntity> findByBirdNameContainingIgnoreCaseAndDateTimeBetween(String birdName, OffsetDateTime start, OffsetDateTime end, Pageable pageable);
-    
-    // Find by location and date range with pagination
-    Page<SightingEntity> findByLocationContainingIgnoreCaseAndDateTimeBetween(String location, OffsetDateTime start, OffsetDateTime end, Pageable pageable);
-    
-    // Find by all filters with pagination
-    Page<SightingEntity> findByBirdNameContainingIgnoreCaseAndLocationContainingIgnoreCaseAndDateTimeBetween(String birdName, String location, OffsetDateTime start, OffsetDateTime end, Pageable pageable);
+    // One query for a whole page of birds, each lateral subquery reads at most :limit rows from idx_sightings_bird_id_date_time
+    @Query(value = "SELECT s.id, s.bird_id, s.location, s.date_time, s.created_at, s.updated_at, " +
+            "s.latitude, s.longitude, s.geohash " +
+            "FROM birds.birds b CROSS JOIN LATERAL (" +
+            "    SELECT * FROM birds.sightings x WHERE x.bird_id = b.id ORDER BY x.date_time DESC, x.id DESC LIMIT :limit) s " +
+            "WHERE b.id IN (:birdIds) " +
+            "ORDER BY s.bird_id, s.date_time DESC, s.id DESC",
+            nativeQuery = true)
+    List<SightingEntity> findRecentByBirdIds(@Param("birdIds") Collection<Long> birdIds, @Param("limit") int limit);
+
+    // Planner row estimates maintained by ANALYZE and autovacuum, summed over the partitions since the partitioned
+    // parent has none of its own; partitions not analyzed yet report 0 (or -1 on PostgreSQL 14+) and are skipped
+    @Query(value = "SELECT CAST(COALESCE(sum(c.reltuples) FILTER (WHERE c.reltuples > 0), 0) AS BIGINT) " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = CAST('birds.sightings' AS regclass)", nativeQuery = true)
+    long estimateRowCount();
 }
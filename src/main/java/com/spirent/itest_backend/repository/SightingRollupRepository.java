@@ -0,0 +1,59 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.projection.SightingStatsView;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and rebuilds birds.sighting_rollups, the hourly counts maintained by triggers on birds.sightings.
+ * Time bounds are local timestamps in the JVM zone, the way the sighting date_time column is written.
+ */
+@Repository
+public interface SightingRollupRepository extends org.springframework.data.repository.Repository<SightingEntity, Long> {
+
+    @Query(value = "SELECT r.bird_id AS \"birdId\", date_trunc(:bucket, r.bucket_start) AS \"bucketStart\", " +
+            "       CAST(sum(r.sighting_count) AS BIGINT) AS sightings, count(DISTINCT r.location) AS \"distinctLocations\" " +
+            "FROM birds.sighting_rollups r " +
+            "WHERE r.bucket_start >= :from AND r.bucket_start < :to " +
+            "GROUP BY 1, 2 ORDER BY 2, 1 LIMIT :limit",
+            nativeQuery = true)
+    List<SightingStatsView> findStats(@Param("bucket") String bucket, @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to, @Param("limit") int limit);
+
+    // Served by the (bird_id, bucket_start, location) primary key
+    @Query(value = "SELECT r.bird_id AS \"birdId\", date_trunc(:bucket, r.bucket_start) AS \"bucketStart\", " +
+            "       CAST(sum(r.sighting_count) AS BIGINT) AS sightings, count(DISTINCT r.location) AS \"distinctLocations\" " +
+            "FROM birds.sighting_rollups r " +
+            "WHERE r.bird_id = :birdId AND r.bucket_start >= :from AND r.bucket_start < :to " +
+            "GROUP BY 1, 2 ORDER BY 2, 1 LIMIT :limit",
+            nativeQuery = true)
+    List<SightingStatsView> findStatsOfBird(@Param("birdId") Long birdId, @Param("bucket") String bucket,
+                                            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                            @Param("limit") int limit);
+
+    // Holds off sighting writes and other rebuilds until the rebuilding transaction commits, the triggers of the
+    // former and the inserts of the latter would race the rebuild. Reads go on.
+    @Modifying
+    @Query(value = "LOCK TABLE birds.sightings IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockSightingsAgainstWrites();
+
+    @Modifying
+    @Query(value = "DELETE FROM birds.sighting_rollups WHERE bucket_start >= :from AND bucket_start < :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Bounds are whole hours, so the sighting range covers exactly the deleted buckets
+    @Modifying
+    @Query(value = "INSERT INTO birds.sighting_rollups (bird_id, bucket_start, location, sighting_count) " +
+            "SELECT bird_id, date_trunc('hour', date_time), location, count(*) " +
+            "FROM birds.sightings " +
+            "WHERE date_time >= :from AND date_time < :to " +
+            "GROUP BY 1, 2, 3",
+            nativeQuery = true)
+    int insertRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
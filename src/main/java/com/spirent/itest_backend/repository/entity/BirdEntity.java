@@ -14,8 +14,10 @@ import java.time.OffsetDateTime;
 @AllArgsConstructor
 public class BirdEntity {
 
+    // Pooled sequence ids let Hibernate batch inserts, IDENTITY would force one INSERT round trip per bird
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "birds_id_seq")
+    @SequenceGenerator(name = "birds_id_seq", sequenceName = "birds.birds_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
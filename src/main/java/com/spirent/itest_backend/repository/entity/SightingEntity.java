@@ -1,5 +1,6 @@
 package com.spirent.itest_backend.repository.entity;
 
+import com.spirent.itest_backend.utils.Geohash;
 import lombok.*;
 import javax.persistence.*;
 import java.time.OffsetDateTime;
@@ -12,6 +13,7 @@ import java.time.OffsetDateTime;
 @AllArgsConstructor
 public class SightingEntity {
 
+    // The table key is (id, date_time) because the table is partitioned on date_time, id alone stays unique
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -31,4 +33,23 @@ public class SightingEntity {
 
     @Column(nullable = true)
     private OffsetDateTime updatedAt;
+
+    @Column(nullable = true)
+    private Double latitude;
+
+    @Column(nullable = true)
+    private Double longitude;
+
+    // Derived from the coordinates on every write, read by the bounding box and radius filters
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = true, length = Geohash.MAX_PRECISION)
+    private String geohash;
+
+    @PrePersist
+    @PreUpdate
+    void updateGeohash() {
+        geohash = (latitude != null && longitude != null)
+                ? Geohash.encode(latitude, longitude, Geohash.MAX_PRECISION)
+                : null;
+    }
 }
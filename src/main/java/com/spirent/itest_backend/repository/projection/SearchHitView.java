@@ -0,0 +1,25 @@
+package com.spirent.itest_backend.repository.projection;
+
+import java.sql.Timestamp;
+
+/**
+ * One row of the full-text search query, either a bird or a sighting.
+ */
+public interface SearchHitView {
+
+    String getType();
+
+    Long getId();
+
+    Long getBirdId();
+
+    String getName();
+
+    String getColor();
+
+    String getLocation();
+
+    Timestamp getDateTime();
+
+    Double getRank();
+}
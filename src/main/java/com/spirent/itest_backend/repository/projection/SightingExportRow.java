@@ -0,0 +1,25 @@
+package com.spirent.itest_backend.repository.projection;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One exported sighting, selected with a JPQL constructor expression so that no entity is ever instantiated.
+ * Latitude and longitude are null for sightings recorded without coordinates.
+ */
+@Getter
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "birdId", "location", "latitude", "longitude", "dateTime", "createdAt"})
+public class SightingExportRow {
+
+    private final Long id;
+    private final Long birdId;
+    private final String location;
+    private final Double latitude;
+    private final Double longitude;
+    private final OffsetDateTime dateTime;
+    private final OffsetDateTime createdAt;
+}
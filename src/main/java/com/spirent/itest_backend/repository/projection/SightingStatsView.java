@@ -0,0 +1,17 @@
+package com.spirent.itest_backend.repository.projection;
+
+import java.sql.Timestamp;
+
+/**
+ * One bucket of the sighting rollup aggregation.
+ */
+public interface SightingStatsView {
+
+    Long getBirdId();
+
+    Timestamp getBucketStart();
+
+    Long getSightings();
+
+    Long getDistinctLocations();
+}
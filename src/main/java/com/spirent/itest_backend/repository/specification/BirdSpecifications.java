@@ -0,0 +1,82 @@
+package com.spirent.itest_backend.repository.specification;
+
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Composable JPA specifications for filtering birds.
+ * Every factory method returns null when its argument is null, so filters can be chained
+ * with {@link Specification#and(Specification)} and absent filters are simply skipped.
+ * The name and color filters are rendered as lower(column) LIKE '%term%' so they match the pg_trgm
+ * expression indexes defined in schema.sql.
+ */
+public final class BirdSpecifications {
+
+    static final char ESCAPE_CHAR = '\\';
+
+    private BirdSpecifications() {
+    }
+
+    /**
+     * Builds the combined specification for the bird search filters
+     *
+     * @return Specification containing only the predicates for the provided filters
+     */
+    public static Specification<BirdEntity> withFilters(String name, String color, Double weightMin, Double weightMax,
+                                                        Double heightMin, Double heightMax) {
+        return Specification.where(nameContains(name))
+                .and(colorContains(color))
+                .and(weightBetween(weightMin, weightMax))
+                .and(heightBetween(heightMin, heightMax));
+    }
+
+    public static Specification<BirdEntity> nameContains(String name) {
+        if (name == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), containsPattern(name), ESCAPE_CHAR);
+    }
+
+    public static Specification<BirdEntity> colorContains(String color) {
+        if (color == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(cb.lower(root.get("color")), containsPattern(color), ESCAPE_CHAR);
+    }
+
+    public static Specification<BirdEntity> weightBetween(Double min, Double max) {
+        return rangeOn("weight", min, max);
+    }
+
+    public static Specification<BirdEntity> heightBetween(Double min, Double max) {
+        return rangeOn("height", min, max);
+    }
+
+    // Compare the raw column against the bounds so the predicate stays sargable for a B-tree index
+    private static Specification<BirdEntity> rangeOn(String attribute, Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (min != null && max != null) {
+                return cb.between(root.get(attribute), min, max);
+            }
+            if (min != null) {
+                return cb.greaterThanOrEqualTo(root.get(attribute), min);
+            }
+            return cb.lessThanOrEqualTo(root.get(attribute), max);
+        };
+    }
+
+    /**
+     * The LIKE pattern of the name, color, location and bird name filters, also used by the R2DBC queries
+     */
+    public static String containsPattern(String value) {
+        return "%" + escapeLike(value.toLowerCase()) + "%";
+    }
+
+    // Escape LIKE wildcards so user input is matched literally
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,78 @@
+package com.spirent.itest_backend.repository.specification;
+
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset (seek) predicates used for cursor pagination.
+ * Rows are ordered by (sort attribute, id); the next slice starts strictly after the last row seen,
+ * which lets the database seek into an index instead of skipping OFFSET rows.
+ */
+public final class KeysetSpecifications {
+
+    private KeysetSpecifications() {
+    }
+
+    /**
+     * Builds the predicate (attr > value) OR (attr = value AND id > lastId), with the comparisons
+     * reversed for descending order
+     *
+     * @param attributePath Dotted entity attribute path of the sort key, e.g. "bird.name"
+     * @param direction Sort direction of the walk
+     * @param lastValue Sort value of the last row returned, as encoded in the cursor
+     * @param lastId Id of the last row returned
+     * @return Specification selecting the rows after the cursor
+     */
+    public static <T> Specification<T> after(String attributePath, Sort.Direction direction, String lastValue, Long lastId) {
+        return (root, query, cb) -> {
+            Path<Comparable<Object>> attribute = resolve(root, attributePath);
+            Comparable<Object> value = convert(lastValue, attribute.getJavaType());
+            Path<Long> id = root.get("id");
+
+            Predicate beyondValue = direction.isAscending()
+                    ? cb.greaterThan(attribute, value)
+                    : cb.lessThan(attribute, value);
+            Predicate sameValueBeyondId = cb.and(cb.equal(attribute, value),
+                    direction.isAscending() ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId));
+            // The redundant inclusive bound gives the planner an index range condition, it cannot derive one from the OR
+            Predicate bound = direction.isAscending()
+                    ? cb.greaterThanOrEqualTo(attribute, value)
+                    : cb.lessThanOrEqualTo(attribute, value);
+            return cb.and(bound, cb.or(beyondValue, sameValueBeyondId));
+        };
+    }
+
+    private static Path<Comparable<Object>> resolve(From<?, ?> root, String attributePath) {
+        String[] segments = attributePath.split("\\.");
+        From<?, ?> from = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            from = from.join(segments[i]);
+        }
+        return from.get(segments[segments.length - 1]);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable<Object> convert(String value, Class<?> type) {
+        try {
+            if (Double.class.equals(type)) {
+                return (Comparable) Double.valueOf(value);
+            }
+            if (Long.class.equals(type)) {
+                return (Comparable) Long.valueOf(value);
+            }
+            if (OffsetDateTime.class.equals(type)) {
+                return (Comparable) OffsetDateTime.parse(value);
+            }
+            return (Comparable) value;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new InvalidRequestException("Malformed cursor value: " + value);
+        }
+    }
+}
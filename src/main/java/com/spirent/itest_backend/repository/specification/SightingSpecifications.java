@@ -0,0 +1,173 @@
+package com.spirent.itest_backend.repository.specification;
+
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.utils.Geohash;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static com.spirent.itest_backend.repository.specification.BirdSpecifications.ESCAPE_CHAR;
+import static com.spirent.itest_backend.repository.specification.BirdSpecifications.containsPattern;
+
+/**
+ * Composable JPA specifications for filtering sightings.
+ * Every factory method returns null when its arguments are null, so any subset of filters
+ * can be combined and absent filters are simply skipped.
+ * The location and bird name filters are rendered as lower(column) LIKE '%term%' so they match the pg_trgm
+ * expression indexes defined in schema.sql.
+ * The bounding box and radius filters first prune by geohash cell with range scans on idx_sightings_geohash, then
+ * refine exactly on the latitude and longitude columns.
+ */
+public final class SightingSpecifications {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private SightingSpecifications() {
+    }
+
+    /**
+     * Builds the combined specification for the sighting search filters
+     *
+     * @return Specification containing only the predicates for the provided filters
+     */
+    public static Specification<SightingEntity> withFilters(Long birdId, String birdName, String location,
+                                                            OffsetDateTime startDateTime, OffsetDateTime endDateTime) {
+        return Specification.where(birdIdEquals(birdId))
+                .and(dateTimeBetween(startDateTime, endDateTime))
+                .and(birdNameContains(birdName))
+                .and(locationContains(location));
+    }
+
+    // Compares the bird_id foreign key column directly, no join with birds.birds is needed
+    public static Specification<SightingEntity> birdIdEquals(Long birdId) {
+        if (birdId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("bird").get("id"), birdId);
+    }
+
+    public static Specification<SightingEntity> birdNameContains(String birdName) {
+        if (birdName == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Join<SightingEntity, BirdEntity> bird = root.join("bird");
+            return cb.like(cb.lower(bird.get("name")), containsPattern(birdName), ESCAPE_CHAR);
+        };
+    }
+
+    public static Specification<SightingEntity> locationContains(String location) {
+        if (location == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(cb.lower(root.get("location")), containsPattern(location), ESCAPE_CHAR);
+    }
+
+    /**
+     * Restricts date_time to the given interval; either bound may be null for an open-ended range.
+     * The raw column is compared so the planner can use a range scan on the date_time indexes.
+     */
+    public static Specification<SightingEntity> dateTimeBetween(OffsetDateTime start, OffsetDateTime end) {
+        if (start == null && end == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (start != null && end != null) {
+                return cb.between(root.get("dateTime"), start, end);
+            }
+            if (start != null) {
+                return cb.greaterThanOrEqualTo(root.get("dateTime"), start);
+            }
+            return cb.lessThanOrEqualTo(root.get("dateTime"), end);
+        };
+    }
+
+    /**
+     * Restricts sightings to the box, bounds inclusive. Sightings without coordinates never match.
+     * The box must not cross the antimeridian, minLon is expected to be less than or equal to maxLon.
+     */
+    public static Specification<SightingEntity> withinBoundingBox(double minLat, double minLon,
+                                                                  double maxLat, double maxLon) {
+        Set<String> cells = Geohash.cover(minLat, minLon, maxLat, maxLon);
+        return (root, query, cb) -> cb.and(
+                inCells(root, cb, cells),
+                cb.between(root.get("latitude"), minLat, maxLat),
+                cb.between(root.get("longitude"), minLon, maxLon));
+    }
+
+    /**
+     * Restricts sightings to those within radiusKm great-circle distance of the point.
+     * Cells are taken from the box around the circle, split in two where it crosses the antimeridian, and the
+     * distance is checked with the spherical law of cosines.
+     */
+    public static Specification<SightingEntity> withinRadius(double latitude, double longitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double minLat = Math.max(-90, latitude - Math.toDegrees(angle));
+        double maxLat = Math.min(90, latitude + Math.toDegrees(angle));
+        Set<String> cells = cellsWithinRadius(latitude, longitude, radiusKm);
+
+        double sinLat = Math.sin(Math.toRadians(latitude));
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        return (root, query, cb) -> {
+            Expression<Double> rowLat = cb.function("radians", Double.class, root.get("latitude"));
+            Expression<Double> rowLon = cb.function("radians", Double.class, root.get("longitude"));
+            // sin(lat1) * sin(lat2) + cos(lat1) * cos(lat2) * cos(lon2 - lon1) >= cos(radiusKm / R)
+            Expression<Double> cosDistance = cb.sum(
+                    cb.prod(cb.function("sin", Double.class, rowLat), sinLat),
+                    cb.prod(cb.prod(cb.function("cos", Double.class, rowLat), cosLat),
+                            cb.function("cos", Double.class, cb.diff(rowLon, Math.toRadians(longitude)))));
+            return cb.and(
+                    inCells(root, cb, cells),
+                    cb.between(root.get("latitude"), minLat, maxLat),
+                    cb.greaterThanOrEqualTo(cosDistance, Math.cos(angle)));
+        };
+    }
+
+    /**
+     * Geohash cells covering the box around the circle, split in two where it crosses the antimeridian
+     */
+    public static Set<String> cellsWithinRadius(double latitude, double longitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double minLat = Math.max(-90, latitude - Math.toDegrees(angle));
+        double maxLat = Math.min(90, latitude + Math.toDegrees(angle));
+
+        Set<String> cells = new LinkedHashSet<>();
+        double sinAngleOverCosLat = Math.sin(angle) / Math.cos(Math.toRadians(latitude));
+        if (minLat == -90 || maxLat == 90 || sinAngleOverCosLat >= 1) {
+            // The circle reaches a pole, every longitude is in range
+            cells.addAll(Geohash.cover(minLat, -180, maxLat, 180));
+        } else {
+            double deltaLon = Math.toDegrees(Math.asin(sinAngleOverCosLat));
+            double minLon = longitude - deltaLon;
+            double maxLon = longitude + deltaLon;
+            if (minLon < -180) {
+                cells.addAll(Geohash.cover(minLat, minLon + 360, maxLat, 180));
+                cells.addAll(Geohash.cover(minLat, -180, maxLat, maxLon));
+            } else if (maxLon > 180) {
+                cells.addAll(Geohash.cover(minLat, minLon, maxLat, 180));
+                cells.addAll(Geohash.cover(minLat, -180, maxLat, maxLon - 360));
+            } else {
+                cells.addAll(Geohash.cover(minLat, minLon, maxLat, maxLon));
+            }
+        }
+        return cells;
+    }
+
+    // One geohash range per cell, the column uses the "C" collation so the ranges follow byte order
+    private static Predicate inCells(Root<SightingEntity> root, CriteriaBuilder cb, Set<String> cells) {
+        Expression<String> geohash = root.get("geohash");
+        return cb.or(cells.stream()
+                .map(cell -> cb.and(
+                        cb.greaterThanOrEqualTo(geohash, cell),
+                        cb.lessThan(geohash, Geohash.prefixUpperBound(cell))))
+                .toArray(Predicate[]::new));
+    }
+}
@@ -0,0 +1,22 @@
+package com.spirent.itest_backend.repository.support;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Specification queries that return a {@link Slice} and therefore never issue a count query.
+ */
+@NoRepositoryBean
+public interface SliceSpecificationExecutor<T> {
+
+    /**
+     * Fetches one row more than the page size to find out whether a next slice exists
+     *
+     * @param spec The filter specification, may be null
+     * @param pageable The requested offset, size and sort
+     * @return Slice with at most pageable.getPageSize() elements
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable);
+}
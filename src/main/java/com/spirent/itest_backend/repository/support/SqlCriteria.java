@@ -0,0 +1,68 @@
+package com.spirent.itest_backend.repository.support;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WHERE clause assembled from optional predicates for the R2DBC repositories, the SQL counterpart of chaining
+ * specifications. Values are never inlined, {@link #bind} hands out a named parameter for each one.
+ */
+public final class SqlCriteria {
+
+    private final List<String> predicates = new ArrayList<>();
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    /**
+     * Registers a value and returns the placeholder to use for it in a predicate
+     *
+     * @param value The value, must not be null
+     * @return A named parameter such as :p0
+     */
+    public String bind(Object value) {
+        String name = "p" + values.size();
+        values.put(name, value);
+        return ":" + name;
+    }
+
+    public SqlCriteria and(String predicate) {
+        predicates.add("(" + predicate + ")");
+        return this;
+    }
+
+    /**
+     * Adds the keyset predicate (column > value) OR (column = value AND id > lastId), with the comparisons reversed
+     * for descending order, as KeysetSpecifications does for JPA
+     *
+     * @param column The sort column
+     * @param idColumn The id column that breaks ties
+     * @param ascending Direction of the walk
+     * @param lastValue Sort value of the last row returned, converted to the column type
+     * @param lastId Id of the last row returned
+     */
+    public SqlCriteria andAfter(String column, String idColumn, boolean ascending, Object lastValue, Long lastId) {
+        String value = bind(lastValue);
+        String id = bind(lastId);
+        String beyond = ascending ? " > " : " < ";
+        // The redundant inclusive bound gives the planner an index range condition, it cannot derive one from the OR
+        return and(column + (ascending ? " >= " : " <= ") + value
+                + " AND (" + column + beyond + value + " OR (" + column + " = " + value + " AND " + idColumn + beyond + id + "))");
+    }
+
+    /**
+     * @return " WHERE " followed by the predicates joined with AND, or an empty string when there are none
+     */
+    public String where() {
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+
+    public DatabaseClient.GenericExecuteSpec bindTo(DatabaseClient.GenericExecuteSpec spec) {
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,23 @@
+package com.spirent.itest_backend.repository.support;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conversions for the TIMESTAMP (without time zone) columns read and written through R2DBC. Hibernate stores an
+ * OffsetDateTime as the local time of the JVM default zone, these do the same so both stacks see the same instants.
+ */
+public final class Timestamps {
+
+    private Timestamps() {
+    }
+
+    public static LocalDateTime toColumn(OffsetDateTime value) {
+        return value.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    public static OffsetDateTime fromColumn(LocalDateTime value) {
+        return value == null ? null : value.atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+}
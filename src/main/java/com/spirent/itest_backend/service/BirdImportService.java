@@ -0,0 +1,205 @@
+package com.spirent.itest_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.spirent.birdwatch.model.BirdBatchItemResult;
+import com.spirent.birdwatch.model.BirdBatchResult;
+import com.spirent.birdwatch.model.BirdRequest;
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.repository.BirdRepository;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.utils.BirdMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of birds from a JSON array, CBOR array or NDJSON body.
+ * Items are validated one by one; the valid ones are persisted in one transaction and flushed every
+ * hibernate.jdbc.batch_size entities so Hibernate sends them as JDBC batches.
+ */
+@Service
+public class BirdImportService {
+
+    private static final Logger logger = LogManager.getLogger(BirdImportService.class);
+    private final BirdRepository birdRepository;
+    private final BirdMapper birdMapper;
+    private final ObjectMapper objectMapper;
+    // CBOR bodies are read by the JSON mapper from a CBOR parser, the items are bound the same way
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public BirdImportService(BirdRepository birdRepository, BirdMapper birdMapper, ObjectMapper objectMapper,
+                             Validator validator, EntityManager entityManager,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.birdRepository = birdRepository;
+        this.birdMapper = birdMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public BirdBatchResult importBirds(byte[] body) {
+        List<JsonNode> items = readItems(body);
+        logger.info("Importing {} birds", items.size());
+
+        List<BirdBatchItemResult> results = new ArrayList<>(items.size());
+        List<BirdEntity> pending = new ArrayList<>(batchSize);
+        List<BirdBatchItemResult> pendingResults = new ArrayList<>(batchSize);
+        Set<String> names = new HashSet<>();
+
+        for (int index = 0; index < items.size(); index++) {
+            BirdBatchItemResult itemResult = new BirdBatchItemResult();
+            itemResult.setIndex(index);
+            results.add(itemResult);
+
+            List<String> errors = new ArrayList<>();
+            BirdRequest birdRequest = toBirdRequest(items.get(index), errors);
+            if (birdRequest != null) {
+                errors.addAll(validate(birdRequest));
+                if (errors.isEmpty() && !names.add(birdRequest.getName())) {
+                    errors.add("name: duplicates the name of an earlier item");
+                }
+            }
+            if (!errors.isEmpty()) {
+                itemResult.setStatus(BirdBatchItemResult.StatusEnum.FAILED);
+                itemResult.setErrors(errors);
+                continue;
+            }
+
+            pending.add(birdMapper.birdRequestToEntity(birdRequest));
+            pendingResults.add(itemResult);
+            if (pending.size() == batchSize) {
+                flush(pending, pendingResults);
+            }
+        }
+        flush(pending, pendingResults);
+
+        BirdBatchResult result = new BirdBatchResult();
+        result.setItems(results);
+        result.setCreated((int) results.stream().filter(r -> r.getStatus() == BirdBatchItemResult.StatusEnum.CREATED).count());
+        result.setFailed(results.size() - result.getCreated());
+        logger.info("Imported {} birds, {} items failed", result.getCreated(), result.getFailed());
+        return result;
+    }
+
+    // Sends the pending inserts as one JDBC batch and detaches them so the persistence context stays small.
+    // Names already taken are reported as failed items, one unique violation would otherwise abort the whole import
+    private void flush(List<BirdEntity> pending, List<BirdBatchItemResult> pendingResults) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<String> existingNames = new HashSet<>(birdRepository.findExistingNames(
+                pending.stream().map(BirdEntity::getName).collect(Collectors.toList())));
+        for (int i = pending.size() - 1; i >= 0 && !existingNames.isEmpty(); i--) {
+            if (existingNames.contains(pending.get(i).getName())) {
+                pendingResults.get(i).setStatus(BirdBatchItemResult.StatusEnum.FAILED);
+                pendingResults.get(i).setErrors(List.of("name: a bird with this name already exists"));
+                pending.remove(i);
+                pendingResults.remove(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<BirdEntity> saved = birdRepository.saveAll(pending);
+        entityManager.flush();
+        entityManager.clear();
+
+        for (int i = 0; i < saved.size(); i++) {
+            pendingResults.get(i).setStatus(BirdBatchItemResult.StatusEnum.CREATED);
+            pendingResults.get(i).setId(saved.get(i).getId());
+        }
+        pending.clear();
+        pendingResults.clear();
+    }
+
+    // A body starting with '[' is a JSON array, one starting with the head of a CBOR array (major type 4, which no
+    // UTF-8 text starts with) a CBOR array, anything else is read as NDJSON with one item per non-blank line
+    private List<JsonNode> readItems(byte[] body) {
+        if (body != null && body.length > 0 && (body[0] & 0xE0) == 0x80) {
+            try {
+                JsonNode array = objectMapper.readTree(cborFactory.createParser(body));
+                List<JsonNode> items = new ArrayList<>(array.size());
+                array.forEach(items::add);
+                return items;
+            } catch (IOException e) {
+                throw new InvalidRequestException("Batch body is not a valid CBOR array: " + e.getMessage());
+            }
+        }
+
+        String trimmed = body == null ? "" : new String(body, StandardCharsets.UTF_8).trim();
+        if (trimmed.isEmpty()) {
+            throw new InvalidRequestException("Batch body must not be empty");
+        }
+
+        if (trimmed.startsWith("[")) {
+            try {
+                JsonNode array = objectMapper.readTree(trimmed);
+                List<JsonNode> items = new ArrayList<>(array.size());
+                array.forEach(items::add);
+                return items;
+            } catch (JsonProcessingException e) {
+                throw new InvalidRequestException("Batch body is not a valid JSON array: " + e.getOriginalMessage());
+            }
+        }
+
+        List<JsonNode> items = new ArrayList<>();
+        for (String line : trimmed.split("\\r?\\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                items.add(objectMapper.readTree(line));
+            } catch (JsonProcessingException e) {
+                // Keep the position of the malformed line so it is reported as a failed item
+                items.add(objectMapper.getNodeFactory().textNode(line));
+            }
+        }
+        return items;
+    }
+
+    private BirdRequest toBirdRequest(JsonNode item, List<String> errors) {
+        if (!item.isObject()) {
+            errors.add("Item is not a JSON object");
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(item, BirdRequest.class);
+        } catch (JsonProcessingException e) {
+            errors.add(e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private List<String> validate(BirdRequest birdRequest) {
+        Set<ConstraintViolation<BirdRequest>> violations = validator.validate(birdRequest);
+        if (violations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -4,21 +4,42 @@ import com.spirent.birdwatch.model.Bird;
 import com.spirent.birdwatch.model.BirdRequest;
 import com.spirent.birdwatch.model.PaginatedBirds;
 import com.spirent.birdwatch.model.UpdateBirdRequest;
+import com.spirent.itest_backend.cache.BirdCache;
+import com.spirent.itest_backend.cache.CountCache;
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.exception.ResourceConflictException;
 import com.spirent.itest_backend.exception.ResourceNotFoundException;
 import com.spirent.itest_backend.repository.BirdRepository;
+import com.spirent.itest_backend.repository.SightingRepository;
 import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.specification.BirdSpecifications;
+import com.spirent.itest_backend.repository.specification.KeysetSpecifications;
 import com.spirent.itest_backend.utils.BirdMapper;
+import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import com.spirent.itest_backend.utils.EntityVersion;
+import com.spirent.itest_backend.utils.KeysetCursor;
 import com.spirent.itest_backend.utils.PaginationMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,94 +47,137 @@ public class BirdService {
 
     private static final Logger logger = LogManager.getLogger(BirdService.class);
     private final BirdRepository birdRepository;
+    private final SightingRepository sightingRepository;
+    private final BirdCache birdCache;
+    private final CountCache countCache;
     private final BirdMapper birdMapper;
+    private final BirdSightingsMapper birdSightingsMapper;
     private final PaginationMapper paginationMapper;
 
-    public BirdService(BirdRepository birdRepository, BirdMapper birdMapper, PaginationMapper paginationMapper) {
+    public BirdService(BirdRepository birdRepository, SightingRepository sightingRepository, BirdCache birdCache,
+                       CountCache countCache, BirdMapper birdMapper, BirdSightingsMapper birdSightingsMapper, PaginationMapper paginationMapper) {
         this.birdRepository = birdRepository;
+        this.sightingRepository = sightingRepository;
+        this.birdCache = birdCache;
+        this.countCache = countCache;
         this.birdMapper = birdMapper;
+        this.birdSightingsMapper = birdSightingsMapper;
         this.paginationMapper = paginationMapper;
     }
 
-    public PaginatedBirds findBirdsWithFilters(String name, String color, Double weightMin, Double weightMax, 
+    /**
+     * @param notModified Given the version of the page before it is mapped, true skips the mapping
+     * @return The page, empty if notModified accepted its version
+     */
+    public Optional<PaginatedBirds> findBirdsWithFilters(String name, String color, Double weightMin, Double weightMax, 
                                              Double heightMin, Double heightMax, Integer page, Integer size, 
-                                             String sort, String direction) {
-        logger.info("Finding birds with filters - name: {}, color: {}, weightMin: {}, weightMax: {}, heightMin: {}, heightMax: {}, page: {}, size: {}, sort: {}, direction: {}", 
-                   name, color, weightMin, weightMax, heightMin, heightMax, page, size, sort, direction);
+                                             String sort, String direction, String after, String total,
+                                             String expand, Integer sightingsLimit, Predicate<EntityVersion> notModified) {
+        logger.info("Finding birds with filters - name: {}, color: {}, weightMin: {}, weightMax: {}, heightMin: {}, heightMax: {}, page: {}, size: {}, sort: {}, direction: {}, after: {}, total: {}, expand: {}, sightingsLimit: {}", 
+                   name, color, weightMin, weightMax, heightMin, heightMax, page, size, sort, direction, after, total, expand, sightingsLimit);
         
         // Set default values
         int pageNumber = (page != null) ? page : 0;
         int pageSize = (size != null) ? size : 20;
         String sortField = (sort != null) ? sort : "name";
         String sortDirection = (direction != null) ? direction : "asc";
+        String totalMode = (total != null) ? total : "exact";
         
-        // Create sort object
+        // Create sort object, id breaks ties so that the order is stable for cursor pagination
         Sort.Direction sortDir = sortDirection.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Sort sortObj = Sort.by(sortDir, sortField);
+        Sort sortObj = Sort.by(sortDir, sortField).and(Sort.by(sortDir, "id"));
         
-        // Create pageable object
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortObj);
+        // Push every filter down to the database so paging and totals are computed on the filtered set
+        Specification<BirdEntity> specification = BirdSpecifications.withFilters(name, color, weightMin, weightMax, heightMin, heightMax);
         
-        // Execute query based on filters
-        Page<BirdEntity> birdPage;
+        Slice<BirdEntity> birdSlice;
+        Long estimatedTotal = null;
+        if (after != null) {
+            // Keyset mode: seek past the cursor, no offset and no count query
+            KeysetCursor cursor = KeysetCursor.decode(after, sortField, sortDirection);
+            specification = specification.and(KeysetSpecifications.after(sortField, sortDir, cursor.getLastValue(), cursor.getLastId()));
+            birdSlice = birdRepository.findSlice(specification, PageRequest.of(0, pageSize, sortObj));
+        } else if ("exact".equals(totalMode)) {
+            birdSlice = birdRepository.findAll(specification, PageRequest.of(pageNumber, pageSize, sortObj));
+        } else {
+            // Offset page without the count query, totals are estimated or left out
+            birdSlice = birdRepository.findSlice(specification, PageRequest.of(pageNumber, pageSize, sortObj));
+            if ("estimate".equals(totalMode)) {
+                boolean unfiltered = name == null && color == null && weightMin == null && weightMax == null
+                        && heightMin == null && heightMax == null;
+                List<?> filters = Arrays.asList("birds", name, color, weightMin, weightMax, heightMin, heightMax);
+                estimatedTotal = estimateTotal(unfiltered, filters, specification);
+            }
+        }
+        
+        List<SightingEntity> sightings = "sightings".equals(expand)
+                ? recentSightings(birdSlice.getContent().stream().map(BirdEntity::getId).collect(Collectors.toList()), sightingsLimit)
+                : List.of();
+        
+        // Everything the page shows besides the birds and sightings follows from the request and these values
+        EntityVersion.Builder version = EntityVersion.builder().withoutLastModified()
+                .add(birdSlice instanceof Page ? Long.valueOf(((Page<?>) birdSlice).getTotalElements()) : estimatedTotal)
+                .add(birdSlice.hasNext());
+        birdSlice.forEach(birdEntity -> version.add(birdEntity.getId(), birdEntity.getCreatedAt(), birdEntity.getUpdatedAt()));
+        sightings.forEach(sightingEntity -> version.add(sightingEntity.getId(), sightingEntity.getCreatedAt(), sightingEntity.getUpdatedAt()));
+        if (notModified.test(version.build())) {
+            logger.info("Birds not modified, {} birds", birdSlice.getNumberOfElements());
+            return Optional.empty();
+        }
         
-        if (name != null && color != null) {
-            birdPage = birdRepository.findByNameContainingIgnoreCaseAndColorContainingIgnoreCase(name, color, pageable);
-        } else if (name != null) {
-            birdPage = birdRepository.findByNameContainingIgnoreCase(name, pageable);
-        } else if (color != null) {
-            birdPage = birdRepository.findByColorContainingIgnoreCase(color, pageable);
+        PaginatedBirds result;
+        if (birdSlice instanceof Page) {
+            result = paginationMapper.mapToPaginatedBirds((Page<BirdEntity>) birdSlice, birdMapper::entityToBird);
         } else {
-            birdPage = birdRepository.findAll(pageable);
-        }
-        
-        // Apply weight and height filters if provided
-        if (weightMin != null || weightMax != null || heightMin != null || heightMax != null) {
-            List<BirdEntity> filteredBirds = birdPage.getContent().stream()
-                    .filter(bird -> {
-                        boolean weightMatch = true;
-                        boolean heightMatch = true;
-                        
-                        if (weightMin != null && bird.getWeight() < weightMin) {
-                            weightMatch = false;
-                        }
-                        if (weightMax != null && bird.getWeight() > weightMax) {
-                            weightMatch = false;
-                        }
-                        if (heightMin != null && bird.getHeight() < heightMin) {
-                            heightMatch = false;
-                        }
-                        if (heightMax != null && bird.getHeight() > heightMax) {
-                            heightMatch = false;
-                        }
-                        
-                        return weightMatch && heightMatch;
-                    })
-                    .collect(Collectors.toList());
-            
-            // Create a custom page with filtered results
-            Page<BirdEntity> customPage = new org.springframework.data.domain.PageImpl<>(
-                    filteredBirds, pageable, filteredBirds.size());
-            birdPage = customPage;
-        }
-        
-        // Convert to DTOs and create paginated response
-        PaginatedBirds result = paginationMapper.mapToPaginatedBirds(birdPage, birdMapper::entityToBird);
-        logger.info("Found {} birds out of {} total", result.getContent().size(), birdPage.getTotalElements());
-        return result;
+            result = paginationMapper.mapToPaginatedBirds(birdSlice, birdMapper::entityToBird);
+        }
+        if (after != null) {
+            result.setPage(null);
+            result.setFirst(false);
+        } else if (estimatedTotal != null) {
+            paginationMapper.applyEstimatedTotal(result, birdSlice, estimatedTotal);
+        }
+        
+        if ("sightings".equals(expand)) {
+            attachSightings(result.getContent(), sightings);
+        }
+        
+        if (birdSlice.hasNext()) {
+            BirdEntity last = birdSlice.getContent().get(birdSlice.getNumberOfElements() - 1);
+            result.setNextCursor(new KeysetCursor(sortField, sortDirection, last.getId(), sortValue(last, sortField)).encode());
+        }
+        
+        logger.info("Found {} birds, has next: {}", result.getContent().size(), birdSlice.hasNext());
+        return Optional.of(result);
     }
 
-    public Bird getBirdById(Long id) {
-        BirdEntity birdEntity = birdRepository.findById(id)
+    /**
+     * @param notModified Given the version of the bird before its sightings are mapped, true skips the mapping
+     * @return The bird, empty if notModified accepted its version
+     */
+    public Optional<Bird> getBirdById(Long id, String expand, Integer sightingsLimit, Predicate<EntityVersion> notModified) {
+        Bird bird = birdCache.get(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Bird not found with id: " + id));
-
-        return birdMapper.entityToBird(birdEntity);
+        
+        List<SightingEntity> sightings = "sightings".equals(expand) ? recentSightings(List.of(id), sightingsLimit) : List.of();
+        
+        EntityVersion.Builder version = EntityVersion.builder().add(bird.getId(), bird.getCreatedAt(), bird.getUpdatedAt());
+        sightings.forEach(sightingEntity -> version.add(sightingEntity.getId(), sightingEntity.getCreatedAt(), sightingEntity.getUpdatedAt()));
+        if (notModified.test(version.build())) {
+            return Optional.empty();
+        }
+        
+        if ("sightings".equals(expand)) {
+            attachSightings(List.of(bird), sightings);
+        }
+        return Optional.of(bird);
     }
 
     public Bird createBird(BirdRequest birdRequest) {
         logger.info("Creating bird with name: {}", birdRequest.getName());
         BirdEntity birdEntity = birdMapper.birdRequestToEntity(birdRequest);
-        BirdEntity saved = birdRepository.save(birdEntity);
+        BirdEntity saved = saveUniquelyNamed(birdEntity);
+        birdCache.put(saved);
         logger.info("Successfully created bird with ID: {}", saved.getId());
         return birdMapper.entityToBird(saved);
     }
@@ -146,23 +210,80 @@ public class BirdService {
         }
         
         // Save updated bird
-        BirdEntity updatedBird = birdRepository.save(existingBird);
+        BirdEntity updatedBird = saveUniquelyNamed(existingBird);
+        birdCache.put(updatedBird);
         logger.info("Successfully updated bird with ID: {}", updatedBird.getId());
         
         return birdMapper.entityToBird(updatedBird);
     }
 
+    // The name is the only unique column besides the id, uk_birds_name is what a violation here comes from
+    private BirdEntity saveUniquelyNamed(BirdEntity birdEntity) {
+        try {
+            return birdRepository.save(birdEntity);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceConflictException("A bird named '" + birdEntity.getName() + "' already exists");
+        }
+    }
+
     public void deleteBird(Long birdId) {
         logger.info("Deleting bird with ID: {}", birdId);
         
-        // Check if bird exists
-        if (!birdRepository.existsById(birdId)) {
+        // Delete the bird, the table rather than the cache says whether it exists: the cache may still hold a bird
+        // deleted behind its back
+        try {
+            birdRepository.deleteById(birdId);
+        } catch (EmptyResultDataAccessException e) {
+            birdCache.evict(birdId);
             logger.warn("Attempted to delete non-existent bird with ID: {}", birdId);
             throw new ResourceNotFoundException("Bird not found with id: " + birdId);
         }
-        
-        // Delete the bird
-        birdRepository.deleteById(birdId);
+        birdCache.evict(birdId);
         logger.info("Successfully deleted bird with ID: {}", birdId);
     }
-}
+
+    // Table statistics answer the unfiltered case for free, filtered counts are shared for a short while
+    private long estimateTotal(boolean unfiltered, List<?> filters, Specification<BirdEntity> specification) {
+        if (unfiltered) {
+            long estimate = birdRepository.estimateRowCount();
+            if (estimate > 0) {
+                return estimate;
+            }
+        }
+        return countCache.get(filters, () -> birdRepository.count(specification));
+    }
+
+    // The most recent sightings of all given birds with a single query instead of one lazy load per bird
+    private List<SightingEntity> recentSightings(Collection<Long> birdIds, Integer sightingsLimit) {
+        if (birdIds.isEmpty()) {
+            return List.of();
+        }
+        int limit = (sightingsLimit != null) ? sightingsLimit : 10;
+        return sightingRepository.findRecentByBirdIds(birdIds, limit);
+    }
+
+    private void attachSightings(List<Bird> birds, List<SightingEntity> sightings) {
+        Map<Long, Bird> birdsById = birds.stream()
+                .collect(Collectors.toMap(Bird::getId, bird -> bird, (first, second) -> first, LinkedHashMap::new));
+        birdsById.values().forEach(bird -> bird.setSightings(new ArrayList<>()));
+        sightings.forEach(sightingEntity ->
+                birdsById.get(sightingEntity.getBird().getId()).addSightingsItem(birdSightingsMapper.entityToSighting(sightingEntity)));
+    }
+
+    private static Object sortValue(BirdEntity birdEntity, String sortField) {
+        switch (sortField) {
+            case "name":
+                return birdEntity.getName();
+            case "color":
+                return birdEntity.getColor();
+            case "weight":
+                return birdEntity.getWeight();
+            case "height":
+                return birdEntity.getHeight();
+            case "createdAt":
+                return birdEntity.getCreatedAt();
+            default:
+                throw new InvalidRequestException("Unsupported sort field: " + sortField);
+        }
+    }
+}
\ No newline at end of file
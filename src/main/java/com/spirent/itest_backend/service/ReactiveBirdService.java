@@ -0,0 +1,213 @@
+package com.spirent.itest_backend.service;
+
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.itest_backend.cache.BirdCache;
+import com.spirent.itest_backend.cache.CountCache;
+import com.spirent.itest_backend.exception.ResourceNotFoundException;
+import com.spirent.itest_backend.repository.ReactiveBirdRepository;
+import com.spirent.itest_backend.repository.ReactiveSightingRepository;
+import com.spirent.itest_backend.repository.entity.BirdEntity;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.support.SqlCriteria;
+import com.spirent.itest_backend.utils.BirdMapper;
+import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import com.spirent.itest_backend.utils.EntityVersion;
+import com.spirent.itest_backend.utils.KeysetCursor;
+import com.spirent.itest_backend.utils.PageStream;
+import com.spirent.itest_backend.utils.PaginationMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking findBirds and getBirdById for the reactive profile, with the same defaults, filters, totals and
+ * cursors as {@link BirdService}.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBirdService {
+
+    private static final Logger logger = LogManager.getLogger(ReactiveBirdService.class);
+    private final ReactiveBirdRepository birdRepository;
+    private final ReactiveSightingRepository sightingRepository;
+    private final BirdCache birdCache;
+    private final CountCache countCache;
+    private final BirdMapper birdMapper;
+    private final BirdSightingsMapper birdSightingsMapper;
+    private final PaginationMapper paginationMapper;
+
+    public ReactiveBirdService(ReactiveBirdRepository birdRepository, ReactiveSightingRepository sightingRepository,
+                               BirdCache birdCache, CountCache countCache, BirdMapper birdMapper,
+                               BirdSightingsMapper birdSightingsMapper, PaginationMapper paginationMapper) {
+        this.birdRepository = birdRepository;
+        this.sightingRepository = sightingRepository;
+        this.birdCache = birdCache;
+        this.countCache = countCache;
+        this.birdMapper = birdMapper;
+        this.birdSightingsMapper = birdSightingsMapper;
+        this.paginationMapper = paginationMapper;
+    }
+
+    public PageStream<Bird, PaginatedBirds> findBirdsWithFilters(String name, String color, Double weightMin, Double weightMax,
+                                                                 Double heightMin, Double heightMax, Integer page, Integer size,
+                                                                 String sort, String direction, String after, String total,
+                                                                 String expand, Integer sightingsLimit) {
+        logger.info("Finding birds reactively with filters - name: {}, color: {}, weightMin: {}, weightMax: {}, heightMin: {}, heightMax: {}, page: {}, size: {}, sort: {}, direction: {}, after: {}, total: {}, expand: {}, sightingsLimit: {}",
+                   name, color, weightMin, weightMax, heightMin, heightMax, page, size, sort, direction, after, total, expand, sightingsLimit);
+
+        // Set default values
+        int pageNumber = (page != null) ? page : 0;
+        int pageSize = (size != null) ? size : 20;
+        String sortField = (sort != null) ? sort : "name";
+        String sortDirection = (direction != null) ? direction : "asc";
+        String totalMode = (total != null) ? total : "exact";
+        boolean ascending = !sortDirection.equalsIgnoreCase("desc");
+
+        SqlCriteria criteria = ReactiveBirdRepository.withFilters(name, color, weightMin, weightMax, heightMin, heightMax);
+        boolean keyset = after != null;
+        if (keyset) {
+            // Keyset mode: seek past the cursor, no offset and no count query
+            KeysetCursor cursor = KeysetCursor.decode(after, sortField, sortDirection);
+            ReactiveBirdRepository.after(criteria, sortField, ascending, cursor.getLastValue(), cursor.getLastId());
+        }
+        PageRequest pageRequest = PageRequest.of(keyset ? 0 : pageNumber, pageSize);
+
+        PageStream<Bird, PaginatedBirds> result = PageStream.of(
+                birdRepository.find(criteria, sortField, ascending, pageRequest.getOffset(), pageSize + 1),
+                pageSize, birdMapper::entityToBird,
+                (numberOfElements, hasNext, last) -> {
+                    // The content has been written already, the slice only carries its size
+                    Slice<Object> slice = new SliceImpl<>(Collections.nCopies(numberOfElements, null), pageRequest, hasNext);
+                    Mono<PaginatedBirds> paginatedBirds;
+                    if (keyset) {
+                        PaginatedBirds keysetBirds = paginationMapper.mapToPaginatedBirds(slice, element -> null);
+                        keysetBirds.setPage(null);
+                        keysetBirds.setFirst(false);
+                        paginatedBirds = Mono.just(keysetBirds);
+                    } else if ("exact".equals(totalMode)) {
+                        paginatedBirds = exactTotal(criteria, pageRequest, numberOfElements, hasNext)
+                                .map(exactTotal -> paginationMapper.mapToPaginatedBirds(
+                                        new PageImpl<>(slice.getContent(), pageRequest, exactTotal), element -> null));
+                    } else if ("estimate".equals(totalMode)) {
+                        boolean unfiltered = name == null && color == null && weightMin == null && weightMax == null
+                                && heightMin == null && heightMax == null;
+                        List<?> filters = Arrays.asList("birds", name, color, weightMin, weightMax, heightMin, heightMax);
+                        paginatedBirds = estimateTotal(unfiltered, filters, criteria).map(estimate -> {
+                            PaginatedBirds estimatedBirds = paginationMapper.mapToPaginatedBirds(slice, element -> null);
+                            paginationMapper.applyEstimatedTotal(estimatedBirds, slice, estimate);
+                            return estimatedBirds;
+                        });
+                    } else {
+                        paginatedBirds = Mono.just(paginationMapper.mapToPaginatedBirds(slice, element -> null));
+                    }
+                    return paginatedBirds.map(metadata -> {
+                        metadata.setContent(null);
+                        if (hasNext) {
+                            metadata.setNextCursor(new KeysetCursor(sortField, sortDirection, last.getId(),
+                                    sortValue(last, sortField)).encode());
+                        }
+                        logger.info("Found {} birds, has next: {}", numberOfElements, hasNext);
+                        return metadata;
+                    });
+                });
+
+        if ("sightings".equals(expand)) {
+            return result.withContent(birds -> withSightings(birds, sightingsLimit));
+        }
+        return result;
+    }
+
+    /**
+     * @param notModified Given the version of the bird before its sightings are mapped, true skips the mapping
+     * @return The bird, empty if notModified accepted its version
+     */
+    public Mono<Bird> getBirdById(Long id, String expand, Integer sightingsLimit, Predicate<EntityVersion> notModified) {
+        Mono<Bird> bird = Mono.defer(() -> Mono.justOrEmpty(birdCache.getIfPresent(id)))
+                .switchIfEmpty(birdRepository.findById(id)
+                        .doOnNext(birdCache::putIfAbsent)
+                        .map(birdMapper::entityToBird))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Bird not found with id: " + id)));
+
+        boolean withSightings = "sightings".equals(expand);
+        return bird.flatMap(found -> (withSightings
+                ? sightingRepository.findRecentByBirdIds(List.of(id), (sightingsLimit != null) ? sightingsLimit : 10).collectList()
+                : Mono.just(List.<SightingEntity>of()))
+                .flatMap(sightings -> {
+                    EntityVersion.Builder version = EntityVersion.builder().add(found.getId(), found.getCreatedAt(), found.getUpdatedAt());
+                    sightings.forEach(sightingEntity -> version.add(sightingEntity.getId(), sightingEntity.getCreatedAt(), sightingEntity.getUpdatedAt()));
+                    if (notModified.test(version.build())) {
+                        return Mono.empty();
+                    }
+                    if (withSightings) {
+                        found.setSightings(sightings.stream().map(birdSightingsMapper::entityToSighting).collect(Collectors.toList()));
+                    }
+                    return Mono.just(found);
+                }));
+    }
+
+    // The count Spring Data skips as well, the last page tells the total by itself
+    private Mono<Long> exactTotal(SqlCriteria criteria, PageRequest pageRequest, int numberOfElements, boolean hasNext) {
+        if (!hasNext && (pageRequest.getOffset() == 0 || numberOfElements > 0)) {
+            return Mono.just(pageRequest.getOffset() + numberOfElements);
+        }
+        return birdRepository.count(criteria);
+    }
+
+    // Table statistics answer the unfiltered case for free, filtered counts are shared for a short while
+    private Mono<Long> estimateTotal(boolean unfiltered, List<?> filters, SqlCriteria criteria) {
+        Mono<Long> counted = countCache.get(filters, birdRepository.count(criteria));
+        if (!unfiltered) {
+            return counted;
+        }
+        return birdRepository.estimateRowCount().flatMap(estimate -> estimate > 0 ? Mono.just(estimate) : counted);
+    }
+
+    // The most recent sightings of the whole page come from one query, so the birds of the page are collected first
+    private Flux<Bird> withSightings(Flux<Bird> birds, Integer sightingsLimit) {
+        int limit = (sightingsLimit != null) ? sightingsLimit : 10;
+        return birds.collectList().flatMapMany(page -> {
+            if (page.isEmpty()) {
+                return Flux.empty();
+            }
+            Map<Long, Bird> birdsById = page.stream()
+                    .collect(Collectors.toMap(Bird::getId, bird -> bird, (first, second) -> first, LinkedHashMap::new));
+            birdsById.values().forEach(bird -> bird.setSightings(new ArrayList<>()));
+            return sightingRepository.findRecentByBirdIds(List.copyOf(birdsById.keySet()), limit)
+                    .doOnNext(sightingEntity -> birdsById.get(sightingEntity.getBird().getId())
+                            .addSightingsItem(birdSightingsMapper.entityToSighting(sightingEntity)))
+                    .thenMany(Flux.fromIterable(page));
+        });
+    }
+
+    private static Object sortValue(BirdEntity birdEntity, String sortField) {
+        switch (sortField) {
+            case "name":
+                return birdEntity.getName();
+            case "color":
+                return birdEntity.getColor();
+            case "weight":
+                return birdEntity.getWeight();
+            case "height":
+                return birdEntity.getHeight();
+            default:
+                return birdEntity.getCreatedAt();
+        }
+    }
+}
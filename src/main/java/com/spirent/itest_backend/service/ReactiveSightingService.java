@@ -0,0 +1,157 @@
+package com.spirent.itest_backend.service;
+
+import com.spirent.birdwatch.model.PaginatedSightings;
+import com.spirent.birdwatch.model.Sighting;
+import com.spirent.itest_backend.cache.CountCache;
+import com.spirent.itest_backend.repository.ReactiveSightingRepository;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.support.SqlCriteria;
+import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import com.spirent.itest_backend.utils.KeysetCursor;
+import com.spirent.itest_backend.utils.PageStream;
+import com.spirent.itest_backend.utils.PaginationMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Non-blocking findSightings for the reactive profile, with the same defaults, filters, totals and cursors as
+ * {@link SightingService}. Sightings are emitted as they are read.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSightingService {
+
+    private static final Logger logger = LogManager.getLogger(ReactiveSightingService.class);
+    private final ReactiveSightingRepository sightingRepository;
+    private final CountCache countCache;
+    private final BirdSightingsMapper birdSightingsMapper;
+    private final PaginationMapper paginationMapper;
+
+    public ReactiveSightingService(ReactiveSightingRepository sightingRepository, CountCache countCache,
+                                   BirdSightingsMapper birdSightingsMapper, PaginationMapper paginationMapper) {
+        this.sightingRepository = sightingRepository;
+        this.countCache = countCache;
+        this.birdSightingsMapper = birdSightingsMapper;
+        this.paginationMapper = paginationMapper;
+    }
+
+    public PageStream<Sighting, PaginatedSightings> findSightingsWithFilters(Long birdId, String birdName, String location,
+                                                                             OffsetDateTime startDateTime, OffsetDateTime endDateTime,
+                                                                             String bbox, String near, Double radiusKm,
+                                                                             Integer page, Integer size, String sort, String direction,
+                                                                             String after, String total) {
+        logger.info("Finding sightings reactively with filters - birdId: {}, birdName: {}, location: {}, startDateTime: {}, endDateTime: {}, bbox: {}, near: {}, radiusKm: {}, page: {}, size: {}, sort: {}, direction: {}, after: {}, total: {}",
+                   birdId, birdName, location, startDateTime, endDateTime, bbox, near, radiusKm, page, size, sort, direction, after, total);
+
+        // Set default values
+        int pageNumber = (page != null) ? page : 0;
+        int pageSize = (size != null) ? size : 20;
+        String sortField = (sort != null) ? sort : "dateTime";
+        String sortDirection = (direction != null) ? direction : "desc";
+        String totalMode = (total != null) ? total : "exact";
+        double radius = (radiusKm != null) ? radiusKm : SightingService.DEFAULT_RADIUS_KM;
+        boolean ascending = !sortDirection.equalsIgnoreCase("desc");
+
+        // Build a single query from whichever filters are present
+        SqlCriteria criteria = ReactiveSightingRepository.withFilters(birdId, birdName, location, startDateTime, endDateTime);
+        if (bbox != null) {
+            double[] box = SightingService.parseBoundingBox(bbox);
+            ReactiveSightingRepository.withinBoundingBox(criteria, box[1], box[0], box[3], box[2]);
+        }
+        if (near != null) {
+            double[] point = SightingService.parseNear(near);
+            ReactiveSightingRepository.withinRadius(criteria, point[0], point[1], radius);
+        }
+        boolean joinBird = birdName != null || "birdName".equals(sortField);
+        boolean keyset = after != null;
+        if (keyset) {
+            // Keyset mode: seek past the cursor, no offset and no count query
+            KeysetCursor cursor = KeysetCursor.decode(after, sortField, sortDirection);
+            ReactiveSightingRepository.after(criteria, sortField, ascending, cursor.getLastValue(), cursor.getLastId());
+        }
+        PageRequest pageRequest = PageRequest.of(keyset ? 0 : pageNumber, pageSize);
+
+        return PageStream.of(
+                sightingRepository.find(criteria, joinBird, sortField, ascending, pageRequest.getOffset(), pageSize + 1),
+                pageSize, birdSightingsMapper::entityToSighting,
+                (numberOfElements, hasNext, last) -> {
+                    // The content has been written already, the slice only carries its size
+                    Slice<Object> slice = new SliceImpl<>(Collections.nCopies(numberOfElements, null), pageRequest, hasNext);
+                    Mono<PaginatedSightings> paginatedSightings;
+                    if (keyset) {
+                        PaginatedSightings keysetSightings = paginationMapper.mapToPaginatedSightings(slice, element -> null);
+                        keysetSightings.setPage(null);
+                        keysetSightings.setFirst(false);
+                        paginatedSightings = Mono.just(keysetSightings);
+                    } else if ("exact".equals(totalMode)) {
+                        paginatedSightings = exactTotal(criteria, joinBird, pageRequest, numberOfElements, hasNext)
+                                .map(exactTotal -> paginationMapper.mapToPaginatedSightings(
+                                        new PageImpl<>(slice.getContent(), pageRequest, exactTotal), element -> null));
+                    } else if ("estimate".equals(totalMode)) {
+                        boolean unfiltered = birdId == null && birdName == null && location == null
+                                && startDateTime == null && endDateTime == null && bbox == null && near == null;
+                        List<?> filters = Arrays.asList("sightings", birdId, birdName, location, startDateTime, endDateTime,
+                                bbox, near, near != null ? radius : null);
+                        paginatedSightings = estimateTotal(unfiltered, filters, criteria, joinBird).map(estimate -> {
+                            PaginatedSightings estimatedSightings = paginationMapper.mapToPaginatedSightings(slice, element -> null);
+                            paginationMapper.applyEstimatedTotal(estimatedSightings, slice, estimate);
+                            return estimatedSightings;
+                        });
+                    } else {
+                        paginatedSightings = Mono.just(paginationMapper.mapToPaginatedSightings(slice, element -> null));
+                    }
+                    return paginatedSightings.map(metadata -> {
+                        metadata.setContent(null);
+                        if (hasNext) {
+                            metadata.setNextCursor(new KeysetCursor(sortField, sortDirection, last.getId(),
+                                    sortValue(last, sortField)).encode());
+                        }
+                        logger.info("Found {} sightings, has next: {}", numberOfElements, hasNext);
+                        return metadata;
+                    });
+                });
+    }
+
+    // The count Spring Data skips as well, the last page tells the total by itself
+    private Mono<Long> exactTotal(SqlCriteria criteria, boolean joinBird, PageRequest pageRequest,
+                                  int numberOfElements, boolean hasNext) {
+        if (!hasNext && (pageRequest.getOffset() == 0 || numberOfElements > 0)) {
+            return Mono.just(pageRequest.getOffset() + numberOfElements);
+        }
+        return sightingRepository.count(criteria, joinBird);
+    }
+
+    // Table statistics answer the unfiltered case for free, filtered counts are shared for a short while
+    private Mono<Long> estimateTotal(boolean unfiltered, List<?> filters, SqlCriteria criteria, boolean joinBird) {
+        Mono<Long> counted = countCache.get(filters, sightingRepository.count(criteria, joinBird));
+        if (!unfiltered) {
+            return counted;
+        }
+        return sightingRepository.estimateRowCount().flatMap(estimate -> estimate > 0 ? Mono.just(estimate) : counted);
+    }
+
+    private static Object sortValue(SightingEntity sightingEntity, String sortField) {
+        switch (sortField) {
+            case "location":
+                return sightingEntity.getLocation();
+            case "birdName":
+                return sightingEntity.getBird().getName();
+            case "createdAt":
+                return sightingEntity.getCreatedAt();
+            default:
+                return sightingEntity.getDateTime();
+        }
+    }
+}
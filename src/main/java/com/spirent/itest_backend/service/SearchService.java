@@ -0,0 +1,45 @@
+package com.spirent.itest_backend.service;
+
+import com.spirent.birdwatch.model.PaginatedSearchResults;
+import com.spirent.itest_backend.repository.SearchRepository;
+import com.spirent.itest_backend.repository.projection.SearchHitView;
+import com.spirent.itest_backend.utils.PaginationMapper;
+import com.spirent.itest_backend.utils.SearchResultMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SearchService {
+
+    private static final Logger logger = LogManager.getLogger(SearchService.class);
+    private final SearchRepository searchRepository;
+    private final SearchResultMapper searchResultMapper;
+    private final PaginationMapper paginationMapper;
+
+    public SearchService(SearchRepository searchRepository, SearchResultMapper searchResultMapper,
+                         PaginationMapper paginationMapper) {
+        this.searchRepository = searchRepository;
+        this.searchResultMapper = searchResultMapper;
+        this.paginationMapper = paginationMapper;
+    }
+
+    public PaginatedSearchResults search(String q, Integer page, Integer size) {
+        logger.info("Searching birds and sightings for: {}, page: {}, size: {}", q, page, size);
+        
+        // Set default values
+        int pageNumber = (page != null) ? page : 0;
+        int pageSize = (size != null) ? size : 20;
+        
+        // Results are ordered by relevance inside the query
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+        Page<SearchHitView> searchPage = searchRepository.search(q, pageable);
+        
+        PaginatedSearchResults result = paginationMapper.mapToPaginatedSearchResults(searchPage, searchResultMapper::searchHitToSearchResult);
+        logger.info("Found {} search results out of {} total", result.getContent().size(), searchPage.getTotalElements());
+        return result;
+    }
+}
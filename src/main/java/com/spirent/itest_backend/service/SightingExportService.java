@@ -0,0 +1,104 @@
+package com.spirent.itest_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.spirent.itest_backend.repository.SightingExportRepository;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.projection.SightingExportRow;
+import com.spirent.itest_backend.repository.specification.SightingSpecifications;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams sightings as CSV or NDJSON straight from a database cursor to the response.
+ */
+@Service
+public class SightingExportService {
+
+    private static final Logger logger = LogManager.getLogger(SightingExportService.class);
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final SightingExportRepository sightingExportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final int fetchSize;
+
+    public SightingExportService(SightingExportRepository sightingExportRepository,
+                                 PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                 @Value("${birdwatch.sightings.export.fetch-size:1000}") int fetchSize) {
+        this.sightingExportRepository = sightingExportRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // ISO-8601 dates, the same as the JSON responses
+        this.csvMapper = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * The returned body runs the query when the response is written, on the MVC async executor
+     */
+    public StreamingResponseBody exportSightings(Long birdId, String birdName, String location,
+                                                 OffsetDateTime startDateTime, OffsetDateTime endDateTime,
+                                                 String bbox, String near, Double radiusKm,
+                                                 String format, boolean gzip) {
+        logger.info("Exporting sightings - birdId: {}, birdName: {}, location: {}, startDateTime: {}, endDateTime: {}, bbox: {}, near: {}, radiusKm: {}, format: {}, gzip: {}",
+                   birdId, birdName, location, startDateTime, endDateTime, bbox, near, radiusKm, format, gzip);
+        
+        // The same filters as findSightings, checked before the response is committed
+        Specification<SightingEntity> specification = SightingService.withCoordinateFilters(
+                SightingSpecifications.withFilters(birdId, birdName, location, startDateTime, endDateTime),
+                bbox, near, radiusKm);
+        
+        return outputStream -> {
+            long start = System.nanoTime();
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE) : outputStream;
+            try (SequenceWriter writer = sequenceWriter(format, out)) {
+                long rows = transactionTemplate.execute(status ->
+                        sightingExportRepository.forEach(specification, fetchSize, row -> write(writer, row)));
+                logger.info("Exported {} sightings in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+            } catch (UncheckedIOException e) {
+                // Most likely the client went away, the transaction has been rolled back and the cursor closed
+                throw e.getCause();
+            }
+        };
+    }
+
+    private SequenceWriter sequenceWriter(String format, OutputStream out) throws IOException {
+        if ("ndjson".equals(format)) {
+            return objectMapper.writerFor(SightingExportRow.class)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out);
+        }
+        CsvSchema schema = csvMapper.schemaFor(SightingExportRow.class).withHeader();
+        return csvMapper.writer(schema).writeValues(out);
+    }
+
+    private static void write(SequenceWriter writer, SightingExportRow row) {
+        try {
+            writer.write(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.spirent.itest_backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.spirent.birdwatch.model.SightingIngestError;
+import com.spirent.birdwatch.model.SightingIngestResult;
+import com.spirent.birdwatch.model.SightingRequest;
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import com.spirent.itest_backend.repository.BirdRepository;
+import com.spirent.itest_backend.repository.SightingCopyRepository;
+import com.spirent.itest_backend.repository.SightingCopyRepository.SightingRow;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming ingestion of NDJSON and CBOR sequence (RFC 8742) sighting uploads.
+ * Items are parsed and validated one at a time while PostgreSQL COPY consumes them, so neither the
+ * upload nor the parsed rows are ever held in memory as a whole.
+ */
+@Service
+public class SightingIngestService {
+
+    private static final Logger logger = LogManager.getLogger(SightingIngestService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final BirdRepository birdRepository;
+    private final SightingCopyRepository sightingCopyRepository;
+    private final ObjectMapper objectMapper;
+    // CBOR items are read by the JSON mapper from a CBOR parser, the sightings are bound the same way
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final Validator validator;
+
+    public SightingIngestService(BirdRepository birdRepository, SightingCopyRepository sightingCopyRepository,
+                                 ObjectMapper objectMapper, Validator validator) {
+        this.birdRepository = birdRepository;
+        this.sightingCopyRepository = sightingCopyRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public SightingIngestResult ingest(InputStream body) {
+        // The bird catalog is small, one id set per upload replaces a lookup per sighting
+        Set<Long> birdIds = new HashSet<>(birdRepository.findAllIds());
+        logger.info("Starting sighting ingestion against {} known birds", birdIds.size());
+
+        long start = System.nanoTime();
+        SightingReader reader;
+        long inserted;
+        try {
+            reader = reader(body, birdIds);
+            inserted = sightingCopyRepository.copy(reader);
+        } catch (IOException e) {
+            throw new InvalidRequestException("Could not read upload: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            throw new InvalidRequestException("Could not read upload: " + e.getCause().getMessage());
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY into birds.sightings failed", e);
+        }
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        SightingIngestResult result = new SightingIngestResult();
+        result.setInserted(inserted);
+        result.setRejected(reader.rejected);
+        result.setDurationMs(durationMs);
+        result.setRowsPerSecond(inserted * 1000.0 / durationMs);
+        result.setErrors(reader.errors);
+        logger.info("Ingested {} sightings ({} rejected) in {} ms, {} rows/s",
+                inserted, reader.rejected, durationMs, Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    // An upload starting with the head of a CBOR map (major type 5, which no UTF-8 text starts with) is a CBOR
+    // sequence of sightings, anything else is read as NDJSON
+    private SightingReader reader(InputStream body, Set<Long> birdIds) throws IOException {
+        PushbackInputStream upload = new PushbackInputStream(body, 1);
+        int first = upload.read();
+        if (first != -1) {
+            upload.unread(first);
+        }
+        if ((first & 0xE0) == 0xA0) {
+            return new SightingCborReader(cborFactory.createParser(upload), birdIds);
+        }
+        return new SightingLineReader(new BufferedReader(new InputStreamReader(upload, StandardCharsets.UTF_8)), birdIds);
+    }
+
+    /**
+     * An item of the upload, bound on its own so that one that does not bind is rejected alone
+     */
+    @FunctionalInterface
+    private interface SightingItem {
+        SightingRequest bind() throws JsonProcessingException;
+    }
+
+    /**
+     * Turns upload items into COPY rows, skipping and recording the items that fail validation.
+     */
+    private abstract class SightingReader implements Iterator<SightingRow> {
+
+        private final Set<Long> birdIds;
+        private final ZoneId zone = ZoneId.systemDefault();
+        private final List<SightingIngestError> errors = new ArrayList<>();
+        // Line number of NDJSON uploads, item number of CBOR ones
+        protected long position;
+        private long rejected;
+        private SightingRow next;
+
+        private SightingReader(Set<Long> birdIds) {
+            this.birdIds = birdIds;
+        }
+
+        /**
+         * Reads the next item and advances position to it
+         *
+         * @return null at the end of the upload
+         */
+        protected abstract SightingItem readItem() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                SightingItem item;
+                try {
+                    item = readItem();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (item == null) {
+                    return false;
+                }
+                next = parse(item);
+            }
+            return true;
+        }
+
+        @Override
+        public SightingRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SightingRow row = next;
+            next = null;
+            return row;
+        }
+
+        private SightingRow parse(SightingItem item) {
+            SightingRequest sightingRequest;
+            try {
+                sightingRequest = item.bind();
+            } catch (JsonProcessingException e) {
+                return reject(e.getOriginalMessage());
+            }
+
+            Set<ConstraintViolation<SightingRequest>> violations = validator.validate(sightingRequest);
+            if (!violations.isEmpty()) {
+                return reject(violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            }
+            if ((sightingRequest.getLatitude() == null) != (sightingRequest.getLongitude() == null)) {
+                return reject("latitude and longitude must be given together");
+            }
+            if (!birdIds.contains(sightingRequest.getBirdId())) {
+                return reject("Bird not found with id: " + sightingRequest.getBirdId());
+            }
+
+            return new SightingRow(sightingRequest.getBirdId(), sightingRequest.getLocation(),
+                    sightingRequest.getDateTime().atZoneSameInstant(zone).toLocalDateTime(),
+                    sightingRequest.getLatitude(), sightingRequest.getLongitude());
+        }
+
+        private SightingRow reject(String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                SightingIngestError error = new SightingIngestError();
+                error.setLine(position);
+                error.setMessage(message);
+                errors.add(error);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * NDJSON uploads, one sighting per non-blank line
+     */
+    private final class SightingLineReader extends SightingReader {
+
+        private final BufferedReader reader;
+
+        private SightingLineReader(BufferedReader reader, Set<Long> birdIds) {
+            super(birdIds);
+            this.reader = reader;
+        }
+
+        @Override
+        protected SightingItem readItem() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                position++;
+            } while (line.isBlank());
+            String item = line;
+            return () -> objectMapper.readValue(item, SightingRequest.class);
+        }
+    }
+
+    /**
+     * CBOR sequence uploads, one sighting per top-level item. An item that is not valid CBOR ends the upload, the
+     * stream has no delimiter to resume from
+     */
+    private final class SightingCborReader extends SightingReader {
+
+        private final JsonParser parser;
+
+        private SightingCborReader(JsonParser parser, Set<Long> birdIds) {
+            super(birdIds);
+            this.parser = parser;
+        }
+
+        @Override
+        protected SightingItem readItem() throws IOException {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            position++;
+            JsonNode item = objectMapper.readTree(parser);
+            return () -> objectMapper.treeToValue(item, SightingRequest.class);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.spirent.itest_backend.service;
+
+import com.spirent.itest_backend.repository.SightingPartitionRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keeps the monthly partitions of birds.sightings rolling: creates the coming months ahead of time so inserts never
+ * land in the default partition, and expires months older than the retention by detaching or dropping them.
+ * Runs once at startup and then on the configured schedule, every partition is handled in its own transaction.
+ */
+@Service
+@ConditionalOnProperty(name = "birdwatch.sightings.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class SightingPartitionService {
+
+    private static final Logger logger = LogManager.getLogger(SightingPartitionService.class);
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'sightings_'yyyy_MM");
+
+    private final SightingPartitionRepository sightingPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+
+    public SightingPartitionService(SightingPartitionRepository sightingPartitionRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${birdwatch.sightings.partitions.months-ahead:3}") int monthsAhead,
+                                    @Value("${birdwatch.sightings.partitions.retention-months:0}") int retentionMonths,
+                                    @Value("${birdwatch.sightings.partitions.expire-action:detach}") String expireAction) {
+        this.sightingPartitionRepository = sightingPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = "drop".equalsIgnoreCase(expireAction);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${birdwatch.sightings.partitions.cron:0 0 1 * * *}")
+    public void maintainPartitions() {
+        maintainPartitions(LocalDate.now());
+    }
+
+    /**
+     * Creates the partitions from the month of today up to monthsAhead months later, then expires the partitions
+     * of months that ended more than retentionMonths months before the month of today (0 keeps every month).
+     */
+    public void maintainPartitions(LocalDate today) {
+        logger.info("Maintaining sighting partitions - today: {}, monthsAhead: {}, retentionMonths: {}, drop: {}",
+                   today, monthsAhead, retentionMonths, dropExpired);
+        
+        YearMonth currentMonth = YearMonth.from(today);
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate monthStart = currentMonth.plusMonths(i).atDay(1);
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> sightingPartitionRepository.createPartition(monthStart)))) {
+                logger.info("Created sighting partition for {}", YearMonth.from(monthStart));
+            }
+        }
+        
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+        for (String partitionName : sightingPartitionRepository.findMonthlyPartitionNames()) {
+            YearMonth month = YearMonth.parse(partitionName, PARTITION_NAME);
+            if (month.isBefore(oldestKept)) {
+                transactionTemplate.execute(status -> sightingPartitionRepository.expirePartition(month.atDay(1), dropExpired));
+                logger.info("Expired sighting partition {} ({})", partitionName, dropExpired ? "dropped" : "detached to birds_archive");
+            }
+        }
+    }
+}
@@ -3,53 +3,88 @@ package com.spirent.itest_backend.service;
 import com.spirent.birdwatch.model.Sighting;
 import com.spirent.birdwatch.model.SightingRequest;
 import com.spirent.birdwatch.model.PaginatedSightings;
+import com.spirent.itest_backend.cache.BirdCache;
+import com.spirent.itest_backend.cache.CountCache;
+import com.spirent.itest_backend.exception.InvalidRequestException;
 import com.spirent.itest_backend.exception.ResourceNotFoundException;
 import com.spirent.itest_backend.repository.BirdRepository;
 import com.spirent.itest_backend.repository.SightingRepository;
-import com.spirent.itest_backend.repository.entity.BirdEntity;
 import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.specification.KeysetSpecifications;
+import com.spirent.itest_backend.repository.specification.SightingSpecifications;
 import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import com.spirent.itest_backend.utils.EntityVersion;
+import com.spirent.itest_backend.utils.KeysetCursor;
 import com.spirent.itest_backend.utils.PaginationMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import com.spirent.itest_backend.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
 @Service
 public class SightingService {
 
     private static final Logger logger = LogManager.getLogger(SightingService.class);
+    // Radius of the near filter when radiusKm is left out, the default declared in birds.yaml
+    static final double DEFAULT_RADIUS_KM = 1.0;
+
     private final BirdRepository birdRepository;
     private final SightingRepository sightingRepository;
+    private final BirdCache birdCache;
+    private final CountCache countCache;
     private final BirdSightingsMapper birdSightingsMapper;
     private final PaginationMapper paginationMapper;
+    private final SightingWriteBehindBuffer writeBehindBuffer;
+    private final long durableTimeoutMs;
 
-    public SightingService(BirdRepository birdRepository, SightingRepository sightingRepository, 
-                         BirdSightingsMapper birdSightingsMapper, PaginationMapper paginationMapper) {
+    public SightingService(BirdRepository birdRepository, SightingRepository sightingRepository, BirdCache birdCache,
+                         CountCache countCache,
+                         BirdSightingsMapper birdSightingsMapper, PaginationMapper paginationMapper,
+                         SightingWriteBehindBuffer writeBehindBuffer,
+                         @Value("${birdwatch.sightings.write-behind.durable-timeout-ms:5000}") long durableTimeoutMs) {
         this.birdRepository = birdRepository;
         this.sightingRepository = sightingRepository;
+        this.birdCache = birdCache;
+        this.countCache = countCache;
         this.birdSightingsMapper = birdSightingsMapper;
         this.paginationMapper = paginationMapper;
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.durableTimeoutMs = durableTimeoutMs;
     }
 
     public Sighting createSighting(SightingRequest sightingRequest) {
         logger.info("Creating sighting for bird ID: {} at location: {}", 
                    sightingRequest.getBirdId(), sightingRequest.getLocation());
+        validateCoordinates(sightingRequest);
         
-        // Find the bird entity
-        BirdEntity birdEntity = birdRepository.findById(sightingRequest.getBirdId())
-                .orElseThrow(() -> new ResourceNotFoundException("Bird not found with id: " + sightingRequest.getBirdId()));
+        // Check the bird through the cache, the sighting only needs a reference to it
+        if (!birdCache.exists(sightingRequest.getBirdId())) {
+            throw new ResourceNotFoundException("Bird not found with id: " + sightingRequest.getBirdId());
+        }
         
         // Create sighting entity
         SightingEntity sightingEntity = new SightingEntity();
-        sightingEntity.setBird(birdEntity);
+        sightingEntity.setBird(birdRepository.getReferenceById(sightingRequest.getBirdId()));
         sightingEntity.setLocation(sightingRequest.getLocation());
         sightingEntity.setDateTime(sightingRequest.getDateTime());
+        sightingEntity.setLatitude(sightingRequest.getLatitude());
+        sightingEntity.setLongitude(sightingRequest.getLongitude());
         sightingEntity.setCreatedAt(OffsetDateTime.now());
         
         // Save the sighting
@@ -60,53 +95,325 @@ public class SightingService {
         return birdSightingsMapper.entityToSighting(savedSighting);
     }
 
-    public PaginatedSightings findSightingsWithFilters(String birdName, String location, 
+    /**
+     * Queues the sighting for the next group commit and returns it without waiting, the id is not known yet.
+     */
+    public Sighting bufferSighting(SightingRequest sightingRequest) {
+        logger.info("Buffering sighting for bird ID: {} at location: {}",
+                   sightingRequest.getBirdId(), sightingRequest.getLocation());
+
+        OffsetDateTime createdAt = OffsetDateTime.now();
+        enqueue(sightingRequest, createdAt);
+
+        Sighting sighting = new Sighting();
+        sighting.setBirdId(sightingRequest.getBirdId());
+        sighting.setLocation(sightingRequest.getLocation());
+        sighting.setDateTime(sightingRequest.getDateTime());
+        sighting.setLatitude(sightingRequest.getLatitude());
+        sighting.setLongitude(sightingRequest.getLongitude());
+        sighting.setCreatedAt(createdAt);
+        return sighting;
+    }
+
+    /**
+     * Queues the sighting for the next group commit and waits until that commit succeeded.
+     */
+    public Sighting createSightingWithGroupCommit(SightingRequest sightingRequest) {
+        logger.info("Creating sighting with group commit for bird ID: {} at location: {}",
+                   sightingRequest.getBirdId(), sightingRequest.getLocation());
+
+        CompletableFuture<Sighting> result = enqueue(sightingRequest, OffsetDateTime.now());
+        try {
+            Sighting savedSighting = result.get(durableTimeoutMs, TimeUnit.MILLISECONDS);
+            logger.info("Successfully created sighting with ID: {}", savedSighting.getId());
+            return savedSighting;
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Group commit did not finish in " + durableTimeoutMs + " ms", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Group commit failed", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Sighting> enqueue(SightingRequest sightingRequest, OffsetDateTime createdAt) {
+        validateCoordinates(sightingRequest);
+        // Reject unknown birds now, the flush happens after the response for buffered sightings
+        if (!birdCache.exists(sightingRequest.getBirdId())) {
+            throw new ResourceNotFoundException("Bird not found with id: " + sightingRequest.getBirdId());
+        }
+        return writeBehindBuffer.submit(sightingRequest.getBirdId(), sightingRequest.getLocation(),
+                sightingRequest.getDateTime(), sightingRequest.getLatitude(), sightingRequest.getLongitude(), createdAt);
+    }
+
+    private static void validateCoordinates(SightingRequest sightingRequest) {
+        if ((sightingRequest.getLatitude() == null) != (sightingRequest.getLongitude() == null)) {
+            throw new InvalidRequestException("latitude and longitude must be given together");
+        }
+    }
+
+    /**
+     * @param notModified Given the version of the page before it is mapped, true skips the mapping
+     * @return The page, empty if notModified accepted its version
+     */
+    public Optional<PaginatedSightings> findSightingsWithFilters(Long birdId, String birdName, String location, 
                                                      OffsetDateTime startDateTime, OffsetDateTime endDateTime,
-                                                     Integer page, Integer size, String sort, String direction) {
-        logger.info("Finding sightings with filters - birdName: {}, location: {}, startDateTime: {}, endDateTime: {}, page: {}, size: {}, sort: {}, direction: {}", 
-                   birdName, location, startDateTime, endDateTime, page, size, sort, direction);
+                                                     String bbox, String near, Double radiusKm,
+                                                     Integer page, Integer size, String sort, String direction,
+                                                     String after, String total, Predicate<EntityVersion> notModified) {
+        logger.info("Finding sightings with filters - birdId: {}, birdName: {}, location: {}, startDateTime: {}, endDateTime: {}, bbox: {}, near: {}, radiusKm: {}, page: {}, size: {}, sort: {}, direction: {}, after: {}, total: {}", 
+                   birdId, birdName, location, startDateTime, endDateTime, bbox, near, radiusKm, page, size, sort, direction, after, total);
         
         // Set default values
         int pageNumber = (page != null) ? page : 0;
         int pageSize = (size != null) ? size : 20;
         String sortField = (sort != null) ? sort : "dateTime";
         String sortDirection = (direction != null) ? direction : "desc";
+        String totalMode = (total != null) ? total : "exact";
+        double radius = (radiusKm != null) ? radiusKm : DEFAULT_RADIUS_KM;
         
-        // Create sort object
+        // Create sort object, id breaks ties so that the order is stable for cursor pagination
         Sort.Direction sortDir = sortDirection.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Sort sortObj = Sort.by(sortDir, sortField);
-        
-        // Create pageable object
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sortObj);
-        
-        // Execute query based on filters
-        Page<SightingEntity> sightingPage;
-        
-        if (birdName != null && location != null && startDateTime != null && endDateTime != null) {
-            sightingPage = sightingRepository.findByBirdNameContainingIgnoreCaseAndLocationContainingIgnoreCaseAndDateTimeBetween(
-                    birdName, location, startDateTime, endDateTime, pageable);
-        } else if (birdName != null && location != null) {
-            sightingPage = sightingRepository.findByBirdNameContainingIgnoreCaseAndLocationContainingIgnoreCase(
-                    birdName, location, pageable);
-        } else if (birdName != null && startDateTime != null && endDateTime != null) {
-            sightingPage = sightingRepository.findByBirdNameContainingIgnoreCaseAndDateTimeBetween(
-                    birdName, startDateTime, endDateTime, pageable);
-        } else if (location != null && startDateTime != null && endDateTime != null) {
-            sightingPage = sightingRepository.findByLocationContainingIgnoreCaseAndDateTimeBetween(
-                    location, startDateTime, endDateTime, pageable);
-        } else if (birdName != null) {
-            sightingPage = sightingRepository.findByBirdNameContainingIgnoreCase(birdName, pageable);
-        } else if (location != null) {
-            sightingPage = sightingRepository.findByLocationContainingIgnoreCase(location, pageable);
-        } else if (startDateTime != null && endDateTime != null) {
-            sightingPage = sightingRepository.findByDateTimeBetween(startDateTime, endDateTime, pageable);
+        Sort sortObj = Sort.by(sortDir, sortField).and(Sort.by(sortDir, "id"));
+        
+        // Build a single query from whichever filters are present
+        Specification<SightingEntity> specification = withCoordinateFilters(SightingSpecifications.withFilters(
+                birdId, birdName, location, startDateTime, endDateTime), bbox, near, radius);
+        
+        Slice<SightingEntity> sightingSlice;
+        Long estimatedTotal = null;
+        if (after != null) {
+            // Keyset mode: seek past the cursor, no offset and no count query
+            KeysetCursor cursor = KeysetCursor.decode(after, sortField, sortDirection);
+            specification = specification.and(KeysetSpecifications.after(
+                    sortAttributePath(sortField), sortDir, cursor.getLastValue(), cursor.getLastId()));
+            sightingSlice = sightingRepository.findSlice(specification, PageRequest.of(0, pageSize, sortObj));
+        } else if ("exact".equals(totalMode)) {
+            sightingSlice = sightingRepository.findAll(specification, PageRequest.of(pageNumber, pageSize, sortObj));
         } else {
-            sightingPage = sightingRepository.findAll(pageable);
+            // Offset page without the count query, totals are estimated or left out
+            sightingSlice = sightingRepository.findSlice(specification, PageRequest.of(pageNumber, pageSize, sortObj));
+            if ("estimate".equals(totalMode)) {
+                boolean unfiltered = birdId == null && birdName == null && location == null
+                        && startDateTime == null && endDateTime == null && bbox == null && near == null;
+                List<?> filters = Arrays.asList("sightings", birdId, birdName, location, startDateTime, endDateTime,
+                        bbox, near, near != null ? radius : null);
+                estimatedTotal = estimateTotal(unfiltered, filters, specification);
+            }
+        }
+        
+        if (notModified.test(version(sightingSlice, sightingSlice instanceof Page
+                ? Long.valueOf(((Page<?>) sightingSlice).getTotalElements()) : estimatedTotal))) {
+            logger.info("Sightings not modified, {} sightings", sightingSlice.getNumberOfElements());
+            return Optional.empty();
+        }
+        
+        PaginatedSightings result;
+        if (sightingSlice instanceof Page) {
+            result = paginationMapper.mapToPaginatedSightings((Page<SightingEntity>) sightingSlice, birdSightingsMapper::entityToSighting);
+        } else {
+            result = paginationMapper.mapToPaginatedSightings(sightingSlice, birdSightingsMapper::entityToSighting);
+        }
+        if (after != null) {
+            result.setPage(null);
+            result.setFirst(false);
+        } else if (estimatedTotal != null) {
+            paginationMapper.applyEstimatedTotal(result, sightingSlice, estimatedTotal);
+        }
+        
+        if (sightingSlice.hasNext()) {
+            SightingEntity last = sightingSlice.getContent().get(sightingSlice.getNumberOfElements() - 1);
+            result.setNextCursor(new KeysetCursor(sortField, sortDirection, last.getId(), sortValue(last, sortField)).encode());
+        }
+        
+        logger.info("Found {} sightings, has next: {}", result.getContent().size(), sightingSlice.hasNext());
+        return Optional.of(result);
+    }
+
+    /**
+     * One bird's sightings ordered by dateTime, always keyset paginated so that every page costs one index range
+     * scan regardless of how many sightings the bird has.
+     *
+     * @param notModified Given the version of the page before it is mapped, true skips the mapping
+     * @return The page, empty if notModified accepted its version
+     */
+    public Optional<PaginatedSightings> findSightingsOfBird(Long birdId, OffsetDateTime startDateTime, OffsetDateTime endDateTime,
+                                                  Integer size, String direction, String after,
+                                                  Predicate<EntityVersion> notModified) {
+        logger.info("Finding sightings of bird ID: {} - startDateTime: {}, endDateTime: {}, size: {}, direction: {}, after: {}",
+                   birdId, startDateTime, endDateTime, size, direction, after);
+        
+        if (!birdCache.exists(birdId)) {
+            throw new ResourceNotFoundException("Bird not found with id: " + birdId);
+        }
+        
+        // Set default values
+        int pageSize = (size != null) ? size : 20;
+        String sortDirection = (direction != null) ? direction : "desc";
+        
+        Sort.Direction sortDir = sortDirection.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sortObj = Sort.by(sortDir, "dateTime").and(Sort.by(sortDir, "id"));
+        
+        Specification<SightingEntity> specification = SightingSpecifications.withFilters(
+                birdId, null, null, startDateTime, endDateTime);
+        if (after != null) {
+            KeysetCursor cursor = KeysetCursor.decode(after, "dateTime", sortDirection);
+            specification = specification.and(KeysetSpecifications.after(
+                    "dateTime", sortDir, cursor.getLastValue(), cursor.getLastId()));
+        }
+        
+        Slice<SightingEntity> sightingSlice = sightingRepository.findSlice(specification, PageRequest.of(0, pageSize, sortObj));
+        if (notModified.test(version(sightingSlice, null))) {
+            logger.info("Sightings of bird ID: {} not modified", birdId);
+            return Optional.empty();
+        }
+        
+        PaginatedSightings result = paginationMapper.mapToPaginatedSightings(sightingSlice, birdSightingsMapper::entityToSighting);
+        result.setPage(null);
+        result.setFirst(after == null);
+        
+        if (sightingSlice.hasNext()) {
+            SightingEntity last = sightingSlice.getContent().get(sightingSlice.getNumberOfElements() - 1);
+            result.setNextCursor(new KeysetCursor("dateTime", sortDirection, last.getId(), last.getDateTime()).encode());
         }
         
-        // Convert to DTOs and create paginated response
-        PaginatedSightings result = paginationMapper.mapToPaginatedSightings(sightingPage, birdSightingsMapper::entityToSighting);
-        logger.info("Found {} sightings out of {} total", result.getContent().size(), sightingPage.getTotalElements());
-        return result;
+        logger.info("Found {} sightings of bird ID: {}, has next: {}", result.getContent().size(), birdId, sightingSlice.hasNext());
+        return Optional.of(result);
+    }
+
+    // Everything the page shows besides the sightings follows from the request, the total and whether there is more
+    private static EntityVersion version(Slice<SightingEntity> sightingSlice, Long total) {
+        EntityVersion.Builder version = EntityVersion.builder().withoutLastModified().add(total).add(sightingSlice.hasNext());
+        sightingSlice.forEach(sightingEntity -> version.add(sightingEntity.getId(), sightingEntity.getCreatedAt(), sightingEntity.getUpdatedAt()));
+        return version.build();
+    }
+
+    // Table statistics answer the unfiltered case for free, filtered counts are shared for a short while
+    private long estimateTotal(boolean unfiltered, List<?> filters, Specification<SightingEntity> specification) {
+        if (unfiltered) {
+            long estimate = sightingRepository.estimateRowCount();
+            if (estimate > 0) {
+                return estimate;
+            }
+        }
+        return countCache.get(filters, () -> sightingRepository.count(specification));
+    }
+
+    /**
+     * Adds the bbox and near filters that are present to a specification, shared with the export
+     *
+     * @param radiusKm The radius around near, 1 km when null
+     * @throws InvalidRequestException if bbox or near is malformed or out of range
+     */
+    static Specification<SightingEntity> withCoordinateFilters(Specification<SightingEntity> specification,
+                                                               String bbox, String near, Double radiusKm) {
+        if (bbox != null) {
+            specification = specification.and(boundingBox(bbox));
+        }
+        if (near != null) {
+            specification = specification.and(radiusAround(near, radiusKm != null ? radiusKm : DEFAULT_RADIUS_KM));
+        }
+        return specification;
+    }
+
+    private static Specification<SightingEntity> boundingBox(String bbox) {
+        double[] box = parseBoundingBox(bbox);
+        return SightingSpecifications.withinBoundingBox(box[1], box[0], box[3], box[2]);
+    }
+
+    private static Specification<SightingEntity> radiusAround(String near, double radiusKm) {
+        double[] point = parseNear(near);
+        return SightingSpecifications.withinRadius(point[0], point[1], radiusKm);
+    }
+
+    /**
+     * Parses and checks the bbox parameter, minLon,minLat,maxLon,maxLat in the GeoJSON order
+     *
+     * @return The four bounds in the same order
+     * @throws InvalidRequestException if a bound is malformed or out of range, or the box crosses the antimeridian
+     */
+    static double[] parseBoundingBox(String bbox) {
+        double[] values = parseCoordinates("bbox", bbox, 4);
+        double minLon = values[0], minLat = values[1], maxLon = values[2], maxLat = values[3];
+        checkLatitude("bbox", minLat);
+        checkLatitude("bbox", maxLat);
+        checkLongitude("bbox", minLon);
+        checkLongitude("bbox", maxLon);
+        if (minLat > maxLat) {
+            throw new InvalidRequestException("bbox minLat must not be greater than maxLat");
+        }
+        if (minLon > maxLon) {
+            throw new InvalidRequestException("bbox must not cross the antimeridian, split it into two requests");
+        }
+        return values;
+    }
+
+    /**
+     * Parses and checks the near parameter, lat,lon
+     *
+     * @return The latitude and longitude
+     * @throws InvalidRequestException if a coordinate is malformed or out of range
+     */
+    static double[] parseNear(String near) {
+        double[] values = parseCoordinates("near", near, 2);
+        checkLatitude("near", values[0]);
+        checkLongitude("near", values[1]);
+        return values;
+    }
+
+    private static double[] parseCoordinates(String name, String value, int count) {
+        String[] parts = value.split(",");
+        if (parts.length != count) {
+            throw new InvalidRequestException(name + " must have " + count + " comma separated numbers");
+        }
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                values[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new InvalidRequestException(name + " has an invalid number: " + parts[i]);
+            }
+            // parseDouble takes NaN and Infinity, and NaN would get through every range check after this
+            if (!Double.isFinite(values[i])) {
+                throw new InvalidRequestException(name + " has an invalid number: " + parts[i]);
+            }
+        }
+        return values;
+    }
+
+    private static void checkLatitude(String name, double latitude) {
+        if (latitude < -90 || latitude > 90) {
+            throw new InvalidRequestException(name + " latitude must be between -90 and 90");
+        }
+    }
+
+    private static void checkLongitude(String name, double longitude) {
+        if (longitude < -180 || longitude > 180) {
+            throw new InvalidRequestException(name + " longitude must be between -180 and 180");
+        }
+    }
+
+    // The API exposes the bird name sort as "birdName", which maps to the joined bird entity
+    private static String sortAttributePath(String sortField) {
+        return "birdName".equals(sortField) ? "bird.name" : sortField;
+    }
+
+    private static Object sortValue(SightingEntity sightingEntity, String sortField) {
+        switch (sortField) {
+            case "dateTime":
+                return sightingEntity.getDateTime();
+            case "location":
+                return sightingEntity.getLocation();
+            case "birdName":
+                return sightingEntity.getBird().getName();
+            case "createdAt":
+                return sightingEntity.getCreatedAt();
+            default:
+                throw new InvalidRequestException("Unsupported sort field: " + sortField);
+        }
     }
 }
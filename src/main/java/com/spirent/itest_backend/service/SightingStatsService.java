@@ -0,0 +1,87 @@
+package com.spirent.itest_backend.service;
+
+import com.spirent.birdwatch.model.SightingStats;
+import com.spirent.birdwatch.model.SightingStatsBucket;
+import com.spirent.birdwatch.model.SightingStatsRebuildResult;
+import com.spirent.itest_backend.repository.SightingRollupRepository;
+import com.spirent.itest_backend.repository.projection.SightingStatsView;
+import com.spirent.itest_backend.utils.SightingStatsMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class SightingStatsService {
+
+    private static final Logger logger = LogManager.getLogger(SightingStatsService.class);
+    private static final LocalDateTime MIN_BUCKET = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_BUCKET = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final SightingRollupRepository sightingRollupRepository;
+    private final SightingStatsMapper sightingStatsMapper;
+
+    public SightingStatsService(SightingRollupRepository sightingRollupRepository, SightingStatsMapper sightingStatsMapper) {
+        this.sightingRollupRepository = sightingRollupRepository;
+        this.sightingStatsMapper = sightingStatsMapper;
+    }
+
+    public SightingStats getSightingStats(String bucket, Long birdId, OffsetDateTime from, OffsetDateTime to, Integer limit) {
+        logger.info("Getting sighting stats - bucket: {}, birdId: {}, from: {}, to: {}, limit: {}", bucket, birdId, from, to, limit);
+        
+        // Set default values
+        String bucketWidth = (bucket != null) ? bucket : "day";
+        int maxBuckets = (limit != null) ? limit : 1000;
+        LocalDateTime fromHour = toLocalHour(from, MIN_BUCKET);
+        LocalDateTime toHour = toLocalHour(to, MAX_BUCKET);
+        
+        List<SightingStatsView> statsViews = (birdId != null)
+                ? sightingRollupRepository.findStatsOfBird(birdId, bucketWidth, fromHour, toHour, maxBuckets)
+                : sightingRollupRepository.findStats(bucketWidth, fromHour, toHour, maxBuckets);
+        List<SightingStatsBucket> buckets = statsViews.stream()
+                .map(sightingStatsMapper::statsViewToBucket)
+                .collect(Collectors.toList());
+        
+        SightingStats sightingStats = new SightingStats();
+        sightingStats.setBucket(SightingStats.BucketEnum.fromValue(bucketWidth));
+        sightingStats.setContent(buckets);
+        logger.info("Found {} sighting stats buckets", buckets.size());
+        return sightingStats;
+    }
+
+    /**
+     * Recomputes the rollups of the given range from birds.sightings. Sighting writes and other rebuilds wait for it to commit.
+     */
+    @Transactional
+    public SightingStatsRebuildResult rebuildSightingStats(OffsetDateTime from, OffsetDateTime to) {
+        logger.info("Rebuilding sighting stats - from: {}, to: {}", from, to);
+        long start = System.nanoTime();
+        
+        LocalDateTime fromHour = toLocalHour(from, MIN_BUCKET);
+        LocalDateTime toHour = toLocalHour(to, MAX_BUCKET);
+        
+        sightingRollupRepository.lockSightingsAgainstWrites();
+        int deleted = sightingRollupRepository.deleteRange(fromHour, toHour);
+        int inserted = sightingRollupRepository.insertRange(fromHour, toHour);
+        
+        SightingStatsRebuildResult result = new SightingStatsRebuildResult();
+        result.setRollupRows((long) inserted);
+        result.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        logger.info("Rebuilt sighting stats, replaced {} rollup rows with {} in {} ms", deleted, inserted, result.getDurationMs());
+        return result;
+    }
+
+    private static LocalDateTime toLocalHour(OffsetDateTime dateTime, LocalDateTime defaultValue) {
+        if (dateTime == null) {
+            return defaultValue;
+        }
+        return dateTime.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+    }
+}
@@ -0,0 +1,229 @@
+package com.spirent.itest_backend.service;
+
+import com.spirent.birdwatch.model.Sighting;
+import com.spirent.itest_backend.exception.ServiceUnavailableException;
+import com.spirent.itest_backend.repository.BirdRepository;
+import com.spirent.itest_backend.repository.SightingRepository;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.utils.BirdSightingsMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded write-behind queue for sightings.
+ * A single writer thread drains the queue and inserts whatever has accumulated in one transaction, once the batch
+ * is full or the flush interval has passed, so concurrent requests share a single commit instead of paying one each.
+ */
+@Service
+public class SightingWriteBehindBuffer {
+
+    private static final Logger logger = LogManager.getLogger(SightingWriteBehindBuffer.class);
+
+    private final BirdRepository birdRepository;
+    private final SightingRepository sightingRepository;
+    private final BirdSightingsMapper birdSightingsMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingSighting> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long retryAfterSeconds;
+    private final Thread writer;
+    // Submits offer under the read lock, stopping flips running under the write lock: no offer can land after the
+    // writer has seen running turn false and drained the queue for the last time
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+
+    public SightingWriteBehindBuffer(BirdRepository birdRepository, SightingRepository sightingRepository,
+                                     BirdSightingsMapper birdSightingsMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${birdwatch.sightings.write-behind.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${birdwatch.sightings.write-behind.batch-size:500}") int batchSize,
+                                     @Value("${birdwatch.sightings.write-behind.flush-interval-ms:20}") long flushIntervalMs,
+                                     @Value("${birdwatch.sightings.write-behind.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.birdRepository = birdRepository;
+        this.sightingRepository = sightingRepository;
+        this.birdSightingsMapper = birdSightingsMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.writer = new Thread(this::run, "sighting-write-behind");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Stop accepting, then let the writer drain what is already queued
+        stopAccepting();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        failQueued();
+    }
+
+    /**
+     * Queues a sighting for the next group commit.
+     *
+     * @return a future completed with the stored sighting once its group commit succeeded
+     * @throws ServiceUnavailableException when the queue is full or the buffer is shutting down
+     */
+    public CompletableFuture<Sighting> submit(Long birdId, String location, OffsetDateTime dateTime,
+                                              Double latitude, Double longitude, OffsetDateTime createdAt) {
+        PendingSighting pending = new PendingSighting(birdId, location, dateTime, latitude, longitude, createdAt);
+        acceptLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new ServiceUnavailableException("Sighting write-behind buffer is shutting down", retryAfterSeconds);
+            }
+            if (!queue.offer(pending)) {
+                throw new ServiceUnavailableException("Sighting write-behind buffer is full", retryAfterSeconds);
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        return pending.result;
+    }
+
+    private void stopAccepting() {
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+    }
+
+    // Fails whatever the writer left behind, when it was interrupted or did not finish draining in time
+    private void failQueued() {
+        List<PendingSighting> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            logger.warn("Failing {} buffered sightings that were not written before shutdown", leftover.size());
+        }
+        for (PendingSighting pending : leftover) {
+            pending.result.completeExceptionally(
+                    new ServiceUnavailableException("Sighting write-behind buffer has shut down", retryAfterSeconds));
+        }
+    }
+
+    private void run() {
+        List<PendingSighting> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSighting first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Collect until the batch is full or the flush interval since the first item has passed
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingSighting next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopAccepting();
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        failQueued();
+    }
+
+    private void flush(List<PendingSighting> batch) {
+        try {
+            List<Sighting> sightings = transactionTemplate.execute(status -> insert(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(sightings.get(i));
+            }
+            logger.debug("Flushed {} buffered sightings in one commit", batch.size());
+        } catch (RuntimeException e) {
+            // One bad row (e.g. its bird was deleted meanwhile) must not fail the whole group, retry one by one
+            logger.warn("Group commit of {} sightings failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (PendingSighting pending : batch) {
+                try {
+                    pending.result.complete(transactionTemplate.execute(status -> insert(List.of(pending)).get(0)));
+                } catch (RuntimeException rowFailure) {
+                    pending.result.completeExceptionally(rowFailure);
+                }
+            }
+        }
+    }
+
+    private List<Sighting> insert(List<PendingSighting> batch) {
+        List<SightingEntity> entities = new ArrayList<>(batch.size());
+        for (PendingSighting pending : batch) {
+            SightingEntity sightingEntity = new SightingEntity();
+            sightingEntity.setBird(birdRepository.getReferenceById(pending.birdId));
+            sightingEntity.setLocation(pending.location);
+            sightingEntity.setDateTime(pending.dateTime);
+            sightingEntity.setLatitude(pending.latitude);
+            sightingEntity.setLongitude(pending.longitude);
+            sightingEntity.setCreatedAt(pending.createdAt);
+            entities.add(sightingEntity);
+        }
+
+        List<Sighting> sightings = new ArrayList<>(batch.size());
+        for (SightingEntity saved : sightingRepository.saveAll(entities)) {
+            sightings.add(birdSightingsMapper.entityToSighting(saved));
+        }
+        return sightings;
+    }
+
+    private static final class PendingSighting {
+        private final Long birdId;
+        private final String location;
+        private final OffsetDateTime dateTime;
+        private final Double latitude;
+        private final Double longitude;
+        private final OffsetDateTime createdAt;
+        private final CompletableFuture<Sighting> result = new CompletableFuture<>();
+
+        private PendingSighting(Long birdId, String location, OffsetDateTime dateTime, Double latitude,
+                                Double longitude, OffsetDateTime createdAt) {
+            this.birdId = birdId;
+            this.location = location;
+            this.dateTime = dateTime;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.createdAt = createdAt;
+        }
+    }
+}
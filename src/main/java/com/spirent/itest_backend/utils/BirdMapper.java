@@ -11,12 +11,10 @@ import java.time.OffsetDateTime;
 @Component
 public class BirdMapper {
 
-    private final BirdSightingsMapper birdSightingsMapper;
-
-    public BirdMapper(BirdSightingsMapper birdSightingsMapper) {
-        this.birdSightingsMapper = birdSightingsMapper;
-    }
-
+    /**
+     * Maps the scalar fields only, sightings are attached by the caller when they were asked for so that mapping
+     * never triggers the lazy sightings collection.
+     */
     public Bird entityToBird(@NonNull final BirdEntity birdEntity) {
         Bird bird = new Bird();
         bird.setId(birdEntity.getId());
@@ -24,9 +22,6 @@ public class BirdMapper {
         bird.setColor(birdEntity.getColor());
         bird.setHeight(birdEntity.getHeight());
         bird.setWeight(birdEntity.getWeight());
-        if (birdEntity.getSightings() != null) {
-            birdEntity.getSightings().forEach(sightingEntity -> bird.addSightingsItem(birdSightingsMapper.entityToSighting(sightingEntity)));
-        }
         bird.setCreatedAt(birdEntity.getCreatedAt());
         bird.setUpdatedAt(birdEntity.getUpdatedAt());
 
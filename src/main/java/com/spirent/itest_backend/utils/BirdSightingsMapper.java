@@ -12,6 +12,8 @@ public class BirdSightingsMapper {
         sighting.setId(sightingEntity.getId());
         sighting.setLocation(sightingEntity.getLocation());
         sighting.setDateTime(sightingEntity.getDateTime());
+        sighting.setLatitude(sightingEntity.getLatitude());
+        sighting.setLongitude(sightingEntity.getLongitude());
 
         if (sightingEntity.getBird() != null) {
             sighting.setBirdId(sightingEntity.getBird().getId());
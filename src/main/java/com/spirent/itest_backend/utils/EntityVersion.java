@@ -0,0 +1,109 @@
+package com.spirent.itest_backend.utils;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Validators of a response, a strong ETag and a Last-Modified time, computed from the ids and modification times of
+ * the entities it is built from so that a conditional GET can be answered before anything is mapped or serialized.
+ * Writes set updatedAt, so the ETag changes whenever an entity of the response is created, updated or replaced by
+ * another one. Values that are not entities, like page totals, are added as they are.
+ * Last-Modified is the latest modification of the entities, null without any or when left out of the version.
+ */
+@Getter
+public final class EntityVersion {
+
+    private final String eTag;
+    private final Instant lastModified;
+
+    private EntityVersion(String eTag, Instant lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * The version of another representation of the same response, e.g. another encoding of it. A strong ETag only
+     * matches byte for byte identical representations, so each one gets its own
+     *
+     * @param representation Appended to the ETag
+     */
+    public EntityVersion forRepresentation(String representation) {
+        return new EntityVersion(eTag.substring(0, eTag.length() - 1) + "-" + representation + "\"", lastModified);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        // 128 bits of a SHA-256 over the added values, collisions are not a practical concern at that length
+        private static final int TAG_BYTES = 16;
+
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES + Integer.BYTES);
+        private Instant lastModified;
+        private boolean withLastModified = true;
+
+        private Builder() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+            }
+        }
+
+        /**
+         * Adds an entity of the response
+         *
+         * @param updatedAt Null until the entity is first updated, createdAt is its version until then
+         */
+        public Builder add(Long id, OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+            // PostgreSQL keeps microseconds, an entity read back must give the same tag as the one just written
+            Instant modified = (updatedAt != null ? updatedAt : createdAt).toInstant().truncatedTo(ChronoUnit.MICROS);
+            buffer.clear();
+            buffer.putLong(id).putLong(modified.getEpochSecond()).putInt(modified.getNano());
+            digest.update(buffer.flip());
+            if (lastModified == null || modified.isAfter(lastModified)) {
+                lastModified = modified;
+            }
+            return this;
+        }
+
+        /**
+         * Leaves Last-Modified out, for pages of entities: deleting an entity of a page, or sorting another one onto
+         * it, changes the page without making its latest modification any later. The ETag covers both
+         */
+        public Builder withoutLastModified() {
+            withLastModified = false;
+            return this;
+        }
+
+        /**
+         * Adds a value of the response that does not come from an entity, e.g. a total
+         */
+        public Builder add(Object value) {
+            byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+            buffer.clear();
+            buffer.putInt(bytes.length);
+            digest.update(buffer.flip());
+            digest.update(bytes);
+            return this;
+        }
+
+        public EntityVersion build() {
+            byte[] tag = Arrays.copyOf(digest.digest(), TAG_BYTES);
+            return new EntityVersion("\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(tag) + "\"",
+                    withLastModified ? lastModified : null);
+        }
+    }
+}
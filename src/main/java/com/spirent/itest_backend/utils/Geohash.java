@@ -0,0 +1,120 @@
+package com.spirent.itest_backend.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding and prefix covering of bounding boxes.
+ * Points that share a geohash prefix lie in the same grid cell, so a set of prefixes covering an area can be matched
+ * with one B-tree range scan per prefix before the exact coordinate check.
+ */
+public final class Geohash {
+
+    /** Precision stored on sightings, 12 characters is a cell of a few centimetres */
+    public static final int MAX_PRECISION = 12;
+
+    /** Upper bound on the number of prefixes a covering may use, each one is a separate index range scan */
+    public static final int MAX_COVERING_CELLS = 32;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder geohash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+
+        while (geohash.length() < precision) {
+            // Bits alternate between longitude and latitude, starting with longitude
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = index * 2 + 1;
+                    minLon = mid;
+                } else {
+                    index = index * 2;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = index * 2 + 1;
+                    minLat = mid;
+                } else {
+                    index = index * 2;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                geohash.append(BASE32[index]);
+                bit = 0;
+                index = 0;
+            }
+        }
+        return geohash.toString();
+    }
+
+    /**
+     * Returns geohash prefixes whose cells together cover the box, using the longest prefixes (smallest cells) that
+     * keep the covering within {@link #MAX_COVERING_CELLS}. The covering may reach beyond the box, never short of it.
+     */
+    public static Set<String> cover(double minLat, double minLon, double maxLat, double maxLon) {
+        for (int precision = MAX_PRECISION; precision > 1; precision--) {
+            Set<String> cells = coverAt(minLat, minLon, maxLat, maxLon, precision);
+            if (cells != null) {
+                return cells;
+            }
+        }
+        return coverAt(minLat, minLon, maxLat, maxLon, 1);
+    }
+
+    private static Set<String> coverAt(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        double cellHeight = cellHeight(precision);
+        double cellWidth = cellWidth(precision);
+        long rows = (long) Math.floor(maxLat / cellHeight) - (long) Math.floor(minLat / cellHeight) + 1;
+        long columns = (long) Math.floor(maxLon / cellWidth) - (long) Math.floor(minLon / cellWidth) + 1;
+        if (precision > 1 && rows * columns > MAX_COVERING_CELLS) {
+            return null;
+        }
+
+        // Step through the box one cell at a time, clamping the last step to the far edge
+        Set<String> cells = new LinkedHashSet<>();
+        for (long row = 0; row < rows; row++) {
+            double latitude = Math.min(minLat + row * cellHeight, maxLat);
+            for (long column = 0; column < columns; column++) {
+                double longitude = Math.min(minLon + column * cellWidth, maxLon);
+                cells.add(encode(latitude, longitude, precision));
+            }
+            cells.add(encode(latitude, maxLon, precision));
+        }
+        for (long column = 0; column < columns; column++) {
+            cells.add(encode(maxLat, Math.min(minLon + column * cellWidth, maxLon), precision));
+        }
+        cells.add(encode(maxLat, maxLon, precision));
+        return cells;
+    }
+
+    /**
+     * Smallest string ordered after every geohash that starts with the prefix, in byte order
+     */
+    public static String prefixUpperBound(String prefix) {
+        char last = prefix.charAt(prefix.length() - 1);
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+
+    // A geohash of n characters has 5n bits, longitude gets the extra bit when 5n is odd
+    private static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    private static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+}
@@ -0,0 +1,69 @@
+package com.spirent.itest_backend.utils;
+
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * It holds the sort field and direction of the walk plus the sort value and id of the last row returned,
+ * so the next slice can be fetched with a (sortValue, id) range predicate instead of an OFFSET.
+ */
+@Getter
+public final class KeysetCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final String sortField;
+    private final String direction;
+    private final Long lastId;
+    private final String lastValue;
+
+    public KeysetCursor(String sortField, String direction, Long lastId, Object lastValue) {
+        this.sortField = sortField;
+        this.direction = direction.toLowerCase();
+        this.lastId = lastId;
+        this.lastValue = String.valueOf(lastValue);
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sortField, direction, String.valueOf(lastId), lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()} and checks it belongs to the requested sort order
+     *
+     * @param token The value of the "after" query parameter
+     * @param sortField The requested sort field
+     * @param direction The requested sort direction
+     * @return The decoded cursor
+     * @throws InvalidRequestException if the token is malformed or was issued for another sort order
+     */
+    public static KeysetCursor decode(String token, String sortField, String direction) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The last value is free text and may itself contain the separator
+            parts = raw.split("\\|", 5);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Malformed cursor: " + token);
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new InvalidRequestException("Malformed cursor: " + token);
+        }
+        if (!parts[1].equals(sortField) || !parts[2].equalsIgnoreCase(direction)) {
+            throw new InvalidRequestException("Cursor was issued for sort " + parts[1] + " " + parts[2]
+                    + " but the request uses sort " + sortField + " " + direction);
+        }
+
+        try {
+            return new KeysetCursor(parts[1], parts[2], Long.valueOf(parts[3]), parts[4]);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Malformed cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.spirent.itest_backend.utils;
+
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * A page of the reactive reads, its content is emitted while the rows are read and its metadata (totals, cursor)
+ * only once the content has completed, so the response can be written without holding the page in memory.
+ * Content and metadata share the state of one walk over the rows and are subscribed once, in that order.
+ */
+@Getter
+public final class PageStream<T, P> {
+
+    private final Flux<T> content;
+    private final Mono<P> metadata;
+
+    private PageStream(Flux<T> content, Mono<P> metadata) {
+        this.content = content;
+        this.metadata = metadata;
+    }
+
+    /**
+     * Builds the page metadata once the content has been emitted
+     *
+     * @param <E> Row type
+     * @param <P> Metadata type, the paginated response without its content
+     */
+    @FunctionalInterface
+    public interface Metadata<E, P> {
+        Mono<P> build(int numberOfElements, boolean hasNext, E last);
+    }
+
+    /**
+     * @param rows Up to pageSize + 1 rows, the one after the page only tells that a next page exists
+     * @param pageSize Number of rows emitted at most
+     * @param mapper Maps each emitted row
+     * @param metadata Called after the last row
+     */
+    public static <E, T, P> PageStream<T, P> of(Flux<E> rows, int pageSize, Function<E, T> mapper, Metadata<E, P> metadata) {
+        Walk<E> walk = new Walk<>();
+        Flux<T> content = rows.<E>handle((row, sink) -> {
+            if (walk.numberOfElements < pageSize) {
+                walk.numberOfElements++;
+                walk.last = row;
+                sink.next(row);
+            } else {
+                walk.hasNext = true;
+            }
+        }).map(mapper);
+        return new PageStream<>(content, Mono.defer(() -> metadata.build(walk.numberOfElements, walk.hasNext, walk.last)));
+    }
+
+    /**
+     * Replaces the content with a transformation of it, the metadata is unchanged
+     */
+    public PageStream<T, P> withContent(Function<Flux<T>, Flux<T>> transformation) {
+        return new PageStream<>(transformation.apply(content), metadata);
+    }
+
+    private static final class Walk<E> {
+        private int numberOfElements;
+        private boolean hasNext;
+        private E last;
+    }
+}
@@ -1,10 +1,13 @@
 package com.spirent.itest_backend.utils;
 
 import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.birdwatch.model.PaginatedSearchResults;
 import com.spirent.birdwatch.model.PaginatedSightings;
 import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.SearchResult;
 import com.spirent.birdwatch.model.Sighting;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -25,23 +28,51 @@ public class PaginationMapper {
      * @return PaginatedBirds response
      */
     public <T> PaginatedBirds mapToPaginatedBirds(Page<T> birdPage, Function<T, Bird> mapperFunction) {
-        List<Bird> birds = birdPage.getContent().stream()
+        PaginatedBirds paginatedBirds = mapToPaginatedBirds((Slice<T>) birdPage, mapperFunction);
+        paginatedBirds.setTotalElements(birdPage.getTotalElements());
+        paginatedBirds.setTotalPages(birdPage.getTotalPages());
+        paginatedBirds.setTotalEstimated(false);
+        
+        return paginatedBirds;
+    }
+
+    /**
+     * Maps a Spring Data Slice to PaginatedBirds response, leaving the totals unset
+     *
+     * @param birdSlice The Spring Data Slice containing BirdEntity objects
+     * @param mapperFunction Function to convert BirdEntity to Bird DTO
+     * @return PaginatedBirds response
+     */
+    public <T> PaginatedBirds mapToPaginatedBirds(Slice<T> birdSlice, Function<T, Bird> mapperFunction) {
+        List<Bird> birds = birdSlice.getContent().stream()
                 .map(mapperFunction)
                 .collect(Collectors.toList());
         
         PaginatedBirds paginatedBirds = new PaginatedBirds();
         paginatedBirds.setContent(birds);
-        paginatedBirds.setPage(birdPage.getNumber());
-        paginatedBirds.setSize(birdPage.getSize());
-        paginatedBirds.setTotalElements((int) birdPage.getTotalElements());
-        paginatedBirds.setTotalPages(birdPage.getTotalPages());
-        paginatedBirds.setFirst(birdPage.isFirst());
-        paginatedBirds.setLast(birdPage.isLast());
-        paginatedBirds.setNumberOfElements(birdPage.getNumberOfElements());
+        paginatedBirds.setPage(birdSlice.getNumber());
+        paginatedBirds.setSize(birdSlice.getSize());
+        paginatedBirds.setFirst(birdSlice.isFirst());
+        paginatedBirds.setLast(birdSlice.isLast());
+        paginatedBirds.setNumberOfElements(birdSlice.getNumberOfElements());
         
         return paginatedBirds;
     }
 
+    /**
+     * Sets totals on a PaginatedBirds response mapped from a Slice, from an estimate instead of a count query
+     *
+     * @param paginatedBirds The response mapped from birdSlice
+     * @param birdSlice The Spring Data Slice the response was mapped from
+     * @param estimatedTotal Estimated number of matching birds
+     */
+    public void applyEstimatedTotal(PaginatedBirds paginatedBirds, Slice<?> birdSlice, long estimatedTotal) {
+        long total = estimatedTotal(birdSlice, estimatedTotal);
+        paginatedBirds.setTotalElements(total);
+        paginatedBirds.setTotalPages(totalPages(total, birdSlice.getSize()));
+        paginatedBirds.setTotalEstimated(birdSlice.hasNext());
+    }
+
     /**
      * Maps a Spring Data Page to PaginatedSightings response
      *
@@ -50,20 +81,83 @@ public class PaginationMapper {
      * @return PaginatedSightings response
      */
     public <T> PaginatedSightings mapToPaginatedSightings(Page<T> sightingPage, Function<T, Sighting> mapperFunction) {
-        List<Sighting> sightings = sightingPage.getContent().stream()
+        PaginatedSightings paginatedSightings = mapToPaginatedSightings((Slice<T>) sightingPage, mapperFunction);
+        paginatedSightings.setTotalElements(sightingPage.getTotalElements());
+        paginatedSightings.setTotalPages(sightingPage.getTotalPages());
+        paginatedSightings.setTotalEstimated(false);
+        
+        return paginatedSightings;
+    }
+
+    /**
+     * Maps a Spring Data Slice to PaginatedSightings response, leaving the totals unset
+     *
+     * @param sightingSlice The Spring Data Slice containing SightingEntity objects
+     * @param mapperFunction Function to convert SightingEntity to Sighting DTO
+     * @return PaginatedSightings response
+     */
+    public <T> PaginatedSightings mapToPaginatedSightings(Slice<T> sightingSlice, Function<T, Sighting> mapperFunction) {
+        List<Sighting> sightings = sightingSlice.getContent().stream()
                 .map(mapperFunction)
                 .collect(Collectors.toList());
         
         PaginatedSightings paginatedSightings = new PaginatedSightings();
         paginatedSightings.setContent(sightings);
-        paginatedSightings.setPage(sightingPage.getNumber());
-        paginatedSightings.setSize(sightingPage.getSize());
-        paginatedSightings.setTotalElements((int) sightingPage.getTotalElements());
-        paginatedSightings.setTotalPages(sightingPage.getTotalPages());
-        paginatedSightings.setFirst(sightingPage.isFirst());
-        paginatedSightings.setLast(sightingPage.isLast());
-        paginatedSightings.setNumberOfElements(sightingPage.getNumberOfElements());
+        paginatedSightings.setPage(sightingSlice.getNumber());
+        paginatedSightings.setSize(sightingSlice.getSize());
+        paginatedSightings.setFirst(sightingSlice.isFirst());
+        paginatedSightings.setLast(sightingSlice.isLast());
+        paginatedSightings.setNumberOfElements(sightingSlice.getNumberOfElements());
         
         return paginatedSightings;
     }
+
+    /**
+     * Sets totals on a PaginatedSightings response mapped from a Slice, from an estimate instead of a count query
+     *
+     * @param paginatedSightings The response mapped from sightingSlice
+     * @param sightingSlice The Spring Data Slice the response was mapped from
+     * @param estimatedTotal Estimated number of matching sightings
+     */
+    public void applyEstimatedTotal(PaginatedSightings paginatedSightings, Slice<?> sightingSlice, long estimatedTotal) {
+        long total = estimatedTotal(sightingSlice, estimatedTotal);
+        paginatedSightings.setTotalElements(total);
+        paginatedSightings.setTotalPages(totalPages(total, sightingSlice.getSize()));
+        paginatedSightings.setTotalEstimated(sightingSlice.hasNext());
+    }
+
+    /**
+     * Maps a Spring Data Page to PaginatedSearchResults response
+     *
+     * @param searchPage The Spring Data Page containing search hits
+     * @param mapperFunction Function to convert a search hit to SearchResult DTO
+     * @return PaginatedSearchResults response
+     */
+    public <T> PaginatedSearchResults mapToPaginatedSearchResults(Page<T> searchPage, Function<T, SearchResult> mapperFunction) {
+        List<SearchResult> results = searchPage.getContent().stream()
+                .map(mapperFunction)
+                .collect(Collectors.toList());
+        
+        PaginatedSearchResults paginatedSearchResults = new PaginatedSearchResults();
+        paginatedSearchResults.setContent(results);
+        paginatedSearchResults.setPage(searchPage.getNumber());
+        paginatedSearchResults.setSize(searchPage.getSize());
+        paginatedSearchResults.setTotalElements(searchPage.getTotalElements());
+        paginatedSearchResults.setTotalPages(searchPage.getTotalPages());
+        paginatedSearchResults.setFirst(searchPage.isFirst());
+        paginatedSearchResults.setLast(searchPage.isLast());
+        paginatedSearchResults.setNumberOfElements(searchPage.getNumberOfElements());
+        
+        return paginatedSearchResults;
+    }
+
+    // The last page reveals the exact total, otherwise the estimate can never be below what has been seen so far
+    private static long estimatedTotal(Slice<?> slice, long estimatedTotal) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        return slice.hasNext() ? Math.max(estimatedTotal, seen + 1) : seen;
+    }
+
+    private static int totalPages(long total, int pageSize) {
+        return (int) Math.min(Integer.MAX_VALUE, (total + pageSize - 1) / pageSize);
+    }
 }
@@ -0,0 +1,28 @@
+package com.spirent.itest_backend.utils;
+
+import com.spirent.birdwatch.model.SearchResult;
+import com.spirent.itest_backend.repository.projection.SearchHitView;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+@Component
+public class SearchResultMapper {
+
+    public SearchResult searchHitToSearchResult(SearchHitView searchHit) {
+        SearchResult searchResult = new SearchResult();
+        searchResult.setType(SearchResult.TypeEnum.fromValue(searchHit.getType()));
+        searchResult.setId(searchHit.getId());
+        searchResult.setBirdId(searchHit.getBirdId());
+        searchResult.setName(searchHit.getName());
+        searchResult.setColor(searchHit.getColor());
+        searchResult.setLocation(searchHit.getLocation());
+        // date_time is a TIMESTAMP column, read it in the JVM zone the same way the entity mapping does
+        if (searchHit.getDateTime() != null) {
+            searchResult.setDateTime(OffsetDateTime.ofInstant(searchHit.getDateTime().toInstant(), ZoneId.systemDefault()));
+        }
+        searchResult.setRank(searchHit.getRank());
+        return searchResult;
+    }
+}
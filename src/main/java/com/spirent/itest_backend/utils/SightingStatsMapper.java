@@ -0,0 +1,22 @@
+package com.spirent.itest_backend.utils;
+
+import com.spirent.birdwatch.model.SightingStatsBucket;
+import com.spirent.itest_backend.repository.projection.SightingStatsView;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+@Component
+public class SightingStatsMapper {
+
+    public SightingStatsBucket statsViewToBucket(SightingStatsView statsView) {
+        SightingStatsBucket bucket = new SightingStatsBucket();
+        bucket.setBirdId(statsView.getBirdId());
+        // Buckets are local timestamps, read them in the JVM zone the same way the entity mapping does
+        bucket.setBucketStart(OffsetDateTime.ofInstant(statsView.getBucketStart().toInstant(), ZoneId.systemDefault()));
+        bucket.setSightings(statsView.getSightings());
+        bucket.setDistinctLocations(statsView.getDistinctLocations());
+        return bucket;
+    }
+}
@@ -1,24 +0,0 @@
-INSERT INTO birds.birds (name, color, weight, height)
-VALUES ('Northern Cardinal', 'Red', 45, 22);
-
-INSERT INTO birds.birds (name, color, weight, height)
-VALUES ('American Robin', 'Brown/Orange', 77, 25);
-
-INSERT INTO birds.birds (name, color, weight, height)
-VALUES ('Blue Jay', 'Blue/White/Black', 90, 30);
-
-
-INSERT INTO birds.sightings (bird_id, location, date_time)
-VALUES (1, 'Central Park, NY', '2023-10-15 08:30:00+00');
-
-INSERT INTO birds.sightings (bird_id, location, date_time)
-VALUES (2, 'Forest Hills Backyard, MA', '2023-10-16 16:45:00-04');
-
-INSERT INTO birds.sightings (bird_id, location, date_time)
-VALUES (3, 'Seattle Discovery Park, WA', '2023-09-01 10:00:00-07');
-
-INSERT INTO birds.sightings (bird_id, location, date_time)
-VALUES (1, 'Toronto High Park, ON', '2023-10-17 12:15:00-05');
-
-INSERT INTO birds.sightings (bird_id, location, date_time)
-VALUES (2, 'New Jersey Pine Barrens', '2023-10-18 07:00:00-04');
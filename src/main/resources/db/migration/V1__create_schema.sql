@@ -0,0 +1,151 @@
+CREATE SCHEMA IF NOT EXISTS birds;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Increment matches the allocationSize of BirdEntity so Hibernate can assign ids without a round trip per insert
+CREATE SEQUENCE IF NOT EXISTS birds.birds_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS birds.birds (
+   id BIGINT PRIMARY KEY DEFAULT nextval('birds.birds_id_seq'),
+   name VARCHAR(255) NOT NULL,
+   color VARCHAR(255) NOT NULL,
+   weight DOUBLE PRECISION NOT NULL,
+   height DOUBLE PRECISION NOT NULL,
+   created_at TIMESTAMP NOT NULL default now(),
+   updated_at TIMESTAMP NULL,
+   search_vector TSVECTOR GENERATED ALWAYS AS (
+       setweight(to_tsvector('english', name), 'A') || setweight(to_tsvector('english', color), 'B')
+   ) STORED
+);
+
+ALTER SEQUENCE birds.birds_id_seq OWNED BY birds.birds.id;
+
+-- Sightings are range partitioned by month on date_time, so date range filters only read the matching months and
+-- expiring a month is a DETACH or DROP of its partition. The primary key has to include the partition key.
+CREATE TABLE IF NOT EXISTS birds.sightings (
+    id BIGSERIAL,
+    bird_id BIGSERIAL NOT NULL,
+    location VARCHAR(255) NOT NULL,
+    date_time TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL default now(),
+    updated_at TIMESTAMP NULL,
+    latitude DOUBLE PRECISION NULL,
+    longitude DOUBLE PRECISION NULL,
+    geohash VARCHAR(12) COLLATE "C" NULL,
+    search_vector TSVECTOR GENERATED ALWAYS AS (to_tsvector('english', location)) STORED,
+
+    PRIMARY KEY (id, date_time),
+    CONSTRAINT fk_bird
+        FOREIGN KEY (bird_id)
+        REFERENCES birds.birds (id)
+        ON DELETE CASCADE
+) PARTITION BY RANGE (date_time);
+
+-- Catches sightings outside every monthly partition, such as backfilled history, so no insert ever fails
+CREATE TABLE IF NOT EXISTS birds.sightings_default PARTITION OF birds.sightings DEFAULT;
+
+-- Expired partitions detached in place of being dropped are kept here
+CREATE SCHEMA IF NOT EXISTS birds_archive;
+
+-- Creates the partition birds.sightings_YYYY_MM of the month containing month_start, returns false if it exists.
+-- Rows of that month already in the default partition are moved into it, otherwise creating it would fail.
+-- Both steps write the partitions directly, so the rollup triggers on birds.sightings do not count them twice.
+CREATE OR REPLACE FUNCTION birds.create_sighting_partition(month_start DATE) RETURNS BOOLEAN LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name TEXT := 'sightings_' || to_char(month_start, 'YYYY_MM');
+    range_start TIMESTAMP := date_trunc('month', month_start);
+    range_end TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+BEGIN
+    IF to_regclass(format('birds.%I', partition_name)) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    CREATE TEMP TABLE parked_sightings ON COMMIT DROP AS
+        SELECT id, bird_id, location, date_time, created_at, updated_at, latitude, longitude, geohash
+        FROM birds.sightings_default WHERE date_time >= range_start AND date_time < range_end;
+    DELETE FROM birds.sightings_default WHERE date_time >= range_start AND date_time < range_end;
+    EXECUTE format('CREATE TABLE birds.%I PARTITION OF birds.sightings FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+    EXECUTE format('INSERT INTO birds.%I (id, bird_id, location, date_time, created_at, updated_at, latitude, longitude, geohash) '
+                   'SELECT * FROM parked_sightings', partition_name);
+    DROP TABLE parked_sightings;
+    RETURN TRUE;
+END
+$$;
+
+-- Detaches the partition of the month containing month_start and either drops it or moves it to birds_archive,
+-- returns false if there is no such partition. The rollups of the month are removed with it.
+CREATE OR REPLACE FUNCTION birds.expire_sighting_partition(month_start DATE, drop_table BOOLEAN) RETURNS BOOLEAN LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name TEXT := 'sightings_' || to_char(month_start, 'YYYY_MM');
+    range_start TIMESTAMP := date_trunc('month', month_start);
+    range_end TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+BEGIN
+    IF to_regclass(format('birds.%I', partition_name)) IS NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('ALTER TABLE birds.sightings DETACH PARTITION birds.%I', partition_name);
+    DELETE FROM birds.sighting_rollups WHERE bucket_start >= range_start AND bucket_start < range_end;
+    IF drop_table THEN
+        EXECUTE format('DROP TABLE birds.%I', partition_name);
+    ELSE
+        EXECUTE format('ALTER TABLE birds.%I DROP CONSTRAINT fk_bird', partition_name);
+        EXECUTE format('ALTER TABLE birds.%I SET SCHEMA birds_archive', partition_name);
+    END IF;
+    RETURN TRUE;
+END
+$$;
+
+-- Hourly sighting counts per bird and location. Coarser buckets and distinct location counts are aggregated from it
+-- at read time, keeping the location in the key is what lets deletes be applied incrementally.
+CREATE TABLE IF NOT EXISTS birds.sighting_rollups (
+    bird_id BIGINT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    location VARCHAR(255) NOT NULL,
+    sighting_count BIGINT NOT NULL,
+    PRIMARY KEY (bird_id, bucket_start, location)
+);
+
+-- Statement-level triggers apply each INSERT, UPDATE, DELETE or COPY to the rollups in one aggregated statement,
+-- so every write path (JPA, write-behind, COPY ingestion, cascading bird deletes) keeps them current.
+CREATE OR REPLACE FUNCTION birds.sighting_rollups_apply() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE birds.sighting_rollups r
+        SET sighting_count = r.sighting_count - o.sighting_count
+        FROM (SELECT bird_id, date_trunc('hour', date_time) AS bucket_start, location, count(*) AS sighting_count
+              FROM old_rows GROUP BY 1, 2, 3) o
+        WHERE r.bird_id = o.bird_id AND r.bucket_start = o.bucket_start AND r.location = o.location;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO birds.sighting_rollups AS r (bird_id, bucket_start, location, sighting_count)
+        SELECT bird_id, date_trunc('hour', date_time), location, count(*)
+        FROM new_rows
+        GROUP BY 1, 2, 3
+        ORDER BY 1, 2, 3
+        ON CONFLICT (bird_id, bucket_start, location)
+            DO UPDATE SET sighting_count = r.sighting_count + EXCLUDED.sighting_count;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM birds.sighting_rollups r
+        USING old_rows o
+        WHERE r.bird_id = o.bird_id AND r.bucket_start = date_trunc('hour', o.date_time)
+          AND r.location = o.location AND r.sighting_count <= 0;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION birds.sighting_rollups_truncate() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    TRUNCATE birds.sighting_rollups;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER sightings_rollup_insert AFTER INSERT ON birds.sightings
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION birds.sighting_rollups_apply();
+CREATE TRIGGER sightings_rollup_update AFTER UPDATE ON birds.sightings
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION birds.sighting_rollups_apply();
+CREATE TRIGGER sightings_rollup_delete AFTER DELETE ON birds.sightings
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION birds.sighting_rollups_apply();
+CREATE TRIGGER sightings_rollup_truncate AFTER TRUNCATE ON birds.sightings
+    FOR EACH STATEMENT EXECUTE FUNCTION birds.sighting_rollups_truncate();
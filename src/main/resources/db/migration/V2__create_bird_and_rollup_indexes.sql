@@ -0,0 +1,16 @@
+-- CONCURRENTLY builds without blocking writes, so Flyway runs this script outside a transaction
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_birds_weight ON birds.birds (weight);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_birds_height ON birds.birds (height);
+
+-- Trigram GIN indexes serve the case-insensitive substring filters (lower(column) LIKE '%term%')
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_birds_name_trgm ON birds.birds USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_birds_color_trgm ON birds.birds USING gin (lower(color) gin_trgm_ops);
+
+-- Full-text search over the generated search_vector column, maintained by PostgreSQL on insert and update
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_birds_search_vector ON birds.birds USING gin (search_vector);
+
+-- Backs the uk_birds_name constraint added by the next migration
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_birds_name ON birds.birds (name);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sighting_rollups_bucket_start ON birds.sighting_rollups (bucket_start);
@@ -0,0 +1,2 @@
+-- BirdEntity declares the name unique. Reusing the index built concurrently by V2 only takes a brief lock here
+ALTER TABLE birds.birds ADD CONSTRAINT uk_birds_name UNIQUE USING INDEX uk_birds_name;
@@ -0,0 +1,58 @@
+-- Every instance maintains the partitions at startup and on the same cron, and the check-then-create in these
+-- functions was not atomic: a concurrent caller could pass the existence check too and fail on the duplicate table.
+-- Both functions now start with a transaction-level advisory lock on one shared key, so callers are serialized and
+-- the later ones find the partition already there or already gone. The checks read pg_class with the snapshot of
+-- their own statement, taken after the lock: to_regclass goes through the catalog caches, which an advisory lock
+-- does not refresh, and could still miss a partition created by the caller that held it.
+
+-- Creates the partition birds.sightings_YYYY_MM of the month containing month_start, returns false if it exists.
+-- Rows of that month already in the default partition are moved into it, otherwise creating it would fail.
+-- Both steps write the partitions directly, so the rollup triggers on birds.sightings do not count them twice.
+CREATE OR REPLACE FUNCTION birds.create_sighting_partition(month_start DATE) RETURNS BOOLEAN LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name TEXT := 'sightings_' || to_char(month_start, 'YYYY_MM');
+    range_start TIMESTAMP := date_trunc('month', month_start);
+    range_end TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+BEGIN
+    -- Held until the transaction ends, so the check and the DDL after it run for one caller at a time
+    PERFORM pg_advisory_xact_lock(hashtext('birds.sightings partitions'));
+    IF EXISTS (SELECT FROM pg_class WHERE relnamespace = 'birds'::regnamespace AND relname = partition_name) THEN
+        RETURN FALSE;
+    END IF;
+    CREATE TEMP TABLE parked_sightings ON COMMIT DROP AS
+        SELECT id, bird_id, location, date_time, created_at, updated_at, latitude, longitude, geohash
+        FROM birds.sightings_default WHERE date_time >= range_start AND date_time < range_end;
+    DELETE FROM birds.sightings_default WHERE date_time >= range_start AND date_time < range_end;
+    EXECUTE format('CREATE TABLE birds.%I PARTITION OF birds.sightings FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, range_start, range_end);
+    EXECUTE format('INSERT INTO birds.%I (id, bird_id, location, date_time, created_at, updated_at, latitude, longitude, geohash) '
+                   'SELECT * FROM parked_sightings', partition_name);
+    DROP TABLE parked_sightings;
+    RETURN TRUE;
+END
+$$;
+
+-- Detaches the partition of the month containing month_start and either drops it or moves it to birds_archive,
+-- returns false if there is no such partition. The rollups of the month are removed with it.
+CREATE OR REPLACE FUNCTION birds.expire_sighting_partition(month_start DATE, drop_table BOOLEAN) RETURNS BOOLEAN LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name TEXT := 'sightings_' || to_char(month_start, 'YYYY_MM');
+    range_start TIMESTAMP := date_trunc('month', month_start);
+    range_end TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+BEGIN
+    -- Held until the transaction ends, so the check and the DDL after it run for one caller at a time
+    PERFORM pg_advisory_xact_lock(hashtext('birds.sightings partitions'));
+    IF NOT EXISTS (SELECT FROM pg_class WHERE relnamespace = 'birds'::regnamespace AND relname = partition_name) THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('ALTER TABLE birds.sightings DETACH PARTITION birds.%I', partition_name);
+    DELETE FROM birds.sighting_rollups WHERE bucket_start >= range_start AND bucket_start < range_end;
+    IF drop_table THEN
+        EXECUTE format('DROP TABLE birds.%I', partition_name);
+    ELSE
+        EXECUTE format('ALTER TABLE birds.%I DROP CONSTRAINT fk_bird', partition_name);
+        EXECUTE format('ALTER TABLE birds.%I SET SCHEMA birds_archive', partition_name);
+    END IF;
+    RETURN TRUE;
+END
+$$;
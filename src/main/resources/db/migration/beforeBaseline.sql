@@ -0,0 +1,11 @@
+-- Runs before a database without history is baselined at version 1. Baselining marks V1 as applied without running
+-- it, which is only right for the schema created by the last schema.sql. The ones before monthly partitioning left
+-- an unpartitioned birds.sightings behind, that V1 cannot be skipped for.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE n.nspname = 'birds' AND c.relname = 'sightings' AND c.relkind <> 'p') THEN
+        RAISE EXCEPTION 'birds.sightings is not partitioned, drop the birds schema and start again to let V1 create it';
+    END IF;
+END
+$$;
@@ -0,0 +1,20 @@
+-- Sample birds and sightings for local runs, applied with the demo profile.
+-- Flyway reruns this script whenever it changes, so every insert skips rows that are already there.
+
+INSERT INTO birds.birds (name, color, weight, height)
+VALUES ('Northern Cardinal', 'Red', 45, 22),
+       ('American Robin', 'Brown/Orange', 77, 25),
+       ('Blue Jay', 'Blue/White/Black', 90, 30)
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO birds.sightings (bird_id, location, date_time)
+SELECT b.id, s.location, s.date_time
+FROM (VALUES ('Northern Cardinal', 'Central Park, NY', TIMESTAMPTZ '2023-10-15 08:30:00+00'),
+             ('American Robin', 'Forest Hills Backyard, MA', TIMESTAMPTZ '2023-10-16 16:45:00-04'),
+             ('Blue Jay', 'Seattle Discovery Park, WA', TIMESTAMPTZ '2023-09-01 10:00:00-07'),
+             ('Northern Cardinal', 'Toronto High Park, ON', TIMESTAMPTZ '2023-10-17 12:15:00-05'),
+             ('American Robin', 'New Jersey Pine Barrens', TIMESTAMPTZ '2023-10-18 07:00:00-04'))
+         AS s (bird_name, location, date_time)
+JOIN birds.birds b ON b.name = s.bird_name
+WHERE NOT EXISTS (SELECT 1 FROM birds.sightings x
+                  WHERE x.bird_id = b.id AND x.location = s.location AND x.date_time = s.date_time);
@@ -1,8 +1,14 @@
 package com.spirent.itest_backend.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.BirdBatchItemResult;
+import com.spirent.birdwatch.model.BirdBatchResult;
 import com.spirent.birdwatch.model.BirdRequest;
 import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.birdwatch.model.PaginatedSightings;
+import com.spirent.birdwatch.model.Sighting;
+import com.spirent.birdwatch.model.SightingRequest;
 import com.spirent.birdwatch.model.UpdateBirdRequest;
 import com.spirent.itest_backend.config.AbstractIntegrationTest;
 import com.spirent.itest_backend.testdata.BirdTestDataBuilder;
@@ -11,13 +17,27 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 @Sql(scripts = "classpath:test-cleanup.sql",
 executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -26,6 +46,15 @@ class BirdsControllerE2ETest extends AbstractIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @LocalServerPort
     private int port;
 
@@ -297,7 +326,7 @@ class BirdsControllerE2ETest extends AbstractIntegrationTest {
         assertThat(response.getBody().getContent()).hasSize(2);
         assertThat(response.getBody().getPage()).isEqualTo(0);
         assertThat(response.getBody().getSize()).isEqualTo(2);
-        assertThat(response.getBody().getTotalElements()).isEqualTo(3);
+        assertThat(response.getBody().getTotalElements()).isEqualTo(3L);
         assertThat(response.getBody().getTotalPages()).isEqualTo(2);
         assertThat(response.getBody().getFirst()).isTrue();
         assertThat(response.getBody().getLast()).isFalse();
@@ -346,6 +375,139 @@ class BirdsControllerE2ETest extends AbstractIntegrationTest {
                 bird.getWeight() >= 40.0 && bird.getWeight() <= 80.0);
     }
 
+    @Test
+    void shouldPaginateOverFilteredBirdsWithCorrectTotals() {
+        // Given - Create multiple birds, only two of them inside the weight range
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.blueJayRequest(), Bird.class);
+
+        // When - Request the first page of size 1 with a weight filter
+        ResponseEntity<PaginatedBirds> response = restTemplate.getForEntity(
+                baseUrl + "?weightMin=40&weightMax=80&page=0&size=1", PaginatedBirds.class);
+
+        // Then - Totals reflect the filtered set, not the unfiltered page
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSize(1);
+        assertThat(response.getBody().getContent().get(0).getName()).isEqualTo("American Robin");
+        assertThat(response.getBody().getTotalElements()).isEqualTo(2L);
+        assertThat(response.getBody().getTotalPages()).isEqualTo(2);
+        assertThat(response.getBody().getLast()).isFalse();
+    }
+
+    @Test
+    void shouldWalkBirdsWithCursor() {
+        // Given - Create multiple birds
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.blueJayRequest(), Bird.class);
+
+        // When - Get the first page and follow the cursor
+        ResponseEntity<PaginatedBirds> firstPage = restTemplate.getForEntity(
+                baseUrl + "?size=2", PaginatedBirds.class);
+        String cursor = firstPage.getBody().getNextCursor();
+        ResponseEntity<PaginatedBirds> secondPage = restTemplate.getForEntity(
+                baseUrl + "?size=2&after=" + cursor, PaginatedBirds.class);
+
+        // Then
+        assertThat(cursor).isNotNull();
+        assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(secondPage.getBody()).isNotNull();
+        assertThat(secondPage.getBody().getContent()).hasSize(1);
+        assertThat(secondPage.getBody().getContent().get(0).getName()).isEqualTo("Northern Cardinal");
+        assertThat(secondPage.getBody().getTotalElements()).isNull();
+        assertThat(secondPage.getBody().getLast()).isTrue();
+        assertThat(secondPage.getBody().getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectCursorIssuedForAnotherSort() {
+        // Given
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        String cursor = restTemplate.getForEntity(baseUrl + "?size=1", PaginatedBirds.class).getBody().getNextCursor();
+
+        // When
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                baseUrl + "?size=1&sort=weight&after=" + cursor, String.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldImportNdjsonBatchWithPerItemResults() {
+        // Given - Two valid birds and one with an out of range weight
+        String body = "{\"name\":\"American Robin\",\"color\":\"Red\",\"weight\":77.5,\"height\":25}\n"
+                + "{\"name\":\"Heavy Bird\",\"color\":\"Grey\",\"weight\":20000,\"height\":25}\n"
+                + "{\"name\":\"Blue Jay\",\"color\":\"Blue\",\"weight\":85,\"height\":30}\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        // When
+        ResponseEntity<BirdBatchResult> response = restTemplate.postForEntity(
+                baseUrl + ":batch", new HttpEntity<>(body, headers), BirdBatchResult.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getCreated()).isEqualTo(2);
+        assertThat(response.getBody().getFailed()).isEqualTo(1);
+        assertThat(response.getBody().getItems()).extracting(BirdBatchItemResult::getStatus).containsExactly(
+                BirdBatchItemResult.StatusEnum.CREATED, BirdBatchItemResult.StatusEnum.FAILED, BirdBatchItemResult.StatusEnum.CREATED);
+        assertThat(response.getBody().getItems().get(1).getErrors()).anyMatch(error -> error.startsWith("weight"));
+
+        Long robinId = response.getBody().getItems().get(0).getId();
+        ResponseEntity<Bird> robin = restTemplate.getForEntity(baseUrl + "/" + robinId, Bird.class);
+        assertThat(robin.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(robin.getBody().getName()).isEqualTo("American Robin");
+    }
+
+    @Test
+    void shouldImportJsonArrayBatch() {
+        // Given
+        List<BirdRequest> birds = List.of(BirdTestDataBuilder.robinRequest(), BirdTestDataBuilder.cardinalRequest(),
+                BirdTestDataBuilder.blueJayRequest());
+
+        // When
+        ResponseEntity<BirdBatchResult> response = restTemplate.postForEntity(
+                baseUrl + ":batch", birds, BirdBatchResult.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getCreated()).isEqualTo(3);
+        assertThat(response.getBody().getFailed()).isEqualTo(0);
+
+        ResponseEntity<PaginatedBirds> all = restTemplate.getForEntity(baseUrl, PaginatedBirds.class);
+        assertThat(all.getBody().getTotalElements()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldRejectDuplicateBirdNames() {
+        // Given
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        Bird cardinal = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class).getBody();
+        UpdateBirdRequest rename = new UpdateBirdRequest();
+        rename.setName(BirdTestDataBuilder.robinRequest().getName());
+        List<BirdRequest> batch = List.of(BirdTestDataBuilder.robinRequest(), BirdTestDataBuilder.blueJayRequest(),
+                BirdTestDataBuilder.blueJayRequest());
+
+        // When
+        ResponseEntity<String> created = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), String.class);
+        ResponseEntity<String> renamed = restTemplate.exchange(baseUrl + "/" + cardinal.getId(), HttpMethod.PUT,
+                new HttpEntity<>(rename), String.class);
+        ResponseEntity<BirdBatchResult> imported = restTemplate.postForEntity(baseUrl + ":batch", batch, BirdBatchResult.class);
+
+        // Then - Conflicts for single writes, failed items for the batch
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(renamed.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(imported.getBody().getItems()).extracting(BirdBatchItemResult::getStatus).containsExactly(
+                BirdBatchItemResult.StatusEnum.FAILED, BirdBatchItemResult.StatusEnum.CREATED, BirdBatchItemResult.StatusEnum.FAILED);
+        assertThat(restTemplate.getForEntity(baseUrl, PaginatedBirds.class).getBody().getTotalElements()).isEqualTo(3L);
+    }
+
     @Test
     void shouldReturnEmptyResultWhenNoBirdsMatch() {
         // Given - Create birds
@@ -360,6 +522,292 @@ class BirdsControllerE2ETest extends AbstractIntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().getContent()).isEmpty();
-        assertThat(response.getBody().getTotalElements()).isEqualTo(0);
+        assertThat(response.getBody().getTotalElements()).isEqualTo(0L);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCacheAndSeeUpdates() {
+        // Given
+        BirdRequest birdRequest = BirdTestDataBuilder.robinRequest();
+        ResponseEntity<Bird> createResponse = restTemplate.postForEntity(baseUrl, birdRequest, Bird.class);
+        Long birdId = createResponse.getBody().getId();
+        double hitsBefore = cacheGets("hit");
+
+        // When
+        restTemplate.getForEntity(baseUrl + "/" + birdId, Bird.class);
+        restTemplate.getForEntity(baseUrl + "/" + birdId, Bird.class);
+        UpdateBirdRequest updateRequest = new UpdateBirdRequest();
+        updateRequest.setName("Updated Robin");
+        restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.PUT, new HttpEntity<>(updateRequest), Bird.class);
+        ResponseEntity<Bird> afterUpdate = restTemplate.getForEntity(baseUrl + "/" + birdId, Bird.class);
+        restTemplate.delete(baseUrl + "/" + birdId);
+        ResponseEntity<String> afterDelete = restTemplate.getForEntity(baseUrl + "/" + birdId, String.class);
+
+        // Then
+        assertThat(cacheGets("hit") - hitsBefore).isGreaterThanOrEqualTo(3);
+        assertThat(afterUpdate.getBody()).isNotNull();
+        assertThat(afterUpdate.getBody().getName()).isEqualTo("Updated Robin");
+        assertThat(afterDelete.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldReturn404WhenDeletingBirdDeletedBehindTheCache() {
+        // Given - A cached bird whose row is deleted without going through the service
+        Long birdId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        restTemplate.getForEntity(baseUrl + "/" + birdId, Bird.class);
+        jdbcTemplate.update("DELETE FROM birds.birds WHERE id = ?", birdId);
+
+        // When
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.DELETE, null, String.class);
+        ResponseEntity<String> afterDelete = restTemplate.getForEntity(baseUrl + "/" + birdId, String.class);
+
+        // Then - The stale entry is evicted along the way
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(afterDelete.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldNotShareEstimatedTotalsBetweenAbsentAndLiteralNullFilters() {
+        // Given - Four red robins
+        for (String name : List.of("Robin A", "Robin B", "Robin C", "Robin D")) {
+            BirdRequest birdRequest = BirdTestDataBuilder.robinRequest();
+            birdRequest.setName(name);
+            restTemplate.postForEntity(baseUrl, birdRequest, Bird.class);
+        }
+
+        // When - The color "null", then no color at all
+        PaginatedBirds nullColor = restTemplate.getForEntity(
+                baseUrl + "?name=Robin&color=null&size=1&total=estimate", PaginatedBirds.class).getBody();
+        PaginatedBirds anyColor = restTemplate.getForEntity(
+                baseUrl + "?name=Robin&size=1&total=estimate", PaginatedBirds.class).getBody();
+
+        // Then - Each filter set has its own cached count
+        assertThat(nullColor).isNotNull();
+        assertThat(nullColor.getTotalElements()).isZero();
+        assertThat(anyColor).isNotNull();
+        assertThat(anyColor.getTotalElements()).isEqualTo(4L);
+    }
+
+    @Test
+    void shouldExpandMostRecentSightingsOnlyWhenAsked() {
+        // Given - Two birds with three sightings each
+        String sightingsUrl = "http://localhost:" + port + "/api/v1/sightings";
+        Long robinId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        Long cardinalId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class).getBody().getId();
+        for (Long birdId : List.of(robinId, cardinalId)) {
+            for (int day = 1; day <= 3; day++) {
+                SightingRequest sightingRequest = new SightingRequest();
+                sightingRequest.setBirdId(birdId);
+                sightingRequest.setLocation("Day " + day);
+                sightingRequest.setDateTime(OffsetDateTime.parse("2024-01-0" + day + "T10:00:00Z"));
+                restTemplate.postForEntity(sightingsUrl, sightingRequest, Sighting.class);
+            }
+        }
+
+        // When
+        ResponseEntity<PaginatedBirds> plain = restTemplate.getForEntity(baseUrl, PaginatedBirds.class);
+        ResponseEntity<PaginatedBirds> expanded = restTemplate.getForEntity(
+                baseUrl + "?expand=sightings&sightingsLimit=2", PaginatedBirds.class);
+        ResponseEntity<Bird> single = restTemplate.getForEntity(
+                baseUrl + "/" + robinId + "?expand=sightings", Bird.class);
+
+        // Then
+        assertThat(plain.getBody().getContent()).allSatisfy(bird -> assertThat(bird.getSightings()).isNullOrEmpty());
+        assertThat(expanded.getBody().getContent()).hasSize(2).allSatisfy(bird ->
+                assertThat(bird.getSightings()).extracting(Sighting::getLocation).containsExactly("Day 3", "Day 2"));
+        assertThat(single.getBody().getSightings()).hasSize(3);
+    }
+
+    @Test
+    void shouldWalkOneBirdsSightingsInTimeOrder() {
+        // Given - Five sightings of the robin and one of the cardinal
+        String sightingsUrl = "http://localhost:" + port + "/api/v1/sightings";
+        Long robinId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        Long cardinalId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class).getBody().getId();
+        for (int day = 1; day <= 5; day++) {
+            SightingRequest sightingRequest = new SightingRequest();
+            sightingRequest.setBirdId(robinId);
+            sightingRequest.setLocation("Day " + day);
+            sightingRequest.setDateTime(OffsetDateTime.parse("2024-01-0" + day + "T10:00:00Z"));
+            restTemplate.postForEntity(sightingsUrl, sightingRequest, Sighting.class);
+        }
+        SightingRequest cardinalSighting = new SightingRequest();
+        cardinalSighting.setBirdId(cardinalId);
+        cardinalSighting.setLocation("Elsewhere");
+        cardinalSighting.setDateTime(OffsetDateTime.parse("2024-01-03T10:00:00Z"));
+        restTemplate.postForEntity(sightingsUrl, cardinalSighting, Sighting.class);
+
+        // When - Walk the robin's sightings two at a time
+        List<String> locations = new ArrayList<>();
+        String next = null;
+        int pages = 0;
+        do {
+            String url = baseUrl + "/" + robinId + "/sightings?size=2" + (next != null ? "&after=" + next : "");
+            ResponseEntity<PaginatedSightings> response = restTemplate.getForEntity(url, PaginatedSightings.class);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            response.getBody().getContent().forEach(sighting -> locations.add(sighting.getLocation()));
+            next = response.getBody().getNextCursor();
+            pages++;
+        } while (next != null);
+        ResponseEntity<String> unknownBird = restTemplate.getForEntity(baseUrl + "/999999/sightings", String.class);
+
+        // Then
+        assertThat(pages).isEqualTo(3);
+        assertThat(locations).containsExactly("Day 5", "Day 4", "Day 3", "Day 2", "Day 1");
+        assertThat(unknownBird.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void shouldAnswerConditionalLookupsWithNotModifiedUntilTheBirdChanges() {
+        // Given
+        Long birdId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        ResponseEntity<Bird> first = restTemplate.getForEntity(baseUrl + "/" + birdId, Bird.class);
+        String eTag = first.getHeaders().getETag();
+
+        // When
+        ResponseEntity<Bird> sameTag = restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setIfNoneMatch(eTag))), Bird.class);
+        ResponseEntity<Bird> notModifiedSince = restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setIfModifiedSince(first.getHeaders().getLastModified()))), Bird.class);
+        UpdateBirdRequest updateRequest = new UpdateBirdRequest();
+        updateRequest.setWeight(80.0);
+        restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.PUT, new HttpEntity<>(updateRequest), Bird.class);
+        ResponseEntity<Bird> afterUpdate = restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setIfNoneMatch(eTag))), Bird.class);
+
+        // Then
+        assertThat(eTag).startsWith("\"");
+        assertThat(first.getHeaders().getLastModified()).isPositive();
+        assertThat(sameTag.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(sameTag.getBody()).isNull();
+        assertThat(sameTag.getHeaders().getETag()).isEqualTo(eTag);
+        assertThat(notModifiedSince.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(afterUpdate.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterUpdate.getBody().getWeight()).isEqualTo(80.0);
+        assertThat(afterUpdate.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void shouldAnswerConditionalPagesWithNotModifiedUntilThePageChanges() {
+        // Streamed pages of the reactive profile carry no validators
+        assumeFalse(environment.acceptsProfiles(Profiles.of("reactive")));
+
+        // Given
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        String eTag = restTemplate.getForEntity(baseUrl + "?size=5", PaginatedBirds.class).getHeaders().getETag();
+
+        // When
+        ResponseEntity<PaginatedBirds> unchanged = restTemplate.exchange(baseUrl + "?size=5", HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setIfNoneMatch(eTag))), PaginatedBirds.class);
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        ResponseEntity<PaginatedBirds> afterInsert = restTemplate.exchange(baseUrl + "?size=5", HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setIfNoneMatch(eTag))), PaginatedBirds.class);
+
+        // Then
+        assertThat(eTag).isNotNull();
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(afterInsert.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterInsert.getBody().getContent()).hasSize(2);
+        assertThat(afterInsert.getHeaders().getETag()).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void shouldNotAnswerPagesByModificationTime() {
+        // Streamed pages of the reactive profile carry no validators
+        assumeFalse(environment.acceptsProfiles(Profiles.of("reactive")));
+
+        // Given - A page whose newest bird stays while another one is deleted
+        Long robinId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        ResponseEntity<PaginatedBirds> first = restTemplate.getForEntity(baseUrl + "?size=5", PaginatedBirds.class);
+
+        // When
+        restTemplate.delete(baseUrl + "/" + robinId);
+        ResponseEntity<PaginatedBirds> afterDelete = restTemplate.exchange(baseUrl + "?size=5", HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setIfModifiedSince(System.currentTimeMillis()))),
+                PaginatedBirds.class);
+
+        // Then - No Last-Modified to validate the page against, the deletion is served
+        assertThat(first.getHeaders().getETag()).isNotNull();
+        assertThat(first.getHeaders().getLastModified()).isEqualTo(-1);
+        assertThat(afterDelete.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterDelete.getBody().getContent()).hasSize(1);
+    }
+
+    @Test
+    void shouldServeCborRepresentationsWithTheirOwnValidators() throws IOException {
+        // Given
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+        Long birdId = restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        restTemplate.postForEntity(baseUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        ResponseEntity<Bird> json = restTemplate.getForEntity(baseUrl + "/" + birdId, Bird.class);
+        ResponseEntity<PaginatedBirds> jsonPage = restTemplate.getForEntity(baseUrl + "?sort=name", PaginatedBirds.class);
+
+        // When
+        ResponseEntity<byte[]> cbor = restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setAccept(List.of(MediaType.APPLICATION_CBOR)))), byte[].class);
+        ResponseEntity<byte[]> cborPage = restTemplate.exchange(baseUrl + "?sort=name", HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setAccept(List.of(MediaType.APPLICATION_CBOR)))), byte[].class);
+        String cborTag = cbor.getHeaders().getETag();
+        ResponseEntity<byte[]> unchangedCbor = restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> {
+                    headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+                    headers.setIfNoneMatch(cborTag);
+                })), byte[].class);
+        ResponseEntity<Bird> jsonWithCborTag = restTemplate.exchange(baseUrl + "/" + birdId, HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders(headers -> headers.setIfNoneMatch(cborTag))), Bird.class);
+
+        // Then - The same values in fewer bytes, under another ETag
+        assertThat(cbor.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(cbor.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        assertThat(cborMapper.readValue(cbor.getBody(), Bird.class)).isEqualTo(json.getBody());
+        assertThat(cborPage.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(cborMapper.readValue(cborPage.getBody(), PaginatedBirds.class)).isEqualTo(jsonPage.getBody());
+        assertThat(cborTag).isNotNull().isNotEqualTo(json.getHeaders().getETag());
+        assertThat(unchangedCbor.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(jsonWithCborTag.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(jsonWithCborTag.getBody()).isEqualTo(json.getBody());
+    }
+
+    @Test
+    void shouldAcceptCborBirdAndBatchBodies() throws IOException {
+        // Given
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_CBOR);
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+        byte[] robin = cborMapper.writeValueAsBytes(BirdTestDataBuilder.robinRequest());
+        BirdRequest heavyBird = BirdTestDataBuilder.cardinalRequest();
+        heavyBird.setWeight(20000.0);
+        byte[] batch = cborMapper.writeValueAsBytes(List.of(BirdTestDataBuilder.blueJayRequest(), heavyBird));
+
+        // When
+        ResponseEntity<byte[]> created = restTemplate.postForEntity(baseUrl, new HttpEntity<>(robin, headers), byte[].class);
+        ResponseEntity<byte[]> imported = restTemplate.postForEntity(baseUrl + ":batch", new HttpEntity<>(batch, headers), byte[].class);
+
+        // Then
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(cborMapper.readValue(created.getBody(), Bird.class).getName()).isEqualTo("American Robin");
+        assertThat(imported.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BirdBatchResult result = cborMapper.readValue(imported.getBody(), BirdBatchResult.class);
+        assertThat(result.getItems()).extracting(BirdBatchItemResult::getStatus).containsExactly(
+                BirdBatchItemResult.StatusEnum.CREATED, BirdBatchItemResult.StatusEnum.FAILED);
+        assertThat(result.getItems().get(1).getErrors()).anyMatch(error -> error.startsWith("weight"));
+        assertThat(restTemplate.getForEntity(baseUrl, PaginatedBirds.class).getBody().getTotalElements()).isEqualTo(2L);
+    }
+
+    private static HttpHeaders conditionalHeaders(Consumer<HttpHeaders> conditions) {
+        HttpHeaders headers = new HttpHeaders();
+        conditions.accept(headers);
+        return headers;
+    }
+
+    @SuppressWarnings("unchecked")
+    private double cacheGets(String result) {
+        ResponseEntity<Map> metric = restTemplate.getForEntity(
+                "http://localhost:" + port + "/api/v1/actuator/metrics/cache.gets?tag=cache:birds&tag=result:" + result, Map.class);
+        List<Map<String, Object>> measurements = (List<Map<String, Object>>) metric.getBody().get("measurements");
+        return ((Number) measurements.get(0).get("value")).doubleValue();
     }
 }
@@ -0,0 +1,114 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.BirdRequest;
+import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.birdwatch.model.Sighting;
+import com.spirent.birdwatch.model.SightingRequest;
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import com.spirent.itest_backend.testdata.BirdTestDataBuilder;
+import com.spirent.itest_backend.testdata.SightingTestDataBuilder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+// Tests use an in-memory registry unless asked for the exporting ones
+@AutoConfigureMetrics
+@TestPropertySource(properties = "birdwatch.metrics.sql-counting.enabled=true")
+class MetricsEndpointE2ETest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/api/v1";
+    }
+
+    @Test
+    void shouldPublishPerOperationMetricsInPrometheusFormat() throws InterruptedException {
+        // Given
+        restTemplate.postForEntity(baseUrl + "/birds", BirdTestDataBuilder.robinRequest(), Bird.class);
+        restTemplate.getForEntity(baseUrl + "/birds?size=10", PaginatedBirds.class);
+        awaitStatementsRecorded("findBirds", 0);
+
+        // When
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/actuator/prometheus", String.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .containsPattern("http_server_requests_seconds\\{.*operation=\"findBirds\".*quantile=\"0.99\"")
+                .containsPattern("http_server_requests_seconds_bucket\\{.*operation=\"addBird\"")
+                .containsPattern("birdwatch_request_sql_statements_count\\{operation=\"findBirds\"")
+                .containsPattern("birdwatch_request_sql_rows\\{operation=\"findBirds\",quantile=\"0.95\"")
+                .contains("hikaricp_connections_active", "hikaricp_connections_idle", "hikaricp_connections_pending")
+                .containsPattern("cache_gets_total\\{cache=\"birds\".*result=\"hit\"")
+                .contains("hibernate_statements_total");
+    }
+
+    @Test
+    void shouldNotIssueAStatementPerBirdWhenExpandingSightings() throws InterruptedException {
+        // Given - Three birds with two sightings each
+        for (BirdRequest birdRequest : List.of(BirdTestDataBuilder.robinRequest(), BirdTestDataBuilder.cardinalRequest(),
+                BirdTestDataBuilder.blueJayRequest())) {
+            Bird bird = restTemplate.postForEntity(baseUrl + "/birds", birdRequest, Bird.class).getBody();
+            for (SightingRequest sightingRequest : List.of(SightingTestDataBuilder.centralParkSighting(),
+                    SightingTestDataBuilder.goldenGateSighting())) {
+                sightingRequest.setBirdId(bird.getId());
+                restTemplate.postForEntity(baseUrl + "/sightings", sightingRequest, Sighting.class);
+            }
+        }
+        DistributionSummary statements = meterRegistry.find("birdwatch.request.sql.statements")
+                .tag("operation", "findBirds").summary();
+        long requestsBefore = statements == null ? 0 : statements.count();
+        double statementsBefore = statements == null ? 0 : statements.totalAmount();
+
+        // When
+        ResponseEntity<PaginatedBirds> response = restTemplate.getForEntity(
+                baseUrl + "/birds?expand=sightings&size=10", PaginatedBirds.class);
+
+        // Then - The page, its total and one query for every bird's sightings
+        assertThat(response.getBody().getContent()).hasSize(3);
+        double statementsForRequest = awaitStatementsRecorded("findBirds", requestsBefore).totalAmount() - statementsBefore;
+        assertThat(statementsForRequest).isPositive().isLessThanOrEqualTo(3);
+    }
+
+    // The reactive profile records a request once its response has been written, the client may have read it by then
+    private DistributionSummary awaitStatementsRecorded(String operation, long requestsBefore) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            DistributionSummary statements = meterRegistry.find("birdwatch.request.sql.statements")
+                    .tag("operation", operation).summary();
+            if (statements != null && statements.count() > requestsBefore) {
+                return statements;
+            }
+            assertThat(System.nanoTime()).as("SQL statements of %s recorded", operation).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
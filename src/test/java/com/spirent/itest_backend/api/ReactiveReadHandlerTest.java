@@ -0,0 +1,93 @@
+package com.spirent.itest_backend.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.PaginatedBirds;
+import com.spirent.itest_backend.service.ReactiveBirdService;
+import com.spirent.itest_backend.service.ReactiveSightingService;
+import com.spirent.itest_backend.utils.PageStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validation;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Streamed pages of the reactive profile whose rows fail to arrive, before and after the response is committed
+ */
+class ReactiveReadHandlerTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ReactiveBirdService birdService = mock(ReactiveBirdService.class);
+    private ReactiveReadHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new ReactiveReadHandler(birdService, mock(ReactiveSightingService.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, Jackson2ObjectMapperBuilder.json());
+    }
+
+    @Test
+    void shouldAnswerWithTheErrorWhenTheFirstRowFails() {
+        // Given
+        givenBirdPage(Flux.error(new IllegalStateException("Connection lost")));
+
+        // When / Then - No 200 has been sent, the error handling turns the exception into its response
+        assertThatThrownBy(() -> handler.findBirds(MockServerRequest.builder().build()).block())
+                .isInstanceOf(IllegalStateException.class).hasMessage("Connection lost");
+    }
+
+    @Test
+    void shouldEndThePageWithAnErrorMemberWhenALaterRowFails() throws Exception {
+        // Given
+        givenBirdPage(Flux.concat(Flux.just(new Bird().name("Robin")), Flux.error(new IllegalStateException("Connection lost"))));
+
+        // When
+        ServerResponse response = handler.findBirds(MockServerRequest.builder().build()).block();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/birds"));
+        response.writeTo(exchange, new ServerResponse.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return HandlerStrategies.withDefaults().messageWriters();
+            }
+
+            @Override
+            public List<ViewResolver> viewResolvers() {
+                return List.of();
+            }
+        }).block();
+        JsonNode body = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+
+        // Then - The rows written so far, closed as a well-formed document that tells it is incomplete
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body.get("content")).hasSize(1);
+        assertThat(body.get("content").get(0).get("name").asText()).isEqualTo("Robin");
+        assertThat(body.get("error").asText()).isEqualTo("The page could not be read completely");
+    }
+
+    private void givenBirdPage(Flux<Bird> rows) {
+        PageStream<Bird, PaginatedBirds> page = PageStream.of(rows, 20, Function.identity(),
+                (numberOfElements, hasNext, last) -> Mono.just(new PaginatedBirds()));
+        when(birdService.findBirdsWithFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any())).thenReturn(page);
+    }
+}
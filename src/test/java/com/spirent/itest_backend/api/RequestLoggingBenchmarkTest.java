@@ -0,0 +1,117 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import com.spirent.itest_backend.testdata.BirdTestDataBuilder;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("performance")
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class RequestLoggingBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final Logger logger = LogManager.getLogger(RequestLoggingBenchmarkTest.class);
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 1_000;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    private final LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false);
+    private final URI originalConfigLocation = loggerContext.getConfigLocation();
+
+    @AfterEach
+    void restoreLoggingConfiguration() {
+        loggerContext.setConfigLocation(originalConfigLocation);
+    }
+
+    @Test
+    void shouldServeRequestsFasterWithAsyncLogging() throws Exception {
+        // Given - A cached bird, so that a GET does little besides logging
+        Bird bird = restTemplate.postForEntity("http://localhost:" + port + "/api/v1/birds",
+                BirdTestDataBuilder.robinRequest(), Bird.class).getBody();
+        String url = "http://localhost:" + port + "/api/v1/birds/" + bird.getId();
+
+        // When - The same concurrent load is served with each configuration
+        long[] syncMicros = latencies("log4j2-sync.xml", url);
+        long[] asyncMicros = latencies("log4j2.xml", url);
+        logger.info("Synchronous logging: mean {} us, p50 {} us, p99 {} us", mean(syncMicros),
+                percentile(syncMicros, 50), percentile(syncMicros, 99));
+        logger.info("Asynchronous logging: mean {} us, p50 {} us, p99 {} us", mean(asyncMicros),
+                percentile(asyncMicros, 50), percentile(asyncMicros, 99));
+
+        // Then - Writing the lines off the request thread lowers the latency
+        assertThat(mean(asyncMicros)).isLessThan(mean(syncMicros));
+    }
+
+    private long[] latencies(String configuration, String url) throws Exception {
+        loggerContext.setConfigLocation(getClass().getClassLoader().getResource(configuration).toURI());
+        // Log the controller lines too, as every request did before the access log
+        Configurator.setLevel("com.spirent.itest_backend", Level.INFO);
+        Configurator.setLevel("com.spirent.itest_backend.api", Level.INFO);
+
+        for (int i = 0; i < 500; i++) {
+            restTemplate.getForEntity(url, Bird.class);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<long[]>> clients = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                clients.add(() -> {
+                    long[] micros = new long[REQUESTS_PER_THREAD];
+                    for (int request = 0; request < REQUESTS_PER_THREAD; request++) {
+                        long startNanos = System.nanoTime();
+                        restTemplate.getForEntity(url, Bird.class);
+                        micros[request] = (System.nanoTime() - startNanos) / 1_000;
+                    }
+                    return micros;
+                });
+            }
+
+            long[] all = new long[THREADS * REQUESTS_PER_THREAD];
+            int offset = 0;
+            for (Future<long[]> client : executor.invokeAll(clients)) {
+                System.arraycopy(client.get(), 0, all, offset, REQUESTS_PER_THREAD);
+                offset += REQUESTS_PER_THREAD;
+            }
+            Arrays.sort(all);
+            return all;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long mean(long[] sortedMicros) {
+        return Arrays.stream(sortedMicros).sum() / sortedMicros.length;
+    }
+
+    private static long percentile(long[] sortedMicros, int percentile) {
+        return sortedMicros[Math.min(sortedMicros.length - 1, sortedMicros.length * percentile / 100)];
+    }
+}
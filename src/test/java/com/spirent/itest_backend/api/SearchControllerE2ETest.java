@@ -0,0 +1,136 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.PaginatedSearchResults;
+import com.spirent.birdwatch.model.SearchResult;
+import com.spirent.birdwatch.model.Sighting;
+import com.spirent.birdwatch.model.SightingRequest;
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import com.spirent.itest_backend.testdata.BirdTestDataBuilder;
+import com.spirent.itest_backend.testdata.SightingTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class SearchControllerE2ETest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    private String birdsUrl;
+    private String sightingsUrl;
+    private String searchUrl;
+
+    @BeforeEach
+    void setUp() {
+        birdsUrl = "http://localhost:" + port + "/api/v1/birds";
+        sightingsUrl = "http://localhost:" + port + "/api/v1/sightings";
+        searchUrl = "http://localhost:" + port + "/api/v1/search";
+    }
+
+    @Test
+    void shouldFindBirdsAndSightingsTogether() {
+        // Given - A robin seen in a park and a cardinal seen elsewhere
+        ResponseEntity<Bird> robinResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        ResponseEntity<Bird> cardinalResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        Long robinId = Objects.requireNonNull(robinResponse.getBody()).getId();
+        Long cardinalId = Objects.requireNonNull(cardinalResponse.getBody()).getId();
+
+        SightingRequest sighting1 = SightingTestDataBuilder.centralParkSighting();
+        sighting1.setBirdId(robinId);
+        restTemplate.postForEntity(sightingsUrl, sighting1, Sighting.class);
+
+        SightingRequest sighting2 = SightingTestDataBuilder.londonSighting();
+        sighting2.setBirdId(cardinalId);
+        sighting2.setLocation("Riverside Meadow");
+        restTemplate.postForEntity(sightingsUrl, sighting2, Sighting.class);
+
+        // When - Search for a word that only appears in a location
+        ResponseEntity<PaginatedSearchResults> response = restTemplate.getForEntity(
+                searchUrl + "?q=park", PaginatedSearchResults.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSize(1);
+        SearchResult result = response.getBody().getContent().get(0);
+        assertThat(result.getType()).isEqualTo(SearchResult.TypeEnum.SIGHTING);
+        assertThat(result.getBirdId()).isEqualTo(robinId);
+        assertThat(result.getName()).isEqualTo("American Robin");
+        assertThat(result.getLocation()).isEqualTo("Central Park, New York");
+        assertThat(response.getBody().getTotalElements()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldMatchStemmedWordsAndRankNamesFirst() {
+        // Given - Bird names and sighting locations both mention robins
+        ResponseEntity<Bird> robinResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.blueJayRequest(), Bird.class);
+        Long robinId = Objects.requireNonNull(robinResponse.getBody()).getId();
+
+        SightingRequest sighting = SightingTestDataBuilder.centralParkSighting();
+        sighting.setBirdId(robinId);
+        sighting.setLocation("Robins Nest Lane");
+        restTemplate.postForEntity(sightingsUrl, sighting, Sighting.class);
+
+        // When - Search for the plural form
+        ResponseEntity<PaginatedSearchResults> response = restTemplate.getForEntity(
+                searchUrl + "?q=robins", PaginatedSearchResults.class);
+
+        // Then - The bird (name has the highest weight) comes before the sighting
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSize(2);
+        assertThat(response.getBody().getContent().get(0).getType()).isEqualTo(SearchResult.TypeEnum.BIRD);
+        assertThat(response.getBody().getContent().get(0).getId()).isEqualTo(robinId);
+        assertThat(response.getBody().getContent().get(1).getType()).isEqualTo(SearchResult.TypeEnum.SIGHTING);
+    }
+
+    @Test
+    void shouldRequireAllWordsOfMultiWordQuery() {
+        // Given
+        restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+        restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.blueJayRequest(), Bird.class);
+
+        // When - Search for a name word combined with a color
+        ResponseEntity<PaginatedSearchResults> response = restTemplate.getForEntity(
+                searchUrl + "?q=cardinal red", PaginatedSearchResults.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSize(1);
+        assertThat(response.getBody().getContent().get(0).getName()).isEqualTo("Northern Cardinal");
+    }
+
+    @Test
+    void shouldReturnEmptyResultWhenNothingMatches() {
+        // Given
+        restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+
+        // When
+        ResponseEntity<PaginatedSearchResults> response = restTemplate.getForEntity(
+                searchUrl + "?q=eagle", PaginatedSearchResults.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).isEmpty();
+        assertThat(response.getBody().getTotalElements()).isEqualTo(0L);
+    }
+}
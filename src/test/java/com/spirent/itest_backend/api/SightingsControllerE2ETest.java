@@ -1,10 +1,15 @@
 package com.spirent.itest_backend.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.spirent.birdwatch.model.Bird;
 import com.spirent.birdwatch.model.BirdRequest;
 import com.spirent.birdwatch.model.PaginatedSightings;
 import com.spirent.birdwatch.model.Sighting;
+import com.spirent.birdwatch.model.SightingIngestResult;
 import com.spirent.birdwatch.model.SightingRequest;
+import com.spirent.birdwatch.model.SightingStats;
+import com.spirent.birdwatch.model.SightingStatsBucket;
+import com.spirent.birdwatch.model.SightingStatsRebuildResult;
 import com.spirent.itest_backend.config.AbstractIntegrationTest;
 import com.spirent.itest_backend.testdata.BirdTestDataBuilder;
 import com.spirent.itest_backend.testdata.SightingTestDataBuilder;
@@ -13,17 +18,37 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 @Sql(scripts = "classpath:test-cleanup.sql",
         executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -32,6 +57,12 @@ class SightingsControllerE2ETest extends AbstractIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
     @LocalServerPort
     private int port;
 
@@ -139,6 +170,62 @@ class SightingsControllerE2ETest extends AbstractIntegrationTest {
         assertThat(response.getBody().getContent().get(0).getLocation()).contains("Central Park");
     }
 
+    @Test
+    void shouldFindSightingsInsideBoundingBoxAndRadius() {
+        // Given - Sightings in New York, San Francisco and London, plus one without coordinates
+        ResponseEntity<Bird> birdResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        Long birdId = birdResponse.getBody().getId();
+
+        for (SightingRequest sighting : List.of(SightingTestDataBuilder.centralParkSighting(),
+                SightingTestDataBuilder.goldenGateSighting(), SightingTestDataBuilder.londonSighting())) {
+            sighting.setBirdId(birdId);
+            restTemplate.postForEntity(sightingsUrl, sighting, Sighting.class);
+        }
+        SightingRequest withoutCoordinates = SightingTestDataBuilder.centralParkSighting();
+        withoutCoordinates.setBirdId(birdId);
+        withoutCoordinates.setLatitude(null);
+        withoutCoordinates.setLongitude(null);
+        restTemplate.postForEntity(sightingsUrl, withoutCoordinates, Sighting.class);
+
+        // When
+        ResponseEntity<PaginatedSightings> inManhattan = restTemplate.getForEntity(
+                sightingsUrl + "?bbox=-74.03,40.70,-73.93,40.80", PaginatedSightings.class);
+        ResponseEntity<PaginatedSightings> nearHydePark = restTemplate.getForEntity(
+                sightingsUrl + "?near=51.5033,-0.1195&radiusKm=5", PaginatedSightings.class);
+        ResponseEntity<PaginatedSightings> nearTowerBridge = restTemplate.getForEntity(
+                sightingsUrl + "?near=51.5055,-0.0754&radiusKm=5", PaginatedSightings.class);
+        ResponseEntity<String> crossingAntimeridian = restTemplate.getForEntity(
+                sightingsUrl + "?bbox=170,-10,-170,10", String.class);
+
+        // Then
+        assertThat(inManhattan.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(inManhattan.getBody().getContent()).hasSize(1);
+        assertThat(inManhattan.getBody().getContent().get(0).getLocation()).isEqualTo("Central Park, New York");
+        assertThat(inManhattan.getBody().getContent().get(0).getLatitude()).isEqualTo(40.7812);
+        assertThat(inManhattan.getBody().getContent().get(0).getLongitude()).isEqualTo(-73.9665);
+
+        // Hyde Park is 3.2 km from the first point and 6.2 km from the second
+        assertThat(nearHydePark.getBody().getContent()).extracting(Sighting::getLocation)
+                .containsExactly("Hyde Park, London");
+        assertThat(nearTowerBridge.getBody().getContent()).isEmpty();
+        assertThat(crossingAntimeridian.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldRejectLatitudeWithoutLongitude() {
+        // Given
+        ResponseEntity<Bird> birdResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        SightingRequest sightingRequest = SightingTestDataBuilder.centralParkSighting();
+        sightingRequest.setBirdId(birdResponse.getBody().getId());
+        sightingRequest.setLongitude(null);
+
+        // When
+        ResponseEntity<String> response = restTemplate.postForEntity(sightingsUrl, sightingRequest, String.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     void shouldFindSightingsByDateRange() {
         // Given - Create birds and sightings
@@ -248,12 +335,41 @@ class SightingsControllerE2ETest extends AbstractIntegrationTest {
         assertThat(response.getBody().getContent()).hasSize(3);
         assertThat(response.getBody().getPage()).isEqualTo(0);
         assertThat(response.getBody().getSize()).isEqualTo(3);
-        assertThat(response.getBody().getTotalElements()).isEqualTo(5);
+        assertThat(response.getBody().getTotalElements()).isEqualTo(5L);
         assertThat(response.getBody().getTotalPages()).isEqualTo(2);
         assertThat(response.getBody().getFirst()).isTrue();
         assertThat(response.getBody().getLast()).isFalse();
     }
 
+    @Test
+    void shouldWalkSightingsWithCursor() {
+        // Given - Create a bird with multiple sightings
+        ResponseEntity<Bird> birdResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        Long birdId = Objects.requireNonNull(birdResponse.getBody()).getId();
+
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            SightingRequest sighting = SightingTestDataBuilder.centralParkSighting();
+            sighting.setBirdId(birdId);
+            sighting.setLocation("Location " + i);
+            sighting.setDateTime(now.minusHours(i));
+            restTemplate.postForEntity(sightingsUrl, sighting, Sighting.class);
+        }
+
+        // When - Walk all sightings two at a time following the cursor
+        List<String> locations = new ArrayList<>();
+        PaginatedSightings slice = restTemplate.getForEntity(sightingsUrl + "?size=2", PaginatedSightings.class).getBody();
+        slice.getContent().forEach(sighting -> locations.add(sighting.getLocation()));
+        while (slice.getNextCursor() != null) {
+            slice = restTemplate.getForEntity(sightingsUrl + "?size=2&after=" + slice.getNextCursor(), PaginatedSightings.class).getBody();
+            slice.getContent().forEach(sighting -> locations.add(sighting.getLocation()));
+        }
+
+        // Then - Every sighting is returned once, most recent first
+        assertThat(locations).containsExactly("Location 0", "Location 1", "Location 2", "Location 3", "Location 4");
+        assertThat(slice.getLast()).isTrue();
+    }
+
     @Test
     void shouldFindSightingsWithSorting() {
         // Given - Create birds and sightings
@@ -349,6 +465,71 @@ class SightingsControllerE2ETest extends AbstractIntegrationTest {
         assertThat(response.getBody().getContent().get(0).getLocation()).contains("Central Park");
     }
 
+    @Test
+    void shouldFindSightingsByBirdId() {
+        // Given - Create birds and sightings
+        ResponseEntity<Bird> robinResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        ResponseEntity<Bird> cardinalResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class);
+
+        Long robinId = Objects.requireNonNull(robinResponse.getBody()).getId();
+        Long cardinalId = Objects.requireNonNull(cardinalResponse.getBody()).getId();
+
+        SightingRequest sighting1 = SightingTestDataBuilder.centralParkSighting();
+        sighting1.setBirdId(robinId);
+        restTemplate.postForEntity(sightingsUrl, sighting1, Sighting.class);
+
+        SightingRequest sighting2 = SightingTestDataBuilder.goldenGateSighting();
+        sighting2.setBirdId(cardinalId);
+        restTemplate.postForEntity(sightingsUrl, sighting2, Sighting.class);
+
+        // When - Search by exact bird ID
+        ResponseEntity<PaginatedSightings> response = restTemplate.getForEntity(
+                sightingsUrl + "?birdId=" + cardinalId, PaginatedSightings.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSize(1);
+        assertThat(response.getBody().getContent().get(0).getBirdId()).isEqualTo(cardinalId);
+    }
+
+    @Test
+    void shouldFindSightingsWithOpenEndedDateRange() {
+        // Given - Create birds and sightings
+        ResponseEntity<Bird> birdResponse = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class);
+        Long birdId = Objects.requireNonNull(birdResponse.getBody()).getId();
+
+        OffsetDateTime now = OffsetDateTime.now();
+
+        SightingRequest recent = SightingTestDataBuilder.centralParkSighting();
+        recent.setBirdId(birdId);
+        recent.setDateTime(now);
+        restTemplate.postForEntity(sightingsUrl, recent, Sighting.class);
+
+        SightingRequest old = SightingTestDataBuilder.londonSighting();
+        old.setBirdId(birdId);
+        old.setDateTime(now.minusDays(2));
+        restTemplate.postForEntity(sightingsUrl, old, Sighting.class);
+
+        DateTimeFormatter fmt = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        String start = now.minusDays(1).withNano(0).format(fmt).replace("+", "%2B");
+
+        URI uri = UriComponentsBuilder.fromUriString(sightingsUrl)
+                .queryParam("startDateTime", start)
+                .build(true)
+                .encode()
+                .toUri();
+
+        // When - Search with only a start of the interval
+        ResponseEntity<PaginatedSightings> response = restTemplate.getForEntity(uri, PaginatedSightings.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSize(1);
+        assertThat(response.getBody().getContent().get(0).getLocation()).contains("Central Park");
+    }
+
     @Test
     void shouldReturnEmptyResultWhenNoSightingsMatch() {
         // Given - Create birds and sightings
@@ -368,7 +549,7 @@ class SightingsControllerE2ETest extends AbstractIntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().getContent()).isEmpty();
-        assertThat(response.getBody().getTotalElements()).isEqualTo(0);
+        assertThat(response.getBody().getTotalElements()).isEqualTo(0L);
     }
 
     @Test
@@ -399,6 +580,373 @@ class SightingsControllerE2ETest extends AbstractIntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().getContent()).hasSize(2);
-        assertThat(response.getBody().getTotalElements()).isEqualTo(2);
+        assertThat(response.getBody().getTotalElements()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldAnswerConditionalPagesWithNotModifiedUntilASightingIsAdded() {
+        // Streamed pages of the reactive profile carry no validators
+        assumeFalse(environment.acceptsProfiles(Profiles.of("reactive")));
+
+        // Given
+        Long robinId = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        SightingRequest centralPark = SightingTestDataBuilder.centralParkSighting();
+        centralPark.setBirdId(robinId);
+        restTemplate.postForEntity(sightingsUrl, centralPark, Sighting.class);
+        String pageUrl = sightingsUrl + "?birdId=" + robinId;
+        String ofBirdUrl = birdsUrl + "/" + robinId + "/sightings";
+        String pageTag = restTemplate.getForEntity(pageUrl, PaginatedSightings.class).getHeaders().getETag();
+        String ofBirdTag = restTemplate.getForEntity(ofBirdUrl, PaginatedSightings.class).getHeaders().getETag();
+
+        // When
+        ResponseEntity<PaginatedSightings> unchangedPage = getIfNoneMatch(pageUrl, pageTag);
+        ResponseEntity<PaginatedSightings> unchangedOfBird = getIfNoneMatch(ofBirdUrl, ofBirdTag);
+        SightingRequest goldenGate = SightingTestDataBuilder.goldenGateSighting();
+        goldenGate.setBirdId(robinId);
+        restTemplate.postForEntity(sightingsUrl, goldenGate, Sighting.class);
+        ResponseEntity<PaginatedSightings> changedPage = getIfNoneMatch(pageUrl, pageTag);
+        ResponseEntity<PaginatedSightings> changedOfBird = getIfNoneMatch(ofBirdUrl, ofBirdTag);
+
+        // Then
+        assertThat(unchangedPage.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchangedOfBird.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(changedPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changedPage.getBody().getContent()).hasSize(2);
+        assertThat(changedPage.getHeaders().getLastModified()).isEqualTo(-1);
+        assertThat(changedOfBird.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changedOfBird.getHeaders().getETag()).isNotEqualTo(ofBirdTag);
+    }
+
+    private ResponseEntity<PaginatedSightings> getIfNoneMatch(String url, String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), PaginatedSightings.class);
+    }
+
+    @Test
+    void shouldIngestNdjsonSightingsAndReportRejectedLines() {
+        // Given - One known bird and an upload with an unknown bird and a malformed line
+        BirdRequest robinRequest = BirdTestDataBuilder.robinRequest();
+        ResponseEntity<Bird> robinResponse = restTemplate.postForEntity(birdsUrl, robinRequest, Bird.class);
+        Long robinId = Objects.requireNonNull(robinResponse.getBody()).getId();
+
+        String body = "{\"birdId\":" + robinId + ",\"location\":\"Central Park, New York\",\"dateTime\":\"2024-01-15T10:30:00Z\"}\n"
+                + "{\"birdId\":999999,\"location\":\"Nowhere\",\"dateTime\":\"2024-01-15T10:30:00Z\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"birdId\":" + robinId + ",\"location\":\"Hyde Park, \\\"London\\\"\",\"dateTime\":\"2024-02-20T14:15:00Z\"}\n";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+
+        // When
+        ResponseEntity<SightingIngestResult> response = restTemplate.postForEntity(
+                sightingsUrl + ":ingest", new HttpEntity<>(body, headers), SightingIngestResult.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getInserted()).isEqualTo(2);
+        assertThat(response.getBody().getRejected()).isEqualTo(2);
+        assertThat(response.getBody().getErrors()).extracting("line").containsExactly(2L, 3L);
+
+        ResponseEntity<PaginatedSightings> sightings = restTemplate.getForEntity(
+                sightingsUrl + "?birdId=" + robinId + "&sort=dateTime&direction=asc", PaginatedSightings.class);
+        assertThat(sightings.getBody()).isNotNull();
+        assertThat(sightings.getBody().getContent()).extracting(Sighting::getLocation)
+                .containsExactly("Central Park, New York", "Hyde Park, \"London\"");
+        assertThat(sightings.getBody().getContent().get(0).getDateTime().toInstant())
+                .isEqualTo(OffsetDateTime.parse("2024-01-15T10:30:00Z").toInstant());
+    }
+
+    @Test
+    void shouldIngestCborSequenceAndServeSightingsAsCbor() throws IOException {
+        // Given - A CBOR sequence with an unknown bird and an item that is not a sighting
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+        Long robinId = restTemplate.postForEntity(birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody().getId();
+        SightingRequest centralPark = SightingTestDataBuilder.centralParkSighting();
+        centralPark.setBirdId(robinId);
+        SightingRequest unknownBird = SightingTestDataBuilder.goldenGateSighting();
+        unknownBird.setBirdId(999999L);
+        SightingRequest goldenGate = SightingTestDataBuilder.goldenGateSighting();
+        goldenGate.setBirdId(robinId);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (Object item : List.of(centralPark, unknownBird, 42, goldenGate)) {
+            body.writeBytes(cborMapper.writeValueAsBytes(item));
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/cbor-seq"));
+
+        // When
+        ResponseEntity<SightingIngestResult> response = restTemplate.postForEntity(
+                sightingsUrl + ":ingest", new HttpEntity<>(body.toByteArray(), headers), SightingIngestResult.class);
+        String pageUrl = sightingsUrl + "?birdId=" + robinId + "&sort=dateTime&direction=asc";
+        ResponseEntity<PaginatedSightings> jsonPage = restTemplate.getForEntity(pageUrl, PaginatedSightings.class);
+        ResponseEntity<byte[]> jsonBytes = getAccepting(pageUrl, MediaType.APPLICATION_JSON);
+        ResponseEntity<byte[]> cborPage = getAccepting(pageUrl, MediaType.APPLICATION_CBOR);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getInserted()).isEqualTo(2);
+        assertThat(response.getBody().getRejected()).isEqualTo(2);
+        assertThat(response.getBody().getErrors()).extracting("line").containsExactly(2L, 3L);
+        assertThat(cborPage.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(cborPage.getBody().length).isLessThan(jsonBytes.getBody().length);
+        PaginatedSightings decoded = cborMapper.readValue(cborPage.getBody(), PaginatedSightings.class);
+        assertThat(decoded).isEqualTo(jsonPage.getBody());
+        assertThat(decoded.getContent()).extracting(Sighting::getLocation)
+                .containsExactlyInAnyOrder(centralPark.getLocation(), goldenGate.getLocation());
+    }
+
+    private ResponseEntity<byte[]> getAccepting(String url, MediaType mediaType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(mediaType));
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    @Test
+    void shouldCreateSightingWithGroupCommitInDurableMode() {
+        // Given
+        BirdRequest birdRequest = BirdTestDataBuilder.robinRequest();
+        ResponseEntity<Bird> birdResponse = restTemplate.postForEntity(birdsUrl, birdRequest, Bird.class);
+        Long birdId = Objects.requireNonNull(birdResponse.getBody()).getId();
+
+        SightingRequest sightingRequest = SightingTestDataBuilder.centralParkSighting();
+        sightingRequest.setBirdId(birdId);
+
+        // When
+        ResponseEntity<Sighting> response = restTemplate.postForEntity(
+                sightingsUrl + "?mode=durable", sightingRequest, Sighting.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getId()).isNotNull();
+        assertThat(response.getBody().getBirdId()).isEqualTo(birdId);
+    }
+
+    @Test
+    void shouldAcceptBufferedSightingAndFlushItLater() throws InterruptedException {
+        // Given
+        BirdRequest birdRequest = BirdTestDataBuilder.robinRequest();
+        ResponseEntity<Bird> birdResponse = restTemplate.postForEntity(birdsUrl, birdRequest, Bird.class);
+        Long birdId = Objects.requireNonNull(birdResponse.getBody()).getId();
+
+        SightingRequest sightingRequest = SightingTestDataBuilder.centralParkSighting();
+        sightingRequest.setBirdId(birdId);
+
+        // When
+        ResponseEntity<Sighting> response = restTemplate.postForEntity(
+                sightingsUrl + "?mode=buffered", sightingRequest, Sighting.class);
+        SightingRequest unknownBirdRequest = SightingTestDataBuilder.centralParkSighting();
+        unknownBirdRequest.setBirdId(999999L);
+        ResponseEntity<String> unknownBird = restTemplate.postForEntity(
+                sightingsUrl + "?mode=buffered", unknownBirdRequest, String.class);
+
+        // Then - accepted without an id, then visible once the writer has flushed
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getId()).isNull();
+        assertThat(unknownBird.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        long total = 0;
+        for (int attempt = 0; attempt < 50 && total == 0; attempt++) {
+            Thread.sleep(100);
+            ResponseEntity<PaginatedSightings> sightings = restTemplate.getForEntity(
+                    sightingsUrl + "?birdId=" + birdId, PaginatedSightings.class);
+            total = Objects.requireNonNull(sightings.getBody()).getTotalElements();
+        }
+        assertThat(total).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSkipOrEstimateTotalsWhenAsked() {
+        // Given - Five sightings of one bird
+        BirdRequest robinRequest = BirdTestDataBuilder.robinRequest();
+        Long robinId = Objects.requireNonNull(restTemplate.postForEntity(birdsUrl, robinRequest, Bird.class).getBody()).getId();
+        for (int i = 0; i < 5; i++) {
+            SightingRequest sightingRequest = SightingTestDataBuilder.centralParkSighting();
+            sightingRequest.setBirdId(robinId);
+            restTemplate.postForEntity(sightingsUrl, sightingRequest, Sighting.class);
+        }
+
+        // When
+        PaginatedSightings none = restTemplate.getForEntity(
+                sightingsUrl + "?size=2&total=none", PaginatedSightings.class).getBody();
+        PaginatedSightings estimate = restTemplate.getForEntity(
+                sightingsUrl + "?birdId=" + robinId + "&size=2&total=estimate", PaginatedSightings.class).getBody();
+        PaginatedSightings lastEstimate = restTemplate.getForEntity(
+                sightingsUrl + "?birdId=" + robinId + "&size=2&page=2&total=estimate", PaginatedSightings.class).getBody();
+
+        // Then - none has no totals, estimate is exact on the last page
+        assertThat(none).isNotNull();
+        assertThat(none.getContent()).hasSize(2);
+        assertThat(none.getLast()).isFalse();
+        assertThat(none.getTotalElements()).isNull();
+        assertThat(none.getNextCursor()).isNotNull();
+        assertThat(estimate).isNotNull();
+        assertThat(estimate.getTotalElements()).isEqualTo(5L);
+        assertThat(estimate.getTotalEstimated()).isTrue();
+        assertThat(lastEstimate).isNotNull();
+        assertThat(lastEstimate.getTotalElements()).isEqualTo(5L);
+        assertThat(lastEstimate.getTotalPages()).isEqualTo(3);
+        assertThat(lastEstimate.getTotalEstimated()).isFalse();
+    }
+
+    @Test
+    void shouldExportFilteredSightingsAsCsvAndGzippedNdjson() throws IOException {
+        // Given - Two sightings of the robin, the second one without coordinates, and one of the cardinal
+        Long robinId = Objects.requireNonNull(restTemplate.postForEntity(
+                birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody()).getId();
+        Long cardinalId = Objects.requireNonNull(restTemplate.postForEntity(
+                birdsUrl, BirdTestDataBuilder.cardinalRequest(), Bird.class).getBody()).getId();
+        List<Long> birdIds = List.of(robinId, robinId, cardinalId);
+        for (int i = 0; i < birdIds.size(); i++) {
+            SightingRequest sightingRequest = SightingTestDataBuilder.centralParkSighting();
+            sightingRequest.setBirdId(birdIds.get(i));
+            if (i == 1) {
+                sightingRequest.setLatitude(null);
+                sightingRequest.setLongitude(null);
+            }
+            restTemplate.postForEntity(sightingsUrl, sightingRequest, Sighting.class);
+        }
+
+        // When
+        ResponseEntity<String> csv = restTemplate.getForEntity(
+                sightingsUrl + "/export?birdId=" + robinId, String.class);
+        ResponseEntity<byte[]> ndjson = restTemplate.getForEntity(
+                sightingsUrl + "/export?format=ndjson&gzip=true", byte[].class);
+
+        // Then
+        assertThat(csv.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(csv.getHeaders().getContentType().toString()).startsWith("text/csv");
+        String[] csvLines = Objects.requireNonNull(csv.getBody()).split("\n");
+        assertThat(csvLines).hasSize(3);
+        assertThat(csvLines[0]).isEqualTo("id,birdId,location,latitude,longitude,dateTime,createdAt");
+        assertThat(csvLines[1]).contains("," + robinId + ",\"Central Park, New York\",40.7812,-73.9665,");
+        assertThat(csvLines[2]).contains("," + robinId + ",\"Central Park, New York\",,,");
+
+        assertThat(ndjson.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ndjson.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(Objects.requireNonNull(ndjson.getBody())))) {
+            String[] jsonLines = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim().split("\n");
+            assertThat(jsonLines).hasSize(3);
+            assertThat(jsonLines[0]).startsWith("{\"id\":").contains("\"location\":\"Central Park, New York\"",
+                    "\"latitude\":40.7812", "\"longitude\":-73.9665");
+            assertThat(jsonLines[1]).contains("\"latitude\":null", "\"longitude\":null");
+        }
+    }
+
+    @Test
+    void shouldExportSightingsInsideBoundingBoxAndRadius() {
+        // Given - Sightings in New York, San Francisco and London
+        Long birdId = Objects.requireNonNull(restTemplate.postForEntity(
+                birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody()).getId();
+        for (SightingRequest sighting : List.of(SightingTestDataBuilder.centralParkSighting(),
+                SightingTestDataBuilder.goldenGateSighting(), SightingTestDataBuilder.londonSighting())) {
+            sighting.setBirdId(birdId);
+            restTemplate.postForEntity(sightingsUrl, sighting, Sighting.class);
+        }
+
+        // When - The same geo filters as findSightings
+        ResponseEntity<String> inManhattan = restTemplate.getForEntity(
+                sightingsUrl + "/export?bbox=-74.03,40.70,-73.93,40.80", String.class);
+        ResponseEntity<String> nearHydePark = restTemplate.getForEntity(
+                sightingsUrl + "/export?format=ndjson&near=51.5033,-0.1195&radiusKm=5", String.class);
+        ResponseEntity<String> crossingAntimeridian = restTemplate.getForEntity(
+                sightingsUrl + "/export?bbox=170,-10,-170,10", String.class);
+
+        // Then
+        assertThat(inManhattan.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String[] csvLines = Objects.requireNonNull(inManhattan.getBody()).split("\n");
+        assertThat(csvLines).hasSize(2);
+        assertThat(csvLines[1]).contains("\"Central Park, New York\",40.7812,-73.9665,");
+        assertThat(nearHydePark.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String[] jsonLines = Objects.requireNonNull(nearHydePark.getBody()).trim().split("\n");
+        assertThat(jsonLines).hasSize(1);
+        assertThat(jsonLines[0]).contains("\"location\":\"Hyde Park, London\"", "\"latitude\":51.5073");
+        assertThat(crossingAntimeridian.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void shouldMaintainSightingStatsOnWritesAndRebuild() {
+        // Given - Four sightings of the robin over two days
+        Long robinId = Objects.requireNonNull(restTemplate.postForEntity(
+                birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody()).getId();
+        String[][] sightings = {
+                {"2024-01-15T10:10:00Z", "Central Park"},
+                {"2024-01-15T10:40:00Z", "Central Park"},
+                {"2024-01-15T12:00:00Z", "Hyde Park"},
+                {"2024-01-16T09:00:00Z", "Central Park"}};
+        for (String[] sighting : sightings) {
+            SightingRequest sightingRequest = new SightingRequest();
+            sightingRequest.setBirdId(robinId);
+            sightingRequest.setDateTime(OffsetDateTime.parse(sighting[0]));
+            sightingRequest.setLocation(sighting[1]);
+            restTemplate.postForEntity(sightingsUrl, sightingRequest, Sighting.class);
+        }
+
+        // When
+        SightingStats hourly = restTemplate.getForEntity(
+                sightingsUrl + "/stats?bucket=hour&birdId=" + robinId, SightingStats.class).getBody();
+        SightingStatsRebuildResult rebuild = restTemplate.postForEntity(
+                sightingsUrl + "/stats:rebuild", null, SightingStatsRebuildResult.class).getBody();
+        SightingStats monthly = restTemplate.getForEntity(
+                sightingsUrl + "/stats?bucket=month", SightingStats.class).getBody();
+        restTemplate.delete(birdsUrl + "/" + robinId);
+        SightingStats afterDelete = restTemplate.getForEntity(
+                sightingsUrl + "/stats?bucket=day", SightingStats.class).getBody();
+
+        // Then
+        assertThat(hourly).isNotNull();
+        assertThat(hourly.getContent()).extracting(SightingStatsBucket::getSightings).containsExactly(2L, 1L, 1L);
+        assertThat(hourly.getContent().get(0).getBucketStart().toInstant())
+                .isEqualTo(OffsetDateTime.parse("2024-01-15T10:00:00Z").toInstant());
+        assertThat(rebuild).isNotNull();
+        assertThat(rebuild.getRollupRows()).isEqualTo(3L);
+        assertThat(monthly).isNotNull();
+        assertThat(monthly.getContent()).hasSize(1);
+        assertThat(monthly.getContent().get(0).getSightings()).isEqualTo(4L);
+        assertThat(monthly.getContent().get(0).getDistinctLocations()).isEqualTo(2L);
+        assertThat(afterDelete).isNotNull();
+        assertThat(afterDelete.getContent()).isEmpty();
+    }
+
+    @Test
+    void shouldRunConcurrentSightingStatsRebuildsOneAfterTheOther() throws Exception {
+        // Given - A sighting in each of 24 hours
+        Long robinId = Objects.requireNonNull(restTemplate.postForEntity(
+                birdsUrl, BirdTestDataBuilder.robinRequest(), Bird.class).getBody()).getId();
+        for (int hour = 0; hour < 24; hour++) {
+            SightingRequest sightingRequest = new SightingRequest();
+            sightingRequest.setBirdId(robinId);
+            sightingRequest.setDateTime(OffsetDateTime.parse("2024-01-15T00:30:00Z").plusHours(hour));
+            sightingRequest.setLocation("Central Park");
+            restTemplate.postForEntity(sightingsUrl, sightingRequest, Sighting.class);
+        }
+
+        // When - 16 rebuilds of the same range, 8 at a time
+        List<Callable<ResponseEntity<SightingStatsRebuildResult>>> rebuilds = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            rebuilds.add(() -> restTemplate.postForEntity(
+                    sightingsUrl + "/stats:rebuild", null, SightingStatsRebuildResult.class));
+        }
+        List<ResponseEntity<SightingStatsRebuildResult>> responses = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<ResponseEntity<SightingStatsRebuildResult>> rebuild : executor.invokeAll(rebuilds)) {
+                responses.add(rebuild.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        SightingStats monthly = restTemplate.getForEntity(
+                sightingsUrl + "/stats?bucket=month&birdId=" + robinId, SightingStats.class).getBody();
+
+        // Then - Each rebuild waited for the previous one instead of colliding with its rollup rows
+        assertThat(responses).extracting(ResponseEntity::getStatusCode).containsOnly(HttpStatus.OK);
+        assertThat(responses).extracting(response -> Objects.requireNonNull(response.getBody()).getRollupRows())
+                .containsOnly(24L);
+        assertThat(monthly).isNotNull();
+        assertThat(monthly.getContent()).extracting(SightingStatsBucket::getSightings).containsExactly(24L);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package com.spirent.itest_backend.api;
+
+import com.spirent.birdwatch.model.Bird;
+import com.spirent.birdwatch.model.SightingIngestResult;
+import com.spirent.itest_backend.ItestBackendApplication;
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import com.spirent.itest_backend.testdata.BirdTestDataBuilder;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Tag("performance")
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class VirtualThreadBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final Logger logger = LogManager.getLogger(VirtualThreadBenchmarkTest.class);
+    // Five times server.tomcat.threads.max, half of them on a page that needs the database
+    private static final int CLIENTS = 1_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false);
+    private final URI originalConfigLocation = loggerContext.getConfigLocation();
+
+    @AfterEach
+    void restoreLoggingConfiguration() {
+        loggerContext.setConfigLocation(originalConfigLocation);
+    }
+
+    @Test
+    void shouldServeMoreRequestsAtHighConcurrencyOnVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+
+        // Given - A cached bird with a page of sightings, and a second instance of the app on virtual threads
+        Bird bird = restTemplate.postForEntity("http://localhost:" + port + "/api/v1/birds",
+                BirdTestDataBuilder.robinRequest(), Bird.class).getBody();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            ndjson.append("{\"birdId\":").append(bird.getId()).append(",\"location\":\"Hotspot ").append(i % 10)
+                    .append("\",\"dateTime\":\"2024-01-15T10:").append(String.format("%02d", i % 60)).append(":00Z\"}\n");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        restTemplate.postForEntity("http://localhost:" + port + "/api/v1/sightings:ingest",
+                new HttpEntity<>(ndjson.toString(), headers), SightingIngestResult.class);
+
+        try (ConfigurableApplicationContext virtualApplication = new SpringApplicationBuilder(ItestBackendApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=" + postgresContainer.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgresContainer.getUsername(),
+                        "--spring.datasource.password=" + postgresContainer.getPassword(),
+                        "--server.port=0",
+                        "--birdwatch.threads.virtual=true")) {
+            int virtualPort = Integer.parseInt(virtualApplication.getEnvironment().getProperty("local.server.port"));
+
+            // When - The same closed-loop load is served by platform and virtual request threads, both instances
+            // share the JVM and its loggers, the DEBUG output of the test profile would dominate the timings
+            Configurator.setLevel("com.spirent.itest_backend", Level.WARN);
+            Configurator.setLevel("org.springframework.web", Level.WARN);
+            Configurator.setLevel(VirtualThreadBenchmarkTest.class.getName(), Level.INFO);
+            // Virtual threads go first, so the JIT warming up over the first run does not favour them
+            Result virtual = run(virtualPort, bird.getId());
+            Result platform = run(port, bird.getId());
+            logger.info("Platform threads: {} requests/s, cached p99 {} us, database p99 {} us, {} errors",
+                    platform.throughput, percentile(platform.cachedMicros, 99),
+                    percentile(platform.databaseMicros, 99), platform.errors);
+            logger.info("Virtual threads: {} requests/s, cached p99 {} us, database p99 {} us, {} errors",
+                    virtual.throughput, percentile(virtual.cachedMicros, 99),
+                    percentile(virtual.databaseMicros, 99), virtual.errors);
+
+            // Then - Requests waiting for a connection no longer hold the workers the cached reads need
+            assertThat(virtual.errors).isZero();
+            assertThat(virtual.throughput).isGreaterThan(platform.throughput);
+            assertThat(percentile(virtual.cachedMicros, 99)).isLessThan(percentile(platform.cachedMicros, 99));
+        }
+    }
+
+    private static final class Result {
+        long[] cachedMicros;
+        long[] databaseMicros;
+        long errors;
+        long throughput;
+    }
+
+    private Result run(int port, Long birdId) throws Exception {
+        URI cached = URI.create("http://localhost:" + port + "/api/v1/birds/" + birdId);
+        URI database = URI.create("http://localhost:" + port + "/api/v1/birds/" + birdId + "/sightings?size=50");
+        for (int i = 0; i < 1_000; i++) {
+            send(cached);
+            send(database);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Callable<long[]>> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                URI uri = i % 2 == 0 ? cached : database;
+                clients.add(() -> {
+                    // The last slot counts the failed requests
+                    long[] micros = new long[REQUESTS_PER_CLIENT + 1];
+                    for (int request = 0; request < REQUESTS_PER_CLIENT; request++) {
+                        long startNanos = System.nanoTime();
+                        if (send(uri) != 200) {
+                            micros[REQUESTS_PER_CLIENT]++;
+                        }
+                        micros[request] = (System.nanoTime() - startNanos) / 1_000;
+                    }
+                    return micros;
+                });
+            }
+
+            long startNanos = System.nanoTime();
+            List<Future<long[]>> results = executor.invokeAll(clients);
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            Result result = new Result();
+            result.cachedMicros = new long[CLIENTS / 2 * REQUESTS_PER_CLIENT];
+            result.databaseMicros = new long[CLIENTS / 2 * REQUESTS_PER_CLIENT];
+            for (int i = 0; i < CLIENTS; i++) {
+                long[] micros = results.get(i).get();
+                long[] into = i % 2 == 0 ? result.cachedMicros : result.databaseMicros;
+                System.arraycopy(micros, 0, into, i / 2 * REQUESTS_PER_CLIENT, REQUESTS_PER_CLIENT);
+                result.errors += micros[REQUESTS_PER_CLIENT];
+            }
+            Arrays.sort(result.cachedMicros);
+            Arrays.sort(result.databaseMicros);
+            result.throughput = (long) CLIENTS * REQUESTS_PER_CLIENT * 1_000_000_000L / elapsedNanos;
+            return result;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int send(URI uri) throws InterruptedException {
+        try {
+            return httpClient.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long percentile(long[] sortedMicros, int percentile) {
+        return sortedMicros[Math.min(sortedMicros.length - 1, sortedMicros.length * percentile / 100)];
+    }
+}
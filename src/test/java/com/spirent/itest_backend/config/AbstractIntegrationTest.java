@@ -1,6 +1,10 @@
 package com.spirent.itest_backend.config;
 
+import com.spirent.itest_backend.cache.BirdCache;
+import com.spirent.itest_backend.cache.CountCache;
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -10,7 +14,7 @@ import org.springframework.test.context.support.TestPropertySourceUtils;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 @ContextConfiguration(initializers = AbstractIntegrationTest.Initializer.class)
-@ActiveProfiles("test")
+@ActiveProfiles(resolver = TestProfilesResolver.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public abstract class AbstractIntegrationTest {
 
@@ -36,4 +40,17 @@ public abstract class AbstractIntegrationTest {
             );
         }
     }
+
+    @Autowired
+    private BirdCache birdCache;
+
+    @Autowired
+    private CountCache countCache;
+
+    @BeforeEach
+    void clearCaches() {
+        // test-cleanup.sql truncates the tables and restarts the ids behind the cache's back
+        birdCache.invalidateAll();
+        countCache.invalidateAll();
+    }
 }
@@ -0,0 +1,37 @@
+package com.spirent.itest_backend.config;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.DiscardingAsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The access log level against the async logging configuration of log4j2.component.properties
+ */
+class AccessLogFilterTest {
+
+    @Test
+    void shouldNotDiscardAccessLinesWhenTheLoggingBufferIsFull() throws IOException {
+        // Given - The policy applied when the ring buffer is full
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("log4j2.component.properties")) {
+            properties.load(in);
+        }
+        DiscardingAsyncQueueFullPolicy policy = new DiscardingAsyncQueueFullPolicy(
+                Level.toLevel(properties.getProperty("log4j2.discardThreshold")));
+
+        // When
+        EventRoute accessRoute = policy.getRoute(Thread.currentThread().getId(), AccessLogFilter.ACCESS);
+        EventRoute infoRoute = policy.getRoute(Thread.currentThread().getId(), Level.INFO);
+
+        // Then - INFO events are dropped, access lines wait like WARN does
+        assertThat(infoRoute).isEqualTo(EventRoute.DISCARD);
+        assertThat(accessRoute).isNotEqualTo(EventRoute.DISCARD);
+    }
+}
@@ -0,0 +1,22 @@
+package com.spirent.itest_backend.config;
+
+import org.springframework.test.context.ActiveProfilesResolver;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * The test profile plus the comma separated profiles of the birdwatch.test.profiles system property, so the same
+ * suite runs against the reactive profile (./gradlew reactiveTest)
+ */
+public class TestProfilesResolver implements ActiveProfilesResolver {
+
+    @Override
+    public String[] resolve(Class<?> testClass) {
+        String profiles = System.getProperty("birdwatch.test.profiles", "");
+        return Stream.concat(Stream.of("test"), Arrays.stream(profiles.split(",")))
+                .map(String::trim)
+                .filter(profile -> !profile.isEmpty())
+                .toArray(String[]::new);
+    }
+}
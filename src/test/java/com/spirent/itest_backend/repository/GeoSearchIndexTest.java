@@ -0,0 +1,115 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import com.spirent.itest_backend.repository.SightingCopyRepository.SightingRow;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.specification.SightingSpecifications;
+import com.spirent.itest_backend.utils.Geohash;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("performance")
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class GeoSearchIndexTest extends AbstractIntegrationTest {
+
+    private static final Logger logger = LogManager.getLogger(GeoSearchIndexTest.class);
+    private static final int SIGHTING_COUNT = 10_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private SightingCopyRepository sightingCopyRepository;
+
+    @Test
+    void shouldPruneBoundingBoxAndRadiusSearchByGeohash() throws SQLException {
+        // Given - 10M sightings spread uniformly in latitude and longitude over 1000 birds
+        jdbcTemplate.update("INSERT INTO birds.birds (name, color, weight, height) " +
+                "SELECT 'Bird ' || i, 'Red', 50, 20 FROM generate_series(1, 1000) i");
+        List<Long> birdIds = jdbcTemplate.queryForList("SELECT id FROM birds.birds", Long.class);
+        sightingCopyRepository.copy(randomSightings(birdIds));
+        jdbcTemplate.execute("ANALYZE birds.sightings");
+
+        // When - Explain the cell ranges produced for a one degree box around Manhattan
+        String cellRanges = Geohash.cover(40.2, -74.5, 41.2, -73.5).stream()
+                .map(cell -> "(geohash >= '" + cell + "' AND geohash < '" + Geohash.prefixUpperBound(cell) + "')")
+                .collect(Collectors.joining(" OR "));
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM birds.sightings WHERE (" + cellRanges + ") " +
+                "AND latitude BETWEEN 40.2 AND 41.2 AND longitude BETWEEN -74.5 AND -73.5", String.class);
+
+        Specification<SightingEntity> box = SightingSpecifications.withinBoundingBox(40.2, -74.5, 41.2, -73.5);
+        Specification<SightingEntity> circle = SightingSpecifications.withinRadius(40.7812, -73.9665, 50);
+        long prunedBoxMs = bestOfThree(() -> sightingRepository.count(box));
+        long prunedCircleMs = bestOfThree(() -> sightingRepository.count(circle));
+        long scanBoxMs = bestOfThree(() -> jdbcTemplate.queryForObject("SELECT count(*) FROM birds.sightings " +
+                "WHERE latitude BETWEEN 40.2 AND 41.2 AND longitude BETWEEN -74.5 AND -73.5", Long.class));
+        logger.info("Bounding box: {} ms pruned, {} ms without the geohash; 50 km radius: {} ms pruned",
+                prunedBoxMs, scanBoxMs, prunedCircleMs);
+
+        // Then - Same rows as the exact predicate alone, read through the geohash index
+        long boxCount = sightingRepository.count(box);
+        long circleCount = sightingRepository.count(circle);
+        // Each partition has its own copy of idx_sightings_geohash, named after the partition
+        assertThat(String.join("\n", plan)).containsPattern("sightings_\\w+_geohash_idx");
+        assertThat(boxCount).isPositive().isEqualTo(jdbcTemplate.queryForObject("SELECT count(*) FROM birds.sightings " +
+                "WHERE latitude BETWEEN 40.2 AND 41.2 AND longitude BETWEEN -74.5 AND -73.5", Long.class));
+        assertThat(circleCount).isPositive().isEqualTo(jdbcTemplate.queryForObject("SELECT count(*) FROM birds.sightings " +
+                "WHERE sin(radians(40.7812)) * sin(radians(latitude)) + cos(radians(40.7812)) * cos(radians(latitude)) " +
+                "* cos(radians(longitude) - radians(-73.9665)) >= cos(50 / ?)", Long.class,
+                SightingSpecifications.EARTH_RADIUS_KM));
+        assertThat(prunedBoxMs).isLessThan(scanBoxMs);
+    }
+
+    private static Iterator<SightingRow> randomSightings(List<Long> birdIds) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        return new Iterator<>() {
+            private int produced;
+
+            @Override
+            public boolean hasNext() {
+                return produced < SIGHTING_COUNT;
+            }
+
+            @Override
+            public SightingRow next() {
+                produced++;
+                return new SightingRow(birdIds.get(produced % birdIds.size()), "Spot " + produced,
+                        start.plusMinutes(produced), random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            }
+        };
+    }
+
+    private static long bestOfThree(LongSupplier query) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long startNanos = System.nanoTime();
+            query.getAsLong();
+            best = Math.min(best, (System.nanoTime() - startNanos) / 1_000_000);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,113 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SchemaMigrationTest extends AbstractIntegrationTest {
+
+    // Created next to the test database for the upgrade tests and dropped after each of them
+    private static final String UPGRADED_DATABASE = "birds_before_flyway";
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldApplyEveryMigrationAndLeaveNoInvalidIndex() {
+        // When
+        List<String> invalidIndexes = jdbcTemplate.queryForList(
+                "SELECT i.indexrelid::regclass::text FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = 'birds' AND NOT i.indisvalid",
+                String.class);
+        List<String> sightingIndexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = 'birds' AND tablename = 'sightings_default'",
+                String.class);
+
+        // Then - Concurrent builds that failed halfway would leave invalid indexes behind
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(invalidIndexes).isEmpty();
+        assertThat(sightingIndexes).contains("sightings_default_bird_id_date_time_id_idx", "sightings_default_date_time_idx",
+                "sightings_default_geohash_idx", "sightings_default_lower_idx", "sightings_default_search_vector_idx");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conname = 'uk_birds_name' AND contype = 'u'", Long.class))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void shouldBaselineDatabaseCreatedBySchemaSql() {
+        // Given - A database created by the last schema.sql, with a bird and a sighting
+        DriverManagerDataSource dataSource = recreateUpgradedDatabase();
+        try {
+            new ResourceDatabasePopulator(new ClassPathResource("db/schema-before-flyway.sql")).execute(dataSource);
+            JdbcTemplate upgraded = new JdbcTemplate(dataSource);
+            upgraded.update("INSERT INTO birds.birds (name, color, weight, height) VALUES ('Robin', 'Red', 77.5, 25)");
+            upgraded.update("INSERT INTO birds.sightings (bird_id, location, date_time) " +
+                    "SELECT id, 'Central Park', now() FROM birds.birds");
+
+            // When - Migrated with the configuration of the application
+            Flyway upgrade = Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource).load();
+            upgrade.migrate();
+
+            // Then - V1 is taken as applied, the later migrations run and the data is kept
+            MigrationInfo[] applied = upgrade.info().applied();
+            assertThat(applied[0].getType()).isEqualTo(MigrationType.BASELINE);
+            assertThat(applied[0].getVersion().getVersion()).isEqualTo("1");
+            assertThat(applied).extracting(info -> info.getState().isFailed()).containsOnly(false);
+            assertThat(upgrade.info().pending()).isEmpty();
+            assertThat(upgraded.queryForObject("SELECT count(*) FROM birds.sightings", Long.class)).isEqualTo(1L);
+            assertThat(upgraded.queryForObject("SELECT sum(sighting_count) FROM birds.sighting_rollups", Long.class))
+                    .isEqualTo(1L);
+            assertThat(upgraded.queryForObject(
+                    "SELECT count(*) FROM pg_constraint WHERE conname = 'uk_birds_name' AND contype = 'u'", Long.class))
+                    .isEqualTo(1L);
+        } finally {
+            dropUpgradedDatabase();
+        }
+    }
+
+    @Test
+    void shouldRefuseToBaselineUnpartitionedSightings() {
+        // Given - A database created by a schema.sql from before the sightings were partitioned
+        DriverManagerDataSource dataSource = recreateUpgradedDatabase();
+        try {
+            JdbcTemplate upgraded = new JdbcTemplate(dataSource);
+            upgraded.execute("CREATE SCHEMA birds");
+            upgraded.execute("CREATE TABLE birds.sightings (id BIGSERIAL PRIMARY KEY, date_time TIMESTAMP NOT NULL)");
+            Flyway upgrade = Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource).load();
+
+            // When / Then - V1 cannot be skipped for it, and running it would fail halfway
+            assertThatThrownBy(upgrade::migrate).isInstanceOf(FlywayException.class)
+                    .hasMessageContaining("birds.sightings is not partitioned");
+        } finally {
+            dropUpgradedDatabase();
+        }
+    }
+
+    private DriverManagerDataSource recreateUpgradedDatabase() {
+        dropUpgradedDatabase();
+        jdbcTemplate.execute("CREATE DATABASE " + UPGRADED_DATABASE);
+        return new DriverManagerDataSource(
+                postgresContainer.getJdbcUrl().replace("/testdb", "/" + UPGRADED_DATABASE),
+                postgresContainer.getUsername(), postgresContainer.getPassword());
+    }
+
+    private void dropUpgradedDatabase() {
+        jdbcTemplate.execute("DROP DATABASE IF EXISTS " + UPGRADED_DATABASE + " WITH (FORCE)");
+    }
+}
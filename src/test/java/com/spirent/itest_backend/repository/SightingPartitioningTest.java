@@ -0,0 +1,128 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.specification.SightingSpecifications;
+import com.spirent.itest_backend.service.SightingPartitionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class SightingPartitioningTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Autowired
+    private SightingPartitionRepository sightingPartitionRepository;
+
+    @Autowired
+    private SightingPartitionService sightingPartitionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void dropArchivedPartitions() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS birds_archive.sightings_2020_01, birds_archive.sightings_2020_02");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS birds.sightings_2019_01, birds.sightings_2019_02, " +
+                "birds.sightings_2019_03, birds.sightings_2019_04");
+    }
+
+    @Test
+    void shouldCreatePartitionsAheadAndPruneDateRanges() {
+        // Given - A sighting in the default partition before its month gets a partition, then one per month
+        jdbcTemplate.update("INSERT INTO birds.birds (name, color, weight, height) VALUES ('Robin', 'Red', 50, 20)");
+        jdbcTemplate.update("INSERT INTO birds.sightings (bird_id, location, date_time) " +
+                "SELECT (SELECT min(id) FROM birds.birds), 'Early', TIMESTAMP '2020-02-10 08:00'");
+        sightingPartitionService.maintainPartitions(LocalDate.of(2020, 1, 15));
+        jdbcTemplate.update("INSERT INTO birds.sightings (bird_id, location, date_time) " +
+                "SELECT (SELECT min(id) FROM birds.birds), 'Month ' || m, TIMESTAMP '2020-01-20' + m * INTERVAL '1 month' " +
+                "FROM generate_series(0, 3) m");
+
+        // When - Explain the predicate shape produced by SightingSpecifications.dateTimeBetween
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM birds.sightings s WHERE s.date_time BETWEEN ? AND ?", String.class,
+                Timestamp.valueOf("2020-02-01 00:00:00"), Timestamp.valueOf("2020-02-28 00:00:00"));
+        List<SightingEntity> february = sightingRepository.findAll(SightingSpecifications.dateTimeBetween(
+                LocalDateTime.of(2020, 2, 1, 0, 0).atZone(ZoneId.systemDefault()).toOffsetDateTime(),
+                LocalDateTime.of(2020, 2, 28, 0, 0).atZone(ZoneId.systemDefault()).toOffsetDateTime()));
+
+        // Then - Only the February partition is read, and the parked sighting was moved into it
+        assertThat(sightingPartitionRepository.findMonthlyPartitionNames())
+                .contains("sightings_2020_01", "sightings_2020_02", "sightings_2020_03", "sightings_2020_04");
+        assertThat(String.join("\n", plan)).contains("sightings_2020_02")
+                .doesNotContain("sightings_2020_01", "sightings_2020_03", "sightings_default");
+        assertThat(february).extracting(SightingEntity::getLocation).containsExactlyInAnyOrder("Early", "Month 1");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM birds.sightings_default", Long.class)).isZero();
+    }
+
+    @Test
+    void shouldDetachExpiredPartitionsWithTheirRollups() {
+        // Given - Partitions for January to April 2020 with one sighting each
+        jdbcTemplate.update("INSERT INTO birds.birds (name, color, weight, height) VALUES ('Robin', 'Red', 50, 20)");
+        sightingPartitionService.maintainPartitions(LocalDate.of(2020, 1, 15));
+        jdbcTemplate.update("INSERT INTO birds.sightings (bird_id, location, date_time) " +
+                "SELECT (SELECT min(id) FROM birds.birds), 'Month ' || m, TIMESTAMP '2020-01-20' + m * INTERVAL '1 month' " +
+                "FROM generate_series(0, 3) m");
+
+        // When - Keeping two months in May 2020
+        new SightingPartitionService(sightingPartitionRepository, transactionManager, 0, 2, "detach")
+                .maintainPartitions(LocalDate.of(2020, 5, 1));
+
+        // Then - January and February moved to birds_archive, their rows and rollups left birds.sightings
+        assertThat(sightingPartitionRepository.findMonthlyPartitionNames())
+                .doesNotContain("sightings_2020_01", "sightings_2020_02")
+                .contains("sightings_2020_03", "sightings_2020_04");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM birds_archive.sightings_2020_01", Long.class)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForList("SELECT location FROM birds.sightings ORDER BY date_time", String.class))
+                .containsExactly("Month 2", "Month 3");
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(sighting_count) FROM birds.sighting_rollups", Long.class))
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void shouldCreatePartitionsOnceWhenInstancesMaintainThemConcurrently() throws Exception {
+        // Given - Months without partitions, maintained at the same time by several instances
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> runs = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < 8; i++) {
+                runs.add(executor.submit(() -> sightingPartitionService.maintainPartitions(LocalDate.of(2019, 1, 15))));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then - No run failed on a partition created by another one
+        assertThat(sightingPartitionRepository.findMonthlyPartitionNames())
+                .contains("sightings_2019_01", "sightings_2019_02", "sightings_2019_03", "sightings_2019_04");
+    }
+}
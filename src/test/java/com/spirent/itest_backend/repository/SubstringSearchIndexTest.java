@@ -0,0 +1,55 @@
+package com.spirent.itest_backend.repository;
+
+import com.spirent.itest_backend.config.AbstractIntegrationTest;
+import com.spirent.itest_backend.repository.entity.SightingEntity;
+import com.spirent.itest_backend.repository.specification.SightingSpecifications;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("performance")
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:test-cleanup.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class SubstringSearchIndexTest extends AbstractIntegrationTest {
+
+    private static final int SIGHTING_COUNT = 1_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SightingRepository sightingRepository;
+
+    @Test
+    void shouldServeLocationSubstringSearchFromTrigramIndex() {
+        // Given - 1M sightings spread over 1000 birds
+        jdbcTemplate.update("INSERT INTO birds.birds (name, color, weight, height) " +
+                "SELECT 'Bird ' || i, 'Red', 50, 20 FROM generate_series(1, 1000) i");
+        jdbcTemplate.update("INSERT INTO birds.sightings (bird_id, location, date_time) " +
+                "SELECT ids[1 + i % 1000], 'Park ' || i, now() - (i || ' minutes')::interval " +
+                "FROM generate_series(1, ?) i, (SELECT array_agg(id) AS ids FROM birds.birds) b", SIGHTING_COUNT);
+        jdbcTemplate.execute("ANALYZE birds.sightings");
+
+        // When - Explain the predicate shape produced by SightingSpecifications.locationContains
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM birds.sightings s WHERE lower(s.location) LIKE ? ESCAPE '\\'",
+                String.class, "%park 424242%");
+        Page<SightingEntity> result = sightingRepository.findAll(
+                SightingSpecifications.locationContains("PARK 424242"), PageRequest.of(0, 20));
+
+        // Then
+        // Each partition has its own copy of idx_sightings_location_trgm, named after the partition
+        assertThat(String.join("\n", plan)).containsPattern("Bitmap Index Scan on sightings_\\w+_lower_idx");
+        assertThat(result.getContent()).extracting(SightingEntity::getLocation).containsExactly("Park 424242");
+    }
+}
@@ -0,0 +1,38 @@
+package com.spirent.itest_backend.service;
+
+import com.spirent.itest_backend.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The coordinate filters as SightingService parses them. The query parameter patterns keep most malformed values
+ * away from it over HTTP, but not every caller goes through them.
+ */
+class SightingCoordinatesTest {
+
+    @Test
+    void shouldParseNearAndBoundingBox() {
+        // When
+        double[] near = SightingService.parseNear("40.7812, -73.9665");
+        double[] bbox = SightingService.parseBoundingBox("-74.03,40.70,-73.93,40.80");
+
+        // Then
+        assertThat(near).containsExactly(40.7812, -73.9665);
+        assertThat(bbox).containsExactly(-74.03, 40.70, -73.93, 40.80);
+    }
+
+    @Test
+    void shouldRejectNonFiniteCoordinates() {
+        // When / Then - NaN compares false against every bound, it must not get past the range checks
+        assertThatThrownBy(() -> SightingService.parseNear("NaN,0"))
+                .isInstanceOf(InvalidRequestException.class).hasMessageContaining("invalid number");
+        assertThatThrownBy(() -> SightingService.parseNear("0,NaN"))
+                .isInstanceOf(InvalidRequestException.class).hasMessageContaining("invalid number");
+        assertThatThrownBy(() -> SightingService.parseBoundingBox("NaN,40.70,NaN,40.80"))
+                .isInstanceOf(InvalidRequestException.class).hasMessageContaining("invalid number");
+        assertThatThrownBy(() -> SightingService.parseBoundingBox("-Infinity,40.70,Infinity,40.80"))
+                .isInstanceOf(InvalidRequestException.class).hasMessageContaining("invalid number");
+    }
+}
@@ -11,6 +11,8 @@ public class SightingTestDataBuilder {
         SightingRequest request = new SightingRequest();
         request.setBirdId(1L);
         request.setLocation("Central Park, New York");
+        request.setLatitude(40.7812);
+        request.setLongitude(-73.9665);
         request.setDateTime(OffsetDateTime.now());
         return request;
     }
@@ -19,6 +21,8 @@ public class SightingTestDataBuilder {
         SightingRequest request = new SightingRequest();
         request.setBirdId(1L);
         request.setLocation("Golden Gate Park, San Francisco");
+        request.setLatitude(37.7694);
+        request.setLongitude(-122.4862);
         request.setDateTime(OffsetDateTime.now().minusDays(1));
         return request;
     }
@@ -27,6 +31,8 @@ public class SightingTestDataBuilder {
         SightingRequest request = new SightingRequest();
         request.setBirdId(1L);
         request.setLocation("Hyde Park, London");
+        request.setLatitude(51.5073);
+        request.setLongitude(-0.1657);
         request.setDateTime(OffsetDateTime.now().minusDays(2));
         return request;
     }